@@ -15,6 +15,10 @@
  */
 package org.springframework.data.semantic.cache;
 
+import java.util.Collection;
+import java.util.Map;
+
+import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
 
 public interface EntityCache {
@@ -23,10 +27,18 @@ public interface EntityCache {
 	
 	<T> T get(URI id, Class<? extends T> clazz);
 	
+	<T> Map<URI, T> getAll(Collection<URI> ids, Class<? extends T> clazz);
+	
 	<T> void put(T entity);
 	
 	<T> void clear(Class<? extends T> clazz);
 	
 	void clearAll();
+	
+	/**
+	 * Remove the cached entities identified by the given resources, regardless of their type.
+	 * @param resources
+	 */
+	void evict(Collection<? extends Resource> resources);
 
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.cache;
+
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+
+/**
+ * Transport of cache invalidations between application nodes sharing the same repository. The resources written 
+ * on a node are published to its peers, which evict them from their caches. Implementations must not deliver 
+ * the messages of a node to the listeners of the same node.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public interface InvalidationChannel {
+	
+	/**
+	 * Publish the resources changed by a write on this node.
+	 * @param resources
+	 */
+	void publish(Set<Resource> resources);
+	
+	/**
+	 * Publish a change on this node whose affected resources are not known.
+	 */
+	void publishAll();
+	
+	/**
+	 * Register a listener for the changes published by the peers of this node.
+	 * @param listener
+	 */
+	void subscribe(SemanticDatabaseWriteListener listener);
+	
+	/**
+	 * 
+	 * @param listener
+	 */
+	void unsubscribe(SemanticDatabaseWriteListener listener);
+
+}
@@ -21,13 +21,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.semantic.cache.InvalidationChannel;
 import org.springframework.data.semantic.convert.StringToDateConverter;
 import org.springframework.data.semantic.convert.StringToSemanticResourceConverter;
 import org.springframework.data.semantic.convert.StringToUriConverter;
 import org.springframework.data.semantic.convert.StringToXMLGregorianCalendarConverter;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.core.SemanticExceptionTranslator;
+import org.springframework.data.semantic.support.BatchEntityLoader;
 import org.springframework.data.semantic.support.SemanticTemplateCRUD;
+import org.springframework.data.semantic.support.cache.EntityCacheType;
+import org.springframework.data.semantic.support.cache.LocalEntityCache;
 
 @Configuration
 public class SemanticConfiguration {
@@ -36,6 +40,26 @@ public class SemanticConfiguration {
 	
 	private boolean explicitSupertypes = true;
 	
+	private int batchSize = BatchEntityLoader.DEFAULT_BATCH_SIZE;
+	
+	private boolean saveWithUpdate = false;
+	
+	private boolean dirtyTracking = false;
+	
+	private String[] warmUpPackages;
+	
+	private EntityCacheType entityCacheType = EntityCacheType.EHCACHE;
+	
+	private long entityCacheMaximumWeight = LocalEntityCache.DEFAULT_MAXIMUM_WEIGHT;
+	
+	private long entityCacheTimeToLive = 0;
+	
+	private long moleculeCacheMaximumWeight = 0;
+	
+	private InvalidationChannel invalidationChannel;
+	
+	private int warmUpThreads = Runtime.getRuntime().availableProcessors();
+	
 	@Autowired(required=false)
 	public void setSemanticDatabase(SemanticDatabase semanticDatabase) {
 		this.semanticDatabase = semanticDatabase;
@@ -45,10 +69,61 @@ public class SemanticConfiguration {
 		this.explicitSupertypes = explicitSupertypes;
 	}
 	
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+	
+	public void setSaveWithUpdate(boolean saveWithUpdate) {
+		this.saveWithUpdate = saveWithUpdate;
+	}
+	
+	public void setDirtyTracking(boolean dirtyTracking) {
+		this.dirtyTracking = dirtyTracking;
+	}
+	
+	public void setWarmUpPackages(String[] warmUpPackages) {
+		this.warmUpPackages = warmUpPackages;
+	}
+	
+	public void setWarmUpThreads(int warmUpThreads) {
+		this.warmUpThreads = warmUpThreads;
+	}
+	
+	public void setEntityCacheType(EntityCacheType entityCacheType) {
+		this.entityCacheType = entityCacheType;
+	}
+	
+	public void setEntityCacheMaximumWeight(long entityCacheMaximumWeight) {
+		this.entityCacheMaximumWeight = entityCacheMaximumWeight;
+	}
+	
+	public void setEntityCacheTimeToLive(long entityCacheTimeToLive) {
+		this.entityCacheTimeToLive = entityCacheTimeToLive;
+	}
+	
+	public void setMoleculeCacheMaximumWeight(long moleculeCacheMaximumWeight) {
+		this.moleculeCacheMaximumWeight = moleculeCacheMaximumWeight;
+	}
+	
+	public void setInvalidationChannel(InvalidationChannel invalidationChannel) {
+		this.invalidationChannel = invalidationChannel;
+	}
+	
 	
 	@Bean
 	public SemanticTemplateCRUD semanticTemplateCRUD() {
-		return new SemanticTemplateCRUD(semanticDatabase, conversionService(), explicitSupertypes);
+		SemanticTemplateCRUD semanticTemplateCRUD = new SemanticTemplateCRUD(semanticDatabase, conversionService(), explicitSupertypes);
+		semanticTemplateCRUD.setBatchSize(batchSize);
+		semanticTemplateCRUD.setSaveWithUpdate(saveWithUpdate);
+		semanticTemplateCRUD.setDirtyTracking(dirtyTracking);
+		semanticTemplateCRUD.setWarmUpPackages(warmUpPackages);
+		semanticTemplateCRUD.setWarmUpThreads(warmUpThreads);
+		semanticTemplateCRUD.setEntityCacheType(entityCacheType);
+		semanticTemplateCRUD.setEntityCacheMaximumWeight(entityCacheMaximumWeight);
+		semanticTemplateCRUD.setEntityCacheTimeToLive(entityCacheTimeToLive);
+		semanticTemplateCRUD.setMoleculeCacheMaximumWeight(moleculeCacheMaximumWeight);
+		semanticTemplateCRUD.setInvalidationChannel(invalidationChannel);
+		return semanticTemplateCRUD;
 	}
 	
 	@Bean
@@ -39,6 +39,36 @@ public class SemanticConfigurationBeanDefinitionParser extends
 		if(element.hasAttribute("explicit-supertypes")){
 			builder.addPropertyValue("explicitSupertypes", element.getAttribute("explicit-supertypes"));
 		}
+		if(element.hasAttribute("batch-size")){
+			builder.addPropertyValue("batchSize", element.getAttribute("batch-size"));
+		}
+		if(element.hasAttribute("save-with-update")){
+			builder.addPropertyValue("saveWithUpdate", element.getAttribute("save-with-update"));
+		}
+		if(element.hasAttribute("dirty-tracking")){
+			builder.addPropertyValue("dirtyTracking", element.getAttribute("dirty-tracking"));
+		}
+		if(element.hasAttribute("warm-up-packages")){
+			builder.addPropertyValue("warmUpPackages", element.getAttribute("warm-up-packages"));
+		}
+		if(element.hasAttribute("warm-up-threads")){
+			builder.addPropertyValue("warmUpThreads", element.getAttribute("warm-up-threads"));
+		}
+		if(element.hasAttribute("entity-cache")){
+			builder.addPropertyValue("entityCacheType", element.getAttribute("entity-cache").toUpperCase());
+		}
+		if(element.hasAttribute("entity-cache-max-weight")){
+			builder.addPropertyValue("entityCacheMaximumWeight", element.getAttribute("entity-cache-max-weight"));
+		}
+		if(element.hasAttribute("entity-cache-ttl")){
+			builder.addPropertyValue("entityCacheTimeToLive", element.getAttribute("entity-cache-ttl"));
+		}
+		if(element.hasAttribute("molecule-cache-max-weight")){
+			builder.addPropertyValue("moleculeCacheMaximumWeight", element.getAttribute("molecule-cache-max-weight"));
+		}
+		if(element.hasAttribute("invalidation-channel-ref")){
+			builder.addPropertyReference("invalidationChannel", element.getAttribute("invalidation-channel-ref"));
+		}
 		
 		builder.setAutowireMode(Autowire.BY_TYPE.value());
 		setupConfigurationClassPostProcessor(parserContext);
@@ -52,6 +52,38 @@ public class SemanticDatabaseBeanDefinitionParser extends
 					element.getAttribute("configFile"));
 		builder.addPropertyValue("maxConnections",
 				element.getAttribute("maxConnections"));
+		if (element.hasAttribute("connectionTimeout")) {
+			builder.addPropertyValue("connectionTimeout",
+					element.getAttribute("connectionTimeout"));
+		}
+		if (element.hasAttribute("validationInterval")) {
+			builder.addPropertyValue("validationInterval",
+					element.getAttribute("validationInterval"));
+		}
+		if (element.hasAttribute("leakDetection")) {
+			builder.addPropertyValue("leakDetection",
+					element.getAttribute("leakDetection"));
+		}
+		if (element.hasAttribute("leakDetectionThreshold")) {
+			builder.addPropertyValue("leakDetectionThreshold",
+					element.getAttribute("leakDetectionThreshold"));
+		}
+		if (element.hasAttribute("reclaimTimeout")) {
+			builder.addPropertyValue("reclaimTimeout",
+					element.getAttribute("reclaimTimeout"));
+		}
+		if (element.hasAttribute("idleTimeout")) {
+			builder.addPropertyValue("idleTimeout",
+					element.getAttribute("idleTimeout"));
+		}
+		if (element.hasAttribute("maxLifetime")) {
+			builder.addPropertyValue("maxLifetime",
+					element.getAttribute("maxLifetime"));
+		}
+		if (element.hasAttribute("minIdle")) {
+			builder.addPropertyValue("minIdle",
+					element.getAttribute("minIdle"));
+		}
 		if (element.hasAttribute("defaultNamespace")) {
 			builder.addPropertyValue("defaultNamespace",
 					element.getAttribute("defaultNamespace"));
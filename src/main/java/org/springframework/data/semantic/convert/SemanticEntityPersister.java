@@ -50,4 +50,11 @@ public interface SemanticEntityPersister {
 	 * @return
 	 */
 	<T> Iterable<T> persistEntities(Map<T, RDFState> entitiesToExistingState);
+	
+	/**
+	 * Collect the statements of the given entity which changed since it was created from its state.
+	 * @param entity
+	 * @return the statements to add and remove, or null if the entity's state is not tracked
+	 */
+	<T> RDFState getDirtyState(T entity);
 }
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+/**
+ * An {@link Iterable} reading its elements lazily from the semantic database. 
+ * It can be iterated only once and has to be closed if it is not fully consumed.
+ * 
+ * @author konstantin.pentchev
+ *
+ * @param <T>
+ */
+public interface ClosableIterable<T> extends Iterable<T> {
+	
+	/**
+	 * Release the resources held by the iteration.
+	 */
+	void close();
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import java.util.List;
+
+import org.openrdf.model.URI;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A slice of entities ordered by their id, continued by seeking past the last id instead of skipping an offset. 
+ * Retrieving a slice takes the same time regardless of how many slices precede it.
+ * 
+ * @author konstantin.pentchev
+ *
+ * @param <T>
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final URI continuation;
+
+	public KeysetSlice(List<T> content, int size, URI continuation) {
+		super(content, new PageRequest(0, size), continuation != null);
+		this.continuation = continuation;
+	}
+	
+	/**
+	 * 
+	 * @return the id to pass for retrieving the next slice, or null if this is the last one
+	 */
+	public URI getContinuation() {
+		return continuation;
+	}
+
+}
@@ -21,7 +21,12 @@ import java.io.File;
 import java.io.IOException;
 import java.security.InvalidParameterException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.openrdf.model.Model;
 import org.openrdf.model.Namespace;
@@ -32,12 +37,13 @@ import org.openrdf.model.Value;
 import org.openrdf.model.impl.ContextStatementImpl;
 import org.openrdf.model.impl.NamespaceImpl;
 import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.query.Binding;
 import org.openrdf.query.BindingSet;
+import org.openrdf.query.GraphQueryResult;
 import org.openrdf.query.MalformedQueryException;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.query.QueryInterruptedException;
 import org.openrdf.query.QueryLanguage;
-import org.openrdf.query.QueryResults;
 import org.openrdf.query.Update;
 import org.openrdf.query.UpdateExecutionException;
 import org.openrdf.repository.Repository;
@@ -50,15 +56,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.repository.query.QueryCreationException;
+import org.springframework.data.semantic.query.AbstractSparqlQuery;
 import org.springframework.data.semantic.query.BooleanSparqlQuery;
 import org.springframework.data.semantic.query.GraphSparqlQuery;
 import org.springframework.data.semantic.query.TupleSparqlQuery;
+import org.springframework.data.semantic.support.database.ExtendedRepositoryConnection;
 import org.springframework.data.semantic.support.database.SesameConnectionPool;
 import org.springframework.data.semantic.support.exceptions.SemanticDatabaseAccessException;
 import org.springframework.data.semantic.support.exceptions.UncategorizedSemanticDataAccessException;
+import org.springframework.data.semantic.support.util.CompactModel;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * An implementation of {@link SemanticDatabase} that uses connection pooling.
+ * Within a transaction managed by a {@link SemanticTransactionManager} all operations share the connection bound to the transaction.
  * 
  * @author konstantin.pentchev
  *
@@ -68,17 +80,108 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	private SesameConnectionPool connectionPool;
 	
 	private Logger logger = LoggerFactory.getLogger(PooledSemanticDatabase.class);
+	
+	private final List<SemanticDatabaseWriteListener> writeListeners = new CopyOnWriteArrayList<SemanticDatabaseWriteListener>();
 
 	public PooledSemanticDatabase(Repository repository, int maxConnections){
-		this(new SesameConnectionPool(repository, maxConnections, 6000));			
+		this(new SesameConnectionPool(repository, maxConnections));			
 	}
 
 	public PooledSemanticDatabase(SesameConnectionPool pool){
 		this.connectionPool = pool;
 	}
+	
+	/**
+	 * 
+	 * @return the pool providing the connections of this database.
+	 */
+	public SesameConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+	
+	/**
+	 * Register a listener notified about the resources changed by the write operations of this database.
+	 * @param listener
+	 */
+	public void addWriteListener(SemanticDatabaseWriteListener listener){
+		writeListeners.add(listener);
+	}
+	
+	/**
+	 * 
+	 * @param listener
+	 */
+	public void removeWriteListener(SemanticDatabaseWriteListener listener){
+		writeListeners.remove(listener);
+	}
+	
+	private void fireStatementsChanged(Collection<? extends Statement> statements){
+		if(writeListeners.isEmpty()){
+			return;
+		}
+		Set<Resource> resources = new HashSet<Resource>();
+		for(Statement statement : statements){
+			resources.add(statement.getSubject());
+			if(statement.getObject() instanceof Resource){
+				resources.add((Resource) statement.getObject());
+			}
+		}
+		fireResourcesChanged(resources);
+	}
+	
+	private void fireResourcesChanged(final Set<Resource> resources){
+		if(writeListeners.isEmpty() || resources.isEmpty()){
+			return;
+		}
+		for(SemanticDatabaseWriteListener listener : writeListeners){
+			listener.resourcesChanged(resources);
+		}
+		if(TransactionSynchronizationManager.isSynchronizationActive()){
+			//state read concurrently before the commit is outdated after it
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					for(SemanticDatabaseWriteListener listener : writeListeners){
+						listener.resourcesChanged(resources);
+					}
+				}
+			});
+		}
+	}
+	
+	private void fireDatabaseChanged(){
+		if(writeListeners.isEmpty()){
+			return;
+		}
+		for(SemanticDatabaseWriteListener listener : writeListeners){
+			listener.databaseChanged();
+		}
+		if(TransactionSynchronizationManager.isSynchronizationActive()){
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					for(SemanticDatabaseWriteListener listener : writeListeners){
+						listener.databaseChanged();
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Return the connection bound to the current transaction by a {@link SemanticTransactionManager} or a new one from the pool.
+	 * @return
+	 */
+	private ExtendedRepositoryConnection getConnection(){
+		SemanticConnectionHolder holder = (SemanticConnectionHolder) TransactionSynchronizationManager.getResource(connectionPool);
+		if(holder != null){
+			return holder.getConnection();
+		}
+		return connectionPool.getConnection();
+	}
 
 	public List<Namespace> getNamespaces() throws RepositoryException {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			RepositoryResult<Namespace> repoResult = con.getNamespaces();
 			return Iterations.asList(repoResult);
@@ -89,7 +192,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public void addNamespace(String prefix, String namespace)
 			throws RepositoryException {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.setNamespace(prefix, namespace);
 		} finally {
@@ -98,7 +201,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	}
 
 	public List<Resource> getContexts() throws RepositoryException {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			RepositoryResult<Resource> contexts = con.getContextIDs();
 			return Iterations.asList(contexts);
@@ -116,7 +219,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	public List<BindingSet> getQueryResults(String source, Long offset, Long limit) 
 			throws RepositoryException, QueryEvaluationException, MalformedQueryException {
 
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try{
 			TupleSparqlQuery query = new TupleSparqlQuery(source, con);
 			if(limit != null){
@@ -135,7 +238,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	@Override
 	public boolean getBooleanQueryResult(String source) throws RepositoryException, QueryCreationException, QueryEvaluationException,
 			QueryInterruptedException, MalformedQueryException {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			BooleanSparqlQuery query = new BooleanSparqlQuery(source, con);
 			return query.evaluate();
@@ -144,6 +247,66 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 		}
 	}
 
+	@Override
+	public List<BindingSet> getQueryResults(String source, BindingSet bindings) 
+			throws RepositoryException, QueryEvaluationException, MalformedQueryException {
+		RepositoryConnection con = getConnection();
+		try{
+			TupleSparqlQuery query = new TupleSparqlQuery(source, con);
+			bind(query, bindings);
+			return Iterations.asList(query.evaluate());
+		} finally {
+			con.close();
+		}
+	}
+	
+	@Override
+	public Model getGraphQueryResults(String graphQuery, BindingSet bindings) throws RepositoryException, QueryCreationException,
+			QueryEvaluationException, QueryInterruptedException, MalformedQueryException {
+		return getGraphQueryResults(graphQuery, bindings, null, null);
+	}
+	
+	@Override
+	public Model getGraphQueryResults(String graphQuery, BindingSet bindings, Long offset, Long limit) throws RepositoryException, QueryCreationException,
+			QueryEvaluationException, QueryInterruptedException, MalformedQueryException {
+		logger.info("Executing query \""+graphQuery+"\" with bindings "+bindings);
+		RepositoryConnection con = getConnection();
+		try{
+			GraphSparqlQuery query = new GraphSparqlQuery(graphQuery, con);
+			bind(query, bindings);
+			if(offset != null){
+				query.setOffset(offset);
+			}
+			if(limit != null){
+				query.setLimit(limit);
+			}
+			return asModel(query.evaluate());
+		}
+		finally {
+			con.close();
+		}
+	}
+	
+	@Override
+	public boolean getBooleanQueryResult(String source, BindingSet bindings) throws RepositoryException, QueryCreationException, QueryEvaluationException,
+			QueryInterruptedException, MalformedQueryException {
+		RepositoryConnection con = getConnection();
+		try {
+			BooleanSparqlQuery query = new BooleanSparqlQuery(source, con);
+			bind(query, bindings);
+			return query.evaluate();
+		} finally {
+			con.close();
+		}
+	}
+	
+	private void bind(AbstractSparqlQuery query, BindingSet bindings){
+		if(bindings != null){
+			for(Binding binding : bindings){
+				query.setBinding(binding.getName(), binding.getValue());
+			}
+		}
+	}
 
 	//-------------------------------------------------------------------------
 	
@@ -170,7 +333,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public List<Statement> getStatementsForQuadruplePattern(Resource subject,
 			URI predicate, Value object, Resource context){
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			RepositoryResult<Statement> repoResult = con.getStatements(subject, predicate, object, true, context);
 			return Iterations.asList(repoResult);
@@ -188,7 +351,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	}
 
 	public void addStatement(Statement statement) {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.add(statement);
 			con.commit();
@@ -207,6 +370,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}		
+		fireStatementsChanged(Collections.singleton(statement));
 	}
 
 	public void addStatement(Resource subject, URI predicate, Value object) {
@@ -219,7 +383,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	}
 
 	public void addStatements(Collection<? extends Statement> statements) {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.add(statements);
 			con.commit();
@@ -238,6 +402,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}		
+		fireStatementsChanged(statements);
 	}
 
 	public void addStatementsFromFile(File rdfSource) {
@@ -246,7 +411,8 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 		if(format == null) {
 			throw new InvalidParameterException("File should be in a valid RDF format; cannot determine one from the file extension.");
 		}
-		RepositoryConnection con = connectionPool.getConnection();
+		ExtendedRepositoryConnection con = getConnection();
+		con.setReclaimable(false);
 		try {
 			con.add(rdfSource, null, format, new Resource[]{});
 		} catch (RDFParseException e) {
@@ -280,10 +446,11 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}
+		fireDatabaseChanged();
 	}
 
 	public void removeStatement(Statement statement) {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.remove(statement);
 			con.commit();
@@ -302,6 +469,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}		
+		fireStatementsChanged(Collections.singleton(statement));
 	}
 
 	public void removeStatements(Resource subject, URI predicate, Value object) {
@@ -310,7 +478,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public void removeStatements(Resource subject, URI predicate, Value object,
 			Resource context) {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.begin();
 			con.remove(subject, predicate, object, context);
@@ -330,11 +498,22 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}
+		if(subject != null){
+			Set<Resource> resources = new HashSet<Resource>();
+			resources.add(subject);
+			if(object instanceof Resource){
+				resources.add((Resource) object);
+			}
+			fireResourcesChanged(resources);
+		}
+		else{
+			fireDatabaseChanged();
+		}
 	}
 	
 	@Override
 	public void removeStatements(Collection<? extends Statement> statements) {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.begin();
 			con.remove(statements);
@@ -354,17 +533,18 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				logger.error(e.getMessage(),e);
 			}
 		}
+		fireStatementsChanged(statements);
 	}
 
 	@Override
 	public void shutdown() {
-		this.connectionPool.shutDown();
 		this.connectionPool.shutdownThread();
+		this.connectionPool.shutDown();
 	}
 
 	@Override
 	public Namespace getDefaultNamespace() throws RepositoryException {		
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			String defaultNSName = con.getNamespace("");
 			if(defaultNSName == null){
@@ -387,7 +567,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	public Model getGraphQueryResults(String graphQuery, Long offset, Long limit) throws RepositoryException, QueryCreationException,
 			QueryEvaluationException, QueryInterruptedException, MalformedQueryException {
 		logger.info("Executing query \""+graphQuery+"\"");
-		RepositoryConnection con = connectionPool.getConnection();		
+		RepositoryConnection con = getConnection();		
 		try{
 			GraphSparqlQuery query = new GraphSparqlQuery(graphQuery, con);
 			if(offset != null){
@@ -396,17 +576,29 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			if(limit != null){
 				query.setLimit(limit);
 			}
-			return QueryResults.asModel(query.evaluate());
+			return asModel(query.evaluate());
 		}
 		finally {
 			con.close();
 		}
 	}
 
+	/**
+	 * Collect the results of a graph query in a {@link CompactModel}.
+	 */
+	private Model asModel(GraphQueryResult result) throws QueryEvaluationException {
+		Model model = new CompactModel();
+		for(Map.Entry<String, String> namespace : result.getNamespaces().entrySet()){
+			model.setNamespace(namespace.getKey(), namespace.getValue());
+		}
+		Iterations.addAll(result, model);
+		return model;
+	}
+
 	@Override
 	public long count() {
 		long size = 0;
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			 size = con.size();
 		} catch (RepositoryException e) {
@@ -425,7 +617,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	@Override
 	public void clear() {
-		RepositoryConnection con = connectionPool.getConnection();
+		RepositoryConnection con = getConnection();
 		try {
 			con.remove(null, null, null, new Resource[0]);
 			con.commit();
@@ -446,11 +638,23 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				throw new SemanticDatabaseAccessException(e);
 			}
 		}
+		fireDatabaseChanged();
 	}
 
 	@Override
 	public void executeUpdateStatement(String update) {
-		RepositoryConnection con = this.connectionPool.getConnection();
+		doExecuteUpdateStatement(update);
+		fireDatabaseChanged();
+	}
+	
+	@Override
+	public void executeUpdateStatement(String update, Collection<? extends Resource> changedResources) {
+		doExecuteUpdateStatement(update);
+		fireResourcesChanged(new HashSet<Resource>(changedResources));
+	}
+	
+	private void doExecuteUpdateStatement(String update) {
+		RepositoryConnection con = getConnection();
 		try {
 			Update updateQuery = con.prepareUpdate(QueryLanguage.SPARQL, update);
 			updateQuery.execute();
@@ -471,8 +675,6 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 				throw new SemanticDatabaseAccessException(e);
 			}
 		}
-		
 	}
 
-
 }
@@ -18,6 +18,7 @@ package org.springframework.data.semantic.core;
 import org.openrdf.model.Model;
 import org.openrdf.model.Statement;
 import org.openrdf.model.impl.LinkedHashModel;
+import org.springframework.data.semantic.support.util.CompactModel;
 
 public class RDFState {
 	
@@ -26,7 +27,7 @@ public class RDFState {
 	private Model deleteStatements;
 	
 	public RDFState(){
-		this.currentStatements = new LinkedHashModel();
+		this.currentStatements = new CompactModel();
 		this.deleteStatements = new LinkedHashModel();
 	}
 	
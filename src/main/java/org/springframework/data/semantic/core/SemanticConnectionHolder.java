@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import org.springframework.data.semantic.support.database.ExtendedRepositoryConnection;
+import org.springframework.transaction.support.ResourceHolderSupport;
+
+/**
+ * Holds the {@link ExtendedRepositoryConnection} bound to the current transaction by a {@link SemanticTransactionManager}.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class SemanticConnectionHolder extends ResourceHolderSupport {
+	
+	private final ExtendedRepositoryConnection connection;
+	
+	public SemanticConnectionHolder(ExtendedRepositoryConnection connection){
+		this.connection = connection;
+	}
+	
+	public ExtendedRepositoryConnection getConnection() {
+		return connection;
+	}
+
+}
@@ -27,10 +27,12 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.query.BindingSet;
+import org.openrdf.query.BooleanQuery;
 import org.openrdf.query.GraphQuery;
 import org.openrdf.query.MalformedQueryException;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.query.QueryInterruptedException;
+import org.openrdf.query.TupleQuery;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
@@ -120,6 +122,60 @@ public interface SemanticDatabase {
 	
 	boolean getBooleanQueryResult(String source) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
 	
+	/**
+	 * Create a {@link TupleQuery} from the given source {@link String}, bind its variables to the given values and return the results from its execution.
+	 * @param source
+	 * @param bindings - initial values for variables of the query
+	 * @return
+	 * @throws RepositoryException
+	 * @throws QueryCreationException
+	 * @throws QueryEvaluationException
+	 * @throws QueryInterruptedException
+	 * @throws MalformedQueryException
+	 */
+	List<BindingSet> getQueryResults(String source, BindingSet bindings) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
+	
+	/**
+	 * Create a {@link GraphQuery} from the given source {@link String}, bind its variables to the given values and return the results from its execution.
+	 * @param graphQuery
+	 * @param bindings - initial values for variables of the query
+	 * @return
+	 * @throws RepositoryException
+	 * @throws QueryCreationException
+	 * @throws QueryEvaluationException
+	 * @throws QueryInterruptedException
+	 * @throws MalformedQueryException
+	 */
+	Model getGraphQueryResults(String graphQuery, BindingSet bindings) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
+	
+	/**
+	 * Create a {@link GraphQuery} from the given source {@link String}, bind its variables to the given values and return the results from its execution.
+	 * @param graphQuery
+	 * @param bindings - initial values for variables of the query
+	 * @param offset
+	 * @param limit
+	 * @return
+	 * @throws RepositoryException
+	 * @throws QueryCreationException
+	 * @throws QueryEvaluationException
+	 * @throws QueryInterruptedException
+	 * @throws MalformedQueryException
+	 */
+	Model getGraphQueryResults(String graphQuery, BindingSet bindings, Long offset, Long limit) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
+	
+	/**
+	 * Create a {@link BooleanQuery} from the given source {@link String}, bind its variables to the given values and return the result from its execution.
+	 * @param source
+	 * @param bindings - initial values for variables of the query
+	 * @return
+	 * @throws RepositoryException
+	 * @throws QueryCreationException
+	 * @throws QueryEvaluationException
+	 * @throws QueryInterruptedException
+	 * @throws MalformedQueryException
+	 */
+	boolean getBooleanQueryResult(String source, BindingSet bindings) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
+	
 	/**
 	 * Retrieve the {@link List} of {@link Statement}s for the given subject.
 	 * @param subject
@@ -244,6 +300,14 @@ public interface SemanticDatabase {
 	 */
 	void executeUpdateStatement(String update);
 	
+	/**
+	 * Execute a SPARQL update which changes only statements having the given resources as subject or object.
+	 * Caches are invalidated for these resources only, instead of as a whole.
+	 * @param update
+	 * @param changedResources
+	 */
+	void executeUpdateStatement(String update, Collection<? extends Resource> changedResources);
+	
 	/**
 	 * Delete the given {@link Collection} of {@link Statement}s from the repository.
 	 * @param statements
@@ -19,6 +19,7 @@ import javax.annotation.PreDestroy;
 
 import org.openrdf.repository.Repository;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.data.semantic.support.database.SesameConnectionPool;
 import org.springframework.util.StringUtils;
 
 public class SemanticDatabaseFactoryBean implements
@@ -31,6 +32,22 @@ public class SemanticDatabaseFactoryBean implements
 	private String password;
 
 	private int maxConnections;
+	
+	private long connectionTimeout = SesameConnectionPool.DEFAULT_CONNECTION_TIMEOUT;
+	
+	private long validationInterval = SesameConnectionPool.DEFAULT_VALIDATION_INTERVAL;
+	
+	private boolean leakDetection = false;
+
+	private long leakDetectionThreshold = SesameConnectionPool.DEFAULT_LEAK_DETECTION_THRESHOLD;
+
+	private long reclaimTimeout = 0;
+
+	private long idleTimeout = SesameConnectionPool.DEFAULT_IDLE_TIMEOUT;
+
+	private long maxLifetime = SesameConnectionPool.DEFAULT_MAX_LIFETIME;
+
+	private int minIdle = 0;
 
 	private Repository repo;
 
@@ -98,6 +115,126 @@ public class SemanticDatabaseFactoryBean implements
 		this.maxConnections = maxConnections;
 	}
 
+	/**
+	 * @return the connectionTimeout
+	 */
+	public long getConnectionTimeout() {
+		return connectionTimeout;
+	}
+
+	/**
+	 * @param connectionTimeout
+	 *            the maximum time in milliseconds to wait for a free connection
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * @return the validationInterval
+	 */
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+
+	/**
+	 * @param validationInterval
+	 *            the idle time in milliseconds after which a connection is validated before reuse
+	 */
+	public void setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+
+	/**
+	 * @return the leakDetection
+	 */
+	public boolean isLeakDetection() {
+		return leakDetection;
+	}
+
+	/**
+	 * @param leakDetection
+	 *            whether to record the stack trace of each connection borrower
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * @return the leakDetectionThreshold
+	 */
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	/**
+	 * @param leakDetectionThreshold
+	 *            the time in milliseconds after which a leased connection is reported as a possible leak
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * @return the reclaimTimeout
+	 */
+	public long getReclaimTimeout() {
+		return reclaimTimeout;
+	}
+
+	/**
+	 * @param reclaimTimeout
+	 *            the time in milliseconds after which a leased connection is reclaimed, 0 to disable
+	 */
+	public void setReclaimTimeout(long reclaimTimeout) {
+		this.reclaimTimeout = reclaimTimeout;
+	}
+
+	/**
+	 * @return the idleTimeout
+	 */
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * @param idleTimeout
+	 *            the time in milliseconds after which an unused idle connection is closed
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * @return the maxLifetime
+	 */
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+	/**
+	 * @param maxLifetime
+	 *            the maximum time in milliseconds a connection is kept open
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * @return the minIdle
+	 */
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	/**
+	 * @param minIdle
+	 *            the number of idle connections kept open in advance
+	 */
+	public void setMinIdle(int minIdle) {
+		this.minIdle = minIdle;
+	}
+
 	@Override
 	public SemanticDatabase getObject() throws Exception {
 		if (semanticDB == null) {
@@ -110,7 +247,16 @@ public class SemanticDatabaseFactoryBean implements
 		if (repo == null) {
 			repo = getRepository();
 		}
-		SemanticDatabase db = new PooledSemanticDatabase(repo, maxConnections);
+		SesameConnectionPool pool = new SesameConnectionPool(repo, maxConnections);
+		pool.setConnectionTimeout(connectionTimeout);
+		pool.setValidationInterval(validationInterval);
+		pool.setLeakDetection(leakDetection);
+		pool.setLeakDetectionThreshold(leakDetectionThreshold);
+		pool.setReclaimTimeout(reclaimTimeout);
+		pool.setIdleTimeout(idleTimeout);
+		pool.setMaxLifetime(maxLifetime);
+		pool.setMinIdle(minIdle);
+		SemanticDatabase db = new PooledSemanticDatabase(pool);
 		return db;
 	}
 	
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+
+/**
+ * Notified by a {@link PooledSemanticDatabase} after statements have been written to the underlying repository.
+ * Within a transaction the listener is notified once more after the transaction has completed.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public interface SemanticDatabaseWriteListener {
+	
+	/**
+	 * Called after statements having the given resources as subject or object have been added or removed.
+	 * @param resources
+	 */
+	void resourcesChanged(Set<Resource> resources);
+	
+	/**
+	 * Called after a change whose affected resources are not known, e.g. a SPARQL update or clearing the repository.
+	 */
+	void databaseChanged();
+
+}
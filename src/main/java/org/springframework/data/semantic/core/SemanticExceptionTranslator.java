@@ -39,6 +39,9 @@ public class SemanticExceptionTranslator implements PersistenceExceptionTranslat
 		else if(ex instanceof InvalidDataAccessApiUsageException){
 			return (InvalidDataAccessApiUsageException) ex;
 		}
+		else if(ex instanceof IllegalArgumentException){
+			return new InvalidDataAccessApiUsageException(ex.getMessage(), ex);
+		}
 		else if(ex.getCause() instanceof RepositoryException){
 			RepositoryException e = (RepositoryException) ex.getCause();
 			return new DataAccessResourceFailureException(e.getMessage(), e);
@@ -21,7 +21,9 @@ import java.util.Map;
 
 import org.openrdf.model.Model;
 import org.openrdf.model.URI;
+import org.openrdf.query.BindingSet;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
 public interface SemanticOperationsCRUD {
@@ -85,6 +87,15 @@ public interface SemanticOperationsCRUD {
      */
     <T> T find(URI resourceId, Class<? extends T> clazz);
     
+    /**
+     * Retrieves the entities of the given type T that are identified by the given {@link URI}s. The entities are loaded in batches
+     * instead of one query per entity. The result follows the order of the ids; ids that do not identify an entity are skipped.
+     * @param resourceIds
+     * @param clazz
+     * @return
+     */
+    <T> List<T> find(Collection<URI> resourceIds, Class<? extends T> clazz);
+    
     /**
      * Retrieve all entities of the given type T.
      * @param clazz
@@ -94,6 +105,31 @@ public interface SemanticOperationsCRUD {
     
     <T> List<T> findAll(Class<? extends T> clazz, Pageable pageRequest);
     
+    /**
+     * Retrieve all entities of the given type T in the order defined by the given {@link Sort}. The ordering is done by the store.
+     * @param clazz
+     * @param sort
+     * @return
+     */
+    <T> List<T> findAll(Class<? extends T> clazz, Sort sort);
+    
+    /**
+     * Retrieve the entities of the given type T following the given id, in the order of their ids.
+     * @param clazz
+     * @param lastId - the continuation of the previous slice or null for the first one
+     * @param size - must be greater than zero
+     * @return
+     */
+    <T> KeysetSlice<T> findAllAfter(Class<? extends T> clazz, URI lastId, int size);
+    
+    /**
+     * Retrieve all entities of the given type T lazily. Each entity is created as soon as its statements are read
+     * from the semantic database; the returned {@link ClosableIterable} keeps a connection until it is exhausted or closed.
+     * @param clazz
+     * @return
+     */
+    <T> ClosableIterable<T> streamAll(Class<? extends T> clazz);
+    
     /**
      * Create a new entity form the given {@link Class} and {@link Model}.
      * @param statements
@@ -125,6 +161,80 @@ public interface SemanticOperationsCRUD {
 	 */
 	<T> Collection<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue);
 	
+	/**
+	 * Retrieve the entities of the given type that fulfill the parameter requirements in the order defined by the given {@link Sort}.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param sort
+	 * @return
+	 */
+	<T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort);
+	
+	/**
+	 * Retrieve the page of entities of the given type that fulfill the parameter requirements, ordered by the sort of the page request.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param pageRequest
+	 * @return
+	 */
+	<T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Pageable pageRequest);
+	
+	/**
+	 * Retrieve the given range of entities of the given type that fulfill the parameter requirements in the order defined by the given {@link Sort}.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param sort - null for the order of the ids
+	 * @param offset - may be null
+	 * @param limit - may be null
+	 * @return
+	 */
+	<T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort, Integer offset, Integer limit);
+	
+	/**
+	 * Retrieve the entities of the given type whose ids are bound as ?id by the given select query, in the order of the results.
+	 * @param clazz
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	<T> List<T> findByQuery(Class<? extends T> clazz, String query, BindingSet bindings);
+	
+	/**
+	 * Execute a select query binding a count as ?count.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	Long countByQuery(String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the entities of the given type constructed by the given graph query. The statements may use the predicates
+	 * the properties of the entities are mapped to.
+	 * @param clazz
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	<T> List<T> findByGraphQuery(Class<? extends T> clazz, String query, BindingSet bindings);
+	
+	/**
+	 * Execute a select query and map each result to the given projection type.
+	 * @param projection - {@link BindingSet}, a {@link org.openrdf.model.Value} or simple type for queries with a single 
+	 * variable, or a type with fields named after the variables
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	<T> List<T> selectByQuery(Class<T> projection, String query, BindingSet bindings);
+	
+	/**
+	 * Execute an ask query.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	boolean askByQuery(String query, BindingSet bindings);
+	
 	/**
 	 * Count the number of entities of the given class that fulfill the parameter requirements.
 	 * @param clazz
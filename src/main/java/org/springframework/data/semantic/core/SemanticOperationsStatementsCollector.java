@@ -15,11 +15,17 @@
  */
 package org.springframework.data.semantic.core;
 
+import info.aduna.iteration.CloseableIteration;
+
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.openrdf.model.Model;
 import org.openrdf.model.URI;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryEvaluationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 
@@ -35,11 +41,84 @@ public interface SemanticOperationsStatementsCollector {
 	
 	<T> Model getStatementsForResource(URI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy);
 	
+	<T> Collection<Model> getStatementsForResources(Collection<URI> resources, Class<? extends T> clazz, MappingPolicy globalMappingPolicy);
+	
 	<T> Collection<Model> getStatementsForResources(Class<? extends T> clazz);
 	
 	<T> Collection<Model> getStatementsForResources(Class<? extends T> clazz, Long offset, Long limit);
 	
+	/**
+	 * Iterate over the molecules of all entities of the given type, loading them page by page.
+	 * @param clazz
+	 * @param pageSize - the number of entities loaded with a single query
+	 * @return
+	 */
+	<T> CloseableIteration<Model, QueryEvaluationException> getStatementsForResourcesIteration(Class<? extends T> clazz, int pageSize);
+	
 	<T> Collection<Model> getStatementsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, Long offset, Long limit);
 	
 	<T> Collection<URI> getUrisForOffsetAndLimit(Class<? extends T> clazz, Integer offset, Integer limit);
+	
+	/**
+	 * Retrieve the ids of the entities of the given type matching the given property values in the order defined by the given
+	 * {@link Sort}; ties are ordered by the string value of the ids.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param sort - null for the order of the ids
+	 * @param offset - may be null
+	 * @param limit - may be null
+	 * @return
+	 */
+	<T> List<URI> getSortedUris(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort, Integer offset, Integer limit);
+	
+	/**
+	 * Retrieve the ids bound as ?id by the given select query, in the order of the results.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	List<URI> getUrisForQuery(String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the count bound as ?count by the given select query.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	Long getCountForQuery(String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the results of the given select query.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	List<BindingSet> getBindingsForQuery(String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the result of the given ask query.
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	boolean getBooleanForQuery(String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the molecules of the entities of the given type constructed by the given graph query. The statements may use
+	 * the predicates the properties of the entities are mapped to.
+	 * @param clazz
+	 * @param query
+	 * @param bindings
+	 * @return
+	 */
+	<T> Collection<Model> getStatementsForGraphQuery(Class<? extends T> clazz, String query, BindingSet bindings);
+	
+	/**
+	 * Retrieve the ids of the entities of the given type following the given id, in the order of their string value.
+	 * @param clazz
+	 * @param lastId - null for the first ids
+	 * @param limit
+	 * @return
+	 */
+	<T> List<URI> getUrisAfter(Class<? extends T> clazz, URI lastId, int limit);
 } 
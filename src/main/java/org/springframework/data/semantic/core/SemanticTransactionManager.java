@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import org.openrdf.repository.RepositoryException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.semantic.support.database.ExtendedRepositoryConnection;
+import org.springframework.data.semantic.support.database.SesameConnectionPool;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.InvalidIsolationLevelException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.transaction.PlatformTransactionManager} binding a single repository connection 
+ * of a {@link PooledSemanticDatabase} to the current transaction. All operations of the database executed 
+ * within the transaction use this connection and are committed or rolled back together.
+ * <p>
+ * Sesame does not support isolation levels, only {@link TransactionDefinition#ISOLATION_DEFAULT} is accepted.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class SemanticTransactionManager extends AbstractPlatformTransactionManager implements InitializingBean {
+
+	private static final long serialVersionUID = -4469437516413735113L;
+	
+	private SemanticDatabase semanticDatabase;
+	
+	public SemanticTransactionManager(){
+		setNestedTransactionAllowed(false);
+	}
+	
+	public SemanticTransactionManager(SemanticDatabase semanticDatabase){
+		this();
+		setSemanticDatabase(semanticDatabase);
+		afterPropertiesSet();
+	}
+	
+	public void setSemanticDatabase(SemanticDatabase semanticDatabase) {
+		this.semanticDatabase = semanticDatabase;
+	}
+	
+	public SemanticDatabase getSemanticDatabase() {
+		return semanticDatabase;
+	}
+	
+	@Override
+	public void afterPropertiesSet() {
+		Assert.isInstanceOf(PooledSemanticDatabase.class, semanticDatabase, "SemanticTransactionManager requires a PooledSemanticDatabase");
+	}
+	
+	private SesameConnectionPool getConnectionPool(){
+		return ((PooledSemanticDatabase) semanticDatabase).getConnectionPool();
+	}
+
+	@Override
+	protected Object doGetTransaction() {
+		SemanticTransactionObject transaction = new SemanticTransactionObject();
+		transaction.setConnectionHolder((SemanticConnectionHolder) TransactionSynchronizationManager.getResource(getConnectionPool()));
+		return transaction;
+	}
+	
+	@Override
+	protected boolean isExistingTransaction(Object transaction) {
+		return ((SemanticTransactionObject) transaction).getConnectionHolder() != null;
+	}
+
+	@Override
+	protected void doBegin(Object transaction, TransactionDefinition definition) {
+		if(definition.getIsolationLevel() != TransactionDefinition.ISOLATION_DEFAULT){
+			throw new InvalidIsolationLevelException("Sesame repositories do not support custom isolation levels");
+		}
+		SemanticTransactionObject txObject = (SemanticTransactionObject) transaction;
+		ExtendedRepositoryConnection connection = null;
+		try {
+			connection = getConnectionPool().getConnection();
+			connection.setReclaimable(false);
+			connection.beginTransaction();
+			connection.setTransactionBound(true);
+			SemanticConnectionHolder holder = new SemanticConnectionHolder(connection);
+			holder.setSynchronizedWithTransaction(true);
+			int timeout = determineTimeout(definition);
+			if(timeout != TransactionDefinition.TIMEOUT_DEFAULT){
+				holder.setTimeoutInSeconds(timeout);
+			}
+			txObject.setConnectionHolder(holder);
+			TransactionSynchronizationManager.bindResource(getConnectionPool(), holder);
+		} catch (Exception e) {
+			if(connection != null){
+				releaseConnection(connection);
+			}
+			throw new CannotCreateTransactionException("Could not open repository connection for transaction", e);
+		}
+	}
+	
+	@Override
+	protected Object doSuspend(Object transaction) {
+		((SemanticTransactionObject) transaction).setConnectionHolder(null);
+		return TransactionSynchronizationManager.unbindResource(getConnectionPool());
+	}
+	
+	@Override
+	protected void doResume(Object transaction, Object suspendedResources) {
+		TransactionSynchronizationManager.bindResource(getConnectionPool(), suspendedResources);
+	}
+
+	@Override
+	protected void doCommit(DefaultTransactionStatus status) {
+		SemanticTransactionObject txObject = (SemanticTransactionObject) status.getTransaction();
+		try {
+			txObject.getConnectionHolder().getConnection().commitTransaction();
+		} catch (RepositoryException e) {
+			throw new TransactionSystemException("Could not commit repository transaction", e);
+		}
+	}
+
+	@Override
+	protected void doRollback(DefaultTransactionStatus status) {
+		SemanticTransactionObject txObject = (SemanticTransactionObject) status.getTransaction();
+		try {
+			txObject.getConnectionHolder().getConnection().rollbackTransaction();
+		} catch (RepositoryException e) {
+			throw new TransactionSystemException("Could not roll back repository transaction", e);
+		}
+	}
+	
+	@Override
+	protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+		((SemanticTransactionObject) status.getTransaction()).getConnectionHolder().setRollbackOnly();
+	}
+	
+	@Override
+	protected void doCleanupAfterCompletion(Object transaction) {
+		SemanticTransactionObject txObject = (SemanticTransactionObject) transaction;
+		TransactionSynchronizationManager.unbindResource(getConnectionPool());
+		releaseConnection(txObject.getConnectionHolder().getConnection());
+		txObject.getConnectionHolder().clear();
+	}
+	
+	private void releaseConnection(ExtendedRepositoryConnection connection){
+		connection.setTransactionBound(false);
+		try {
+			connection.close();
+		} catch (RepositoryException e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Transaction object holding the connection of the current transaction.
+	 */
+	private static class SemanticTransactionObject implements SmartTransactionObject {
+		
+		private SemanticConnectionHolder connectionHolder;
+		
+		public SemanticConnectionHolder getConnectionHolder() {
+			return connectionHolder;
+		}
+		
+		public void setConnectionHolder(SemanticConnectionHolder connectionHolder) {
+			this.connectionHolder = connectionHolder;
+		}
+
+		@Override
+		public boolean isRollbackOnly() {
+			return connectionHolder.isRollbackOnly();
+		}
+
+		@Override
+		public void flush() {
+			//statements are sent to the repository immediately
+		}
+		
+	}
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.mapping;
+
+/**
+ * Reads and writes the value of a single persistent property. Accessors are created once per property when the
+ * mapping metadata is built and are shared between all instances of the entity type.
+ * @author konstantin.pentchev
+ *
+ */
+public interface PropertyValueAccessor {
+
+	/**
+	 * Get the value of the property from the given entity.
+	 * @param entity
+	 * @return
+	 */
+	Object getValue(Object entity);
+
+	/**
+	 * Set the value of the property on the given entity. The value must already be of the property type.
+	 * @param entity
+	 * @param value
+	 */
+	void setValue(Object entity, Object value);
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.mapping;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+
+/**
+ * Creates the {@link PropertyValueAccessor}s of the persistent properties.
+ * @author konstantin.pentchev
+ *
+ */
+public interface PropertyValueAccessorFactory {
+
+	/**
+	 * Create an accessor for the property backed by the given field and, optionally, bean property.
+	 * @param field
+	 * @param propertyDescriptor may be null
+	 * @return
+	 */
+	PropertyValueAccessor createAccessor(Field field, PropertyDescriptor propertyDescriptor);
+
+}
@@ -57,6 +57,13 @@ public interface SemanticPersistentProperty extends PersistentProperty<SemanticP
 	 */
 	String getAliasPredicate();
 
+	/**
+	 * Returns the alias predicate as {@link URI}.
+	 * 
+	 * @return
+	 */
+	URI getAliasPredicateURI();
+
 	/**
 	 * Checks whether the property has a language associated with it.
 	 * 
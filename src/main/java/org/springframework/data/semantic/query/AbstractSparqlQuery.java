@@ -16,7 +16,10 @@
 package org.springframework.data.semantic.query;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +48,26 @@ import org.openrdf.repository.sail.SailRepositoryConnection;
 public abstract class AbstractSparqlQuery extends AbstractQuery {
 	
 	private static final String DISABLE_SAMEAS_URI = "http://www.ontotext.com/disable-sameAs";
+	
+	private static final int PARSED_QUERY_CACHE_SIZE = 500;
+	
+	private static final Pattern COMMENT_PATTERN = Pattern.compile("^(\\s*)#.*$", Pattern.CASE_INSENSITIVE|Pattern.MULTILINE);
+	
+	private static final Pattern OFFSET_PATTERN = Pattern.compile("offset \\d+", Pattern.CASE_INSENSITIVE);
+	
+	private static final Pattern LIMIT_PATTERN = Pattern.compile("limit\\s+\\d+", Pattern.CASE_INSENSITIVE);
+	
+	/**
+	 * Most queries are generated from per-type templates, so the same source is seen over and over again.
+	 * Keep the normalized text and the parsed form of the most recently used ones.
+	 */
+	private static final Map<String, ParsedSource> parsedQueries = Collections.synchronizedMap(new LinkedHashMap<String, ParsedSource>(16, 0.75f, true){
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ParsedSource> eldest) {
+			return size() > PARSED_QUERY_CACHE_SIZE;
+		}
+	});
 
 	protected String source;
 	protected String str;
@@ -62,9 +85,15 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 		if (source != null && source.length() > 0) {
 			this.source = source;
 			this.connection = connection;
-			str = normalize(source);
-			parsedQuery = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, str, null);
-			str = removeComments(str);
+			ParsedSource parsedSource = parsedQueries.get(source);
+			if(parsedSource == null){
+				String normalized = normalize(source);
+				ParsedQuery parsed = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, normalized, null);
+				parsedSource = new ParsedSource(removeComments(normalized), parsed);
+				parsedQueries.put(source, parsedSource);
+			}
+			str = parsedSource.str;
+			parsedQuery = parsedSource.parsedQuery;
 			dataset = parsedQuery.getDataset();
 			TupleExpr expr = parsedQuery.getTupleExpr();
 			if (expr instanceof Slice) {
@@ -87,8 +116,7 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 	}
 	
 	private String removeComments(String text) {
-		return Pattern.compile("^(\\s*)#.*$", Pattern.CASE_INSENSITIVE|Pattern.MULTILINE)
-			.matcher(text).replaceAll("");
+		return COMMENT_PATTERN.matcher(text).replaceAll("");
 	}
 	
 	private void setSailQueryOffset() {
@@ -118,8 +146,7 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 	}
 	
 	private void setHTTPQueryOffset() {
-		Pattern p = Pattern.compile("offset \\d+", Pattern.CASE_INSENSITIVE);
-		Matcher m = p.matcher(str);
+		Matcher m = OFFSET_PATTERN.matcher(str);
 		if (offset > 0 && !m.find()) {
 			str = str + " OFFSET " + offset;
 		}
@@ -129,8 +156,7 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 	}
 	
 	private void setHTTPQueryLimit() {
-		Pattern p = Pattern.compile("limit\\s+\\d+", Pattern.CASE_INSENSITIVE);
-		Matcher m = p.matcher(str);
+		Matcher m = LIMIT_PATTERN.matcher(str);
 		if (limit != -1 && !m.find()) {
 			str = str + " LIMIT " + limit;
 		}
@@ -210,7 +236,7 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 		query.setMaxQueryTime(maxQueryTime);
 		
 		
-		for (Binding b : getBindings()) {
+		for (Binding b : bindings) {
 			query.setBinding(b.getName(), b.getValue());			
 		}
 		
@@ -279,4 +305,16 @@ public abstract class AbstractSparqlQuery extends AbstractQuery {
 			logger.warn(e.getMessage(), e);
 		}
 	}
+
+	private static class ParsedSource {
+		
+		private final String str;
+		private final ParsedQuery parsedQuery;
+		
+		public ParsedSource(String str, ParsedQuery parsedQuery) {
+			this.str = str;
+			this.parsedQuery = parsedQuery;
+		}
+		
+	}
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the SPARQL query executed by a {@link SemanticRepository} method instead of deriving it from the method name.
+ * The method parameters are bound as variables named after their {@link org.springframework.data.repository.query.Param}
+ * annotation, or after their position (?1, ?2, ...) otherwise. Null arguments are rejected, since the variable would 
+ * remain unbound and match any value.
+ * <ul>
+ * <li>CONSTRUCT queries return entities assembled from the constructed statements.</li>
+ * <li>SELECT queries return the entities bound as ?id, or projections of the bindings: single values or objects whose 
+ * fields are named after the variables.</li>
+ * <li>ASK queries return a boolean.</li>
+ * </ul>
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Query {
+	
+	/**
+	 * @return the SPARQL query
+	 */
+	String value();
+
+}
@@ -21,6 +21,8 @@ import org.openrdf.model.URI;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.semantic.core.ClosableIterable;
+import org.springframework.data.semantic.core.KeysetSlice;
 import org.springframework.data.semantic.core.SemanticDatabase;
 
 @NoRepositoryBean
@@ -44,6 +46,23 @@ public interface SemanticRepository<T> extends PagingAndSortingRepository<T, URI
 	 */
 	List<T> findAll(Iterable<URI> ids);
 	
+	/**
+	 * Retrieve all entities lazily, creating each one as its statements are read from the {@link SemanticDatabase}.
+	 * The result holds a connection and has to be closed if it is not fully iterated.
+	 * @return
+	 */
+	ClosableIterable<T> streamAll();
+	
+	/**
+	 * Retrieve a slice of entities ordered by id, starting after the given id. Pass null for the first slice and
+	 * {@link KeysetSlice#getContinuation()} of the previous slice for the next one. In contrast to 
+	 * {@link #findAll(org.springframework.data.domain.Pageable)} the time per slice does not grow with its position and no count is executed.
+	 * @param lastId
+	 * @param size - must be greater than zero
+	 * @return
+	 */
+	KeysetSlice<T> findAllAfter(URI lastId, int size);
+	
 	/**
 	 * Persists a new entity in a {@link SemanticDatabase}. Similar to save, but without checking/removing existing statements.
 	 * @param entity
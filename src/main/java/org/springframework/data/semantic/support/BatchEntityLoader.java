@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.springframework.data.semantic.core.SemanticOperationsCRUD;
+import org.springframework.data.semantic.core.SemanticOperationsStatementsCollector;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+
+/**
+ * Loads the molecules of several entities of the same type with one graph query per batch 
+ * instead of one query per entity.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class BatchEntityLoader {
+	
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	
+	private final SemanticOperationsStatementsCollector statementsCollector;
+	private final SemanticOperationsCRUD operations;
+	private final SemanticMappingContext mappingContext;
+	private final int batchSize;
+	
+	public BatchEntityLoader(SemanticOperationsStatementsCollector statementsCollector, SemanticOperationsCRUD operations, 
+			SemanticMappingContext mappingContext, int batchSize){
+		if(batchSize < 1){
+			throw new IllegalArgumentException("The batch size must be positive.");
+		}
+		this.statementsCollector = statementsCollector;
+		this.operations = operations;
+		this.mappingContext = mappingContext;
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * Load the entities of the given type identified by the given {@link URI}s.
+	 * @param resourceIds
+	 * @param clazz
+	 * @return a map from id to entity in the order of the given ids; ids without statements are omitted.
+	 */
+	public <T> Map<URI, T> load(Collection<URI> resourceIds, Class<? extends T> clazz){
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) mappingContext.getPersistentEntity(clazz);
+		Map<URI, T> loaded = new LinkedHashMap<URI, T>();
+		List<URI> batch = new ArrayList<URI>(Math.min(batchSize, resourceIds.size()));
+		for(URI resourceId : resourceIds){
+			loaded.put(resourceId, null);
+			batch.add(resourceId);
+			if(batch.size() == batchSize){
+				loadBatch(batch, clazz, persistentEntity, loaded);
+				batch.clear();
+			}
+		}
+		if(!batch.isEmpty()){
+			loadBatch(batch, clazz, persistentEntity, loaded);
+		}
+		Map<URI, T> result = new LinkedHashMap<URI, T>();
+		for(Map.Entry<URI, T> entry : loaded.entrySet()){
+			if(entry.getValue() != null){
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+	
+	private <T> void loadBatch(List<URI> batch, Class<? extends T> clazz, SemanticPersistentEntity<T> persistentEntity, Map<URI, T> loaded){
+		for(Model statements : statementsCollector.getStatementsForResources(batch, clazz, MappingPolicyImpl.ALL_POLICY)){
+			T entity = operations.createEntity(statements, clazz);
+			loaded.put(persistentEntity.getResourceId(entity), entity);
+		}
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+}
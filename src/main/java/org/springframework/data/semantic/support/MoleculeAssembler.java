@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.vocabulary.RDF;
+import org.springframework.data.semantic.support.util.CompactModel;
+
+/**
+ * Groups a set of {@link Statement}s by subject in a single pass and assembles the molecule of each entity of a given type
+ * by following the fetched associations from bucket to bucket. Molecules are assembled lazily upon iteration.
+ *
+ * @author konstantin.pentchev
+ *
+ */
+class MoleculeAssembler extends AbstractCollection<Model> {
+
+	private final Map<Resource, List<Statement>> statementsPerSubject;
+
+	private final Set<Resource> roots;
+
+	private final Set<String> fetchedPredicates;
+
+	/**
+	 *
+	 * @param type the rdf:type of the entities whose molecules are assembled
+	 * @param statements
+	 * @param fetchedPredicates the predicates to follow or null if all resource-valued statements should be followed
+	 */
+	MoleculeAssembler(URI type, Iterable<Statement> statements, Set<String> fetchedPredicates){
+		this.statementsPerSubject = new HashMap<Resource, List<Statement>>();
+		this.roots = new LinkedHashSet<Resource>();
+		this.fetchedPredicates = fetchedPredicates;
+		for(Statement st : statements){
+			Resource subject = st.getSubject();
+			List<Statement> bucket = statementsPerSubject.get(subject);
+			if(bucket == null){
+				bucket = new ArrayList<Statement>(8);
+				statementsPerSubject.put(subject, bucket);
+			}
+			bucket.add(st);
+			if(RDF.TYPE.equals(st.getPredicate()) && type.equals(st.getObject())){
+				roots.add(subject);
+			}
+		}
+	}
+
+	/**
+	 * Assemble the molecule of the given subject.
+	 * @param subject
+	 * @return
+	 */
+	Model getMolecule(Resource subject){
+		Model molecule = new CompactModel();
+		Set<Resource> visited = new HashSet<Resource>();
+		LinkedList<Resource> toVisit = new LinkedList<Resource>();
+		visited.add(subject);
+		toVisit.add(subject);
+		while(!toVisit.isEmpty()){
+			List<Statement> bucket = statementsPerSubject.get(toVisit.removeFirst());
+			if(bucket == null){
+				continue;
+			}
+			molecule.addAll(bucket);
+			for(Statement st : bucket){
+				Value object = st.getObject();
+				if(object instanceof Resource && !RDF.TYPE.equals(st.getPredicate())
+						&& (fetchedPredicates == null || fetchedPredicates.contains(st.getPredicate().stringValue()))
+						&& visited.add((Resource) object)){
+					toVisit.add((Resource) object);
+				}
+			}
+		}
+		return molecule;
+	}
+
+	@Override
+	public Iterator<Model> iterator() {
+		final Iterator<Resource> subjects = roots.iterator();
+		return new Iterator<Model>() {
+
+			@Override
+			public boolean hasNext() {
+				return subjects.hasNext();
+			}
+
+			@Override
+			public Model next() {
+				if(!subjects.hasNext()){
+					throw new NoSuchElementException();
+				}
+				return getMolecule(subjects.next());
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return roots.size();
+	}
+
+}
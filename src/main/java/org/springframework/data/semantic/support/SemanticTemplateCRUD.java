@@ -15,40 +15,73 @@
  */
 package org.springframework.data.semantic.support;
 
+import info.aduna.iteration.CloseableIteration;
+
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.sf.ehcache.CacheManager;
 
 import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.repository.RepositoryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.semantic.annotation.SemanticEntity;
 import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.cache.InvalidationChannel;
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
 import org.springframework.data.semantic.convert.SemanticEntityPersister;
 import org.springframework.data.semantic.convert.SemanticEntityRemover;
+import org.springframework.data.semantic.core.ClosableIterable;
+import org.springframework.data.semantic.core.KeysetSlice;
+import org.springframework.data.semantic.core.PooledSemanticDatabase;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.support.cache.EhCacheEntityCache;
 import org.springframework.data.semantic.support.cache.EmptyEntityCache;
+import org.springframework.data.semantic.support.cache.EntityCacheInvalidator;
+import org.springframework.data.semantic.support.cache.EntityCacheType;
+import org.springframework.data.semantic.support.cache.InvalidationChannelPublisher;
+import org.springframework.data.semantic.support.cache.LocalEntityCache;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.support.convert.BindingSetToObjectConverter;
 import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
 import org.springframework.data.semantic.support.convert.EntityToStatementsConverter;
+import org.springframework.data.semantic.support.convert.EntityToUpdateConverter;
+import org.springframework.data.semantic.support.convert.ParameterizedQuery;
 import org.springframework.data.semantic.support.convert.SemanticEntityConverterImpl;
 import org.springframework.data.semantic.support.convert.SemanticEntityInstantiatorImpl;
 import org.springframework.data.semantic.support.convert.SemanticEntityPersisterImpl;
@@ -56,8 +89,11 @@ import org.springframework.data.semantic.support.convert.SemanticEntityRemoverIm
 import org.springframework.data.semantic.support.convert.SemanticSourceStateTransmitter;
 import org.springframework.data.semantic.support.convert.access.DelegatingFieldAccessorFactory;
 import org.springframework.data.semantic.support.convert.access.listener.DelegatingFieldAccessListenerFactory;
+import org.springframework.data.semantic.support.convert.state.DirtyStateTracker;
 import org.springframework.data.semantic.support.convert.state.SemanticEntityStateFactory;
+import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.ClassUtils;
 
 public class SemanticTemplateCRUD implements SemanticOperationsCRUD, InitializingBean, ApplicationContextAware {
 	//private static final Logger LOGGER = LoggerFactory.getLogger(SemanticTemplate.class);
@@ -82,8 +118,28 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	private SemanticEntityConverter entityConverter;
 	private EntityToQueryConverter entityToQueryConverter;
 	private EntityToStatementsConverter entityToStatementsConverter;
+	private EntityToUpdateConverter entityToUpdateConverter;
 	
 	private EntityCache entityCache;
+	private EntityCacheType entityCacheType = EntityCacheType.EHCACHE;
+	private long entityCacheMaximumWeight = LocalEntityCache.DEFAULT_MAXIMUM_WEIGHT;
+	private long entityCacheTimeToLive = 0;
+	private long moleculeCacheMaximumWeight = 0;
+	private MoleculeCache moleculeCache;
+	private EntityCacheInvalidator entityCacheInvalidator;
+	private InvalidationChannel invalidationChannel;
+	private InvalidationChannelPublisher invalidationChannelPublisher;
+	
+	private BatchEntityLoader batchLoader;
+	private int batchSize = BatchEntityLoader.DEFAULT_BATCH_SIZE;
+	
+	private boolean saveWithUpdate = false;
+	
+	private DirtyStateTracker dirtyStateTracker;
+	private boolean dirtyTracking = false;
+	
+	private String[] warmUpPackages;
+	private int warmUpThreads = Runtime.getRuntime().availableProcessors();
 	
 	private final boolean explicitSupertypes;
 	private volatile boolean isInitialized = false;
@@ -98,6 +154,7 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	}
 	
 	public void changeDatabase(SemanticDatabase semanticDB){
+		detachWriteListeners();
 		this.semanticDB = semanticDB;
 		isInitialized = false;
 	}
@@ -120,19 +177,22 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 				this.mappingContext = new SemanticMappingContext(semanticDB.getNamespaces(), this.semanticDB.getDefaultNamespace(), this.explicitSupertypes);
 				this.entityToQueryConverter = new EntityToQueryConverter(this.mappingContext);
 				this.entityToStatementsConverter = new EntityToStatementsConverter(mappingContext);
+				this.entityToUpdateConverter = new EntityToUpdateConverter(mappingContext, this.entityToStatementsConverter);
 				this.statementsCollector = new SemanticTemplateStatementsCollector(this.semanticDB, this.mappingContext, this.entityToQueryConverter);
+				this.statementsCollector.setMoleculeCache(createMoleculeCache());
+				attachInvalidationChannelPublisher();
 				this.delegatingFieldAxsorFactory = new DelegatingFieldAccessorFactory(this.statementsCollector, this);
 				this.delegatingFieldAccessListenerFactory = new DelegatingFieldAccessListenerFactory(this.statementsCollector, this);
 				this.sesFactory = new SemanticEntityStateFactory(this.mappingContext, this.delegatingFieldAxsorFactory, this.delegatingFieldAccessListenerFactory, this.semanticDB, this.conversionService);
-				this.sourceStateTransmitter = new SemanticSourceStateTransmitter(this.sesFactory);
+				this.sourceStateTransmitter = new SemanticSourceStateTransmitter(this.sesFactory, this.conversionService);
 				this.entityConverter = new SemanticEntityConverterImpl(this.mappingContext, this.conversionService, this.entityInstantiator, this.sourceStateTransmitter, this.entityToStatementsConverter, this.semanticDB);
-				this.entityPersister = new SemanticEntityPersisterImpl(this.entityConverter);
+				this.dirtyStateTracker = createDirtyStateTracker();
+				this.entityPersister = new SemanticEntityPersisterImpl(this.entityConverter, this.mappingContext, this.dirtyStateTracker);
 				this.entityRemover = new SemanticEntityRemoverImpl(this.semanticDB, this.entityToStatementsConverter, this.mappingContext);
+				this.batchLoader = new BatchEntityLoader(this.statementsCollector, this, this.mappingContext, this.batchSize);
 				if(this.entityCache != null){
 					this.entityCache.clearAll();
-					if(applicationContext.getBeanNamesForType(CacheManager.class).length != 0){
-						this.entityCache = new EhCacheEntityCache(this.mappingContext, applicationContext.getBean(CacheManager.class));
-					}
+					this.entityCache = createEntityCache();
 				}
 				
 			} catch (RepositoryException e) {
@@ -148,22 +208,322 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		return (SemanticPersistentEntityImpl<?>) mappingContext.getPersistentEntity(targetClazz);
 	}*/
 	
+	/**
+	 * Set the number of entities loaded with a single query when several entities are retrieved by id or streamed.
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Save entities with a single SPARQL DELETE/INSERT update instead of reading and diffing their stored state.
+	 * @param saveWithUpdate
+	 */
+	public void setSaveWithUpdate(boolean saveWithUpdate) {
+		this.saveWithUpdate = saveWithUpdate;
+	}
+	
+	/**
+	 * Keep a snapshot of loaded entities so that saving them writes only the properties changed since they were loaded.
+	 * Snapshots are forgotten as their resources are written through a {@link PooledSemanticDatabase} or reported by the 
+	 * {@link InvalidationChannel}; writes which are not reported leave them stale, so that e.g. a single-valued property 
+	 * changed to "x" by another instance and to "y" by the tracked one ends up with both values.
+	 * @param dirtyTracking
+	 */
+	public void setDirtyTracking(boolean dirtyTracking) {
+		this.dirtyTracking = dirtyTracking;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Scan the given packages for {@link SemanticEntity} classes on startup and build their mapping metadata ahead of the first request.
+	 * @param warmUpPackages
+	 */
+	public void setWarmUpPackages(String[] warmUpPackages) {
+		this.warmUpPackages = warmUpPackages;
+	}
+	
+	/**
+	 * Set the number of threads building the mapping metadata on startup.
+	 * @param warmUpThreads
+	 */
+	public void setWarmUpThreads(int warmUpThreads) {
+		this.warmUpThreads = warmUpThreads;
+	}
+	
+	/**
+	 * Select the second level cache implementation.
+	 * @param entityCacheType
+	 */
+	public void setEntityCacheType(EntityCacheType entityCacheType) {
+		this.entityCacheType = entityCacheType;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Set the maximum number of statements cached per entity type by the {@link LocalEntityCache}.
+	 * @param entityCacheMaximumWeight
+	 */
+	public void setEntityCacheMaximumWeight(long entityCacheMaximumWeight) {
+		this.entityCacheMaximumWeight = entityCacheMaximumWeight;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Set the time in milliseconds after which entities cached by the {@link LocalEntityCache} expire; 0 disables expiration.
+	 * @param entityCacheTimeToLive
+	 */
+	public void setEntityCacheTimeToLive(long entityCacheTimeToLive) {
+		this.entityCacheTimeToLive = entityCacheTimeToLive;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Set the channel exchanging cache invalidations with the other nodes working on the same repository.
+	 * @param invalidationChannel
+	 */
+	public void setInvalidationChannel(InvalidationChannel invalidationChannel) {
+		detachWriteListeners();
+		this.invalidationChannel = invalidationChannel;
+		isInitialized = false;
+	}
+	
+	/**
+	 * Set the maximum number of statements held by the {@link MoleculeCache} in front of the repository; 0 disables it.
+	 * @param moleculeCacheMaximumWeight
+	 */
+	public void setMoleculeCacheMaximumWeight(long moleculeCacheMaximumWeight) {
+		this.moleculeCacheMaximumWeight = moleculeCacheMaximumWeight;
+		isInitialized = false;
+	}
+	
 	public void setApplicationContext(ApplicationContext applicationContext)
 			throws BeansException {
 		this.applicationContext = applicationContext;
 	}
 	
 	public void afterPropertiesSet() throws Exception {
-		if(applicationContext.getBeanNamesForType(CacheManager.class).length != 0 && this.mappingContext != null){
-			this.entityCache = new EhCacheEntityCache(this.mappingContext, applicationContext.getBean(CacheManager.class));
+		if(EntityCacheType.LOCAL.equals(this.entityCacheType)){
+			logger.info("Using LocalEntityCache for second level caching.");
+		}
+		else if(EntityCacheType.EHCACHE.equals(this.entityCacheType) && hasCacheManager()){
 			logger.info("Using EhcacheEntityCache for second level caching.");
 		}
 		else{
 			logger.info("EntityCache is not configured. No caching will be applied.");
-			this.entityCache = new EmptyEntityCache();
+		}
+		this.entityCache = createEntityCache();
+		if(this.warmUpPackages != null && this.warmUpPackages.length != 0){
+			warmUp(this.warmUpPackages);
+		}
+	}
+	
+	/**
+	 * The molecule cache is kept coherent by the write notifications of a {@link PooledSemanticDatabase}; 
+	 * it is not used with other databases.
+	 */
+	private MoleculeCache createMoleculeCache(){
+		detachMoleculeCache();
+		if(this.moleculeCacheMaximumWeight > 0){
+			if(this.semanticDB instanceof PooledSemanticDatabase){
+				this.moleculeCache = new MoleculeCache(this.moleculeCacheMaximumWeight);
+				addWriteListener(this.moleculeCache);
+			}
+			else{
+				logger.warn("The MoleculeCache requires a PooledSemanticDatabase. No molecule caching will be applied.");
+			}
+		}
+		return this.moleculeCache;
+	}
+	
+	private void detachMoleculeCache(){
+		if(this.moleculeCache != null){
+			removeWriteListener(this.moleculeCache);
+			this.moleculeCache = null;
+		}
+	}
+	
+	/**
+	 * Snapshots are forgotten as their resources are written locally or by the peers of the {@link InvalidationChannel}.
+	 */
+	private DirtyStateTracker createDirtyStateTracker(){
+		detachDirtyStateTracker();
+		if(this.dirtyTracking){
+			this.dirtyStateTracker = new DirtyStateTracker(this.mappingContext);
+			if(this.semanticDB instanceof PooledSemanticDatabase){
+				addWriteListener(this.dirtyStateTracker);
+			}
+			else{
+				if(this.invalidationChannel != null){
+					this.invalidationChannel.subscribe(this.dirtyStateTracker);
+				}
+				logger.warn("Dirty tracking is not notified about local writes without a PooledSemanticDatabase. Snapshots may become stale.");
+			}
+		}
+		return this.dirtyStateTracker;
+	}
+	
+	private void detachDirtyStateTracker(){
+		if(this.dirtyStateTracker != null){
+			removeWriteListener(this.dirtyStateTracker);
+			this.dirtyStateTracker = null;
+		}
+	}
+	
+	private boolean hasCacheManager(){
+		return applicationContext != null && applicationContext.getBeanNamesForType(CacheManager.class).length != 0;
+	}
+	
+	/**
+	 * Entities are evicted from the cache as their statements are written to a {@link PooledSemanticDatabase}.
+	 */
+	private EntityCache createEntityCache(){
+		detachEntityCache();
+		EntityCache entityCache = newEntityCache();
+		if(!(entityCache instanceof EmptyEntityCache) && this.semanticDB instanceof PooledSemanticDatabase){
+			this.entityCacheInvalidator = new EntityCacheInvalidator(entityCache);
+			addWriteListener(this.entityCacheInvalidator);
+		}
+		return entityCache;
+	}
+	
+	private void detachEntityCache(){
+		if(this.entityCacheInvalidator != null){
+			removeWriteListener(this.entityCacheInvalidator);
+			this.entityCacheInvalidator = null;
+		}
+	}
+	
+	/**
+	 * The writes of a {@link PooledSemanticDatabase} are published to the peers of the {@link InvalidationChannel}, if any.
+	 */
+	private void attachInvalidationChannelPublisher(){
+		detachInvalidationChannelPublisher();
+		if(this.invalidationChannel != null){
+			if(this.semanticDB instanceof PooledSemanticDatabase){
+				this.invalidationChannelPublisher = new InvalidationChannelPublisher(this.invalidationChannel);
+				((PooledSemanticDatabase) this.semanticDB).addWriteListener(this.invalidationChannelPublisher);
+			}
+			else{
+				logger.warn("Publishing invalidations requires a PooledSemanticDatabase. Peers will not be notified about writes.");
+			}
+		}
+	}
+	
+	private void detachInvalidationChannelPublisher(){
+		if(this.invalidationChannelPublisher != null){
+			if(this.semanticDB instanceof PooledSemanticDatabase){
+				((PooledSemanticDatabase) this.semanticDB).removeWriteListener(this.invalidationChannelPublisher);
+			}
+			this.invalidationChannelPublisher = null;
+		}
+	}
+	
+	private void detachWriteListeners(){
+		detachMoleculeCache();
+		detachEntityCache();
+		detachInvalidationChannelPublisher();
+		detachDirtyStateTracker();
+	}
+	
+	/**
+	 * Register a cache for the local writes and for the writes of the peers.
+	 */
+	private void addWriteListener(SemanticDatabaseWriteListener listener){
+		((PooledSemanticDatabase) this.semanticDB).addWriteListener(listener);
+		if(this.invalidationChannel != null){
+			this.invalidationChannel.subscribe(listener);
 		}
 	}
 	
+	private void removeWriteListener(SemanticDatabaseWriteListener listener){
+		if(this.semanticDB instanceof PooledSemanticDatabase){
+			((PooledSemanticDatabase) this.semanticDB).removeWriteListener(listener);
+		}
+		if(this.invalidationChannel != null){
+			this.invalidationChannel.unsubscribe(listener);
+		}
+	}
+	
+	private EntityCache newEntityCache(){
+		if(this.mappingContext != null){
+			if(EntityCacheType.LOCAL.equals(this.entityCacheType)){
+				LocalEntityCache localEntityCache = new LocalEntityCache(this.mappingContext, this.entityPersister);
+				localEntityCache.setDefaultMaximumWeight(this.entityCacheMaximumWeight);
+				localEntityCache.setTimeToLive(this.entityCacheTimeToLive);
+				return localEntityCache;
+			}
+			if(EntityCacheType.EHCACHE.equals(this.entityCacheType) && hasCacheManager()){
+				return new EhCacheEntityCache(this.mappingContext, applicationContext.getBean(CacheManager.class));
+			}
+		}
+		return new EmptyEntityCache();
+	}
+	
+	/**
+	 * Initialize the template and build, in parallel, the persistent entities, query templates and read plans of all 
+	 * {@link SemanticEntity} classes in the given packages. Idle connections of a pooled database are opened up to its minimum.
+	 * @param basePackages
+	 */
+	public void warmUp(String... basePackages){
+		if(this.semanticDB == null || this.conversionService == null){
+			logger.warn("Skipping warm-up due to no semantic database or conversion service provided.");
+			return;
+		}
+		long start = System.currentTimeMillis();
+		lazyInit();
+		Set<Class<?>> entityClasses = scanEntityClasses(basePackages);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(this.warmUpThreads, entityClasses.size())));
+		try{
+			List<Future<?>> tasks = new ArrayList<Future<?>>(entityClasses.size());
+			for(final Class<?> clazz : entityClasses){
+				tasks.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+						entityToQueryConverter.createQueryTemplates(persistentEntity);
+						sourceStateTransmitter.getMaterializer(persistentEntity);
+					}
+				}));
+			}
+			if(this.semanticDB instanceof PooledSemanticDatabase){
+				((PooledSemanticDatabase) this.semanticDB).getConnectionPool().fillIdleConnections();
+			}
+			for(Future<?> task : tasks){
+				try {
+					task.get();
+				} catch (ExecutionException e) {
+					logger.warn("Could not warm up entity: "+e.getCause().getMessage(), e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		} finally{
+			executor.shutdown();
+		}
+		logger.info("Warmed up "+entityClasses.size()+" semantic entities in "+(System.currentTimeMillis() - start)+" ms.");
+	}
+	
+	private Set<Class<?>> scanEntityClasses(String... basePackages){
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(SemanticEntity.class));
+		ClassLoader classLoader = applicationContext != null ? applicationContext.getClassLoader() : ClassUtils.getDefaultClassLoader();
+		Set<Class<?>> entityClasses = new LinkedHashSet<Class<?>>();
+		for(String basePackage : basePackages){
+			for(BeanDefinition candidate : scanner.findCandidateComponents(basePackage.trim())){
+				try {
+					entityClasses.add(ClassUtils.forName(candidate.getBeanClassName(), classLoader));
+				} catch (ClassNotFoundException e) {
+					logger.warn("Could not load semantic entity class "+candidate.getBeanClassName(), e);
+				}
+			}
+		}
+		return entityClasses;
+	}
+	
 	@Override
 	public <T> Iterable<T> create(Iterable<T> entities) {
 		lazyInit();
@@ -171,7 +531,11 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		for(T entity : entities){
 			entityToExistingState.put(entity, new RDFState());
 		}
-		return this.entityPersister.persistEntities(entityToExistingState);
+		Iterable<T> created = this.entityPersister.persistEntities(entityToExistingState);
+		for(T entity : created){
+			entityCache.put(entity);
+		}
+		return created;
 	}
 
 	@Override
@@ -188,6 +552,17 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		lazyInit();
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
+		RDFState changes = this.entityPersister.getDirtyState(entity);
+		if(changes != null){
+			persistChanges(changes, Collections.singletonList(entity));
+			entityCache.put(entity);
+			return entity;
+		}
+		if(saveWithUpdate){
+			executeUpdate(this.entityToUpdateConverter.getUpdateForEntity(persistentEntity, entity), this.entityToUpdateConverter.getChangedResources(persistentEntity, entity));
+			entityCache.put(entity);
+			return entity;
+		}
 		URI id = persistentEntity.getResourceId(entity);
 		Model dbState = this.statementsCollector.getStatementsForResourceOriginalPredicates(id, entity.getClass(), MappingPolicyImpl.DEFAULT_POLICY);
 		entity = this.entityPersister.persistEntity(entity, new RDFState(dbState));
@@ -198,15 +573,111 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	@Override
 	public <T> Iterable<T> save(Iterable<T> entities) {
 		lazyInit();
-		Map<T, RDFState> entityToExistingState = new HashMap<T, RDFState>();
+		List<T> saved = new LinkedList<T>();
+		List<T> untracked = new LinkedList<T>();
+		RDFState changes = new RDFState();
 		for(T entity : entities){
-			@SuppressWarnings("unchecked")
-			SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
-			URI id = persistentEntity.getResourceId(entity);
-			Model dbState = this.statementsCollector.getStatementsForResourceOriginalPredicates(id, entity.getClass(), MappingPolicyImpl.DEFAULT_POLICY);
-			entityToExistingState.put(entity, new RDFState(dbState));
+			try{
+				RDFState entityChanges = this.entityPersister.getDirtyState(entity);
+				if(entityChanges == null){
+					untracked.add(entity);
+				}
+				else{
+					changes.merge(entityChanges);
+					saved.add(entity);
+				}
+			} catch(RequiredPropertyException e){
+				logger.error(e.getMessage(), e);
+			}
+		}
+		persistChanges(changes, saved);
+		if(!untracked.isEmpty()){
+			if(saveWithUpdate){
+				for(T entity : saveWithUpdate(untracked)){
+					saved.add(entity);
+				}
+			}
+			else{
+				Map<T, RDFState> entityToExistingState = new HashMap<T, RDFState>();
+				for(T entity : untracked){
+					@SuppressWarnings("unchecked")
+					SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
+					URI id = persistentEntity.getResourceId(entity);
+					Model dbState = this.statementsCollector.getStatementsForResourceOriginalPredicates(id, entity.getClass(), MappingPolicyImpl.DEFAULT_POLICY);
+					entityToExistingState.put(entity, new RDFState(dbState));
+				}
+				for(T entity : this.entityPersister.persistEntities(entityToExistingState)){
+					saved.add(entity);
+				}
+			}
+		}
+		for(T entity : saved){
+			entityCache.put(entity);
+		}
+		return saved;
+	}
+	
+	/**
+	 * Write the changes of entities tracked since their loading; the entities are no longer tracked if this fails.
+	 */
+	private void persistChanges(RDFState changes, Collection<?> entities){
+		try{
+			if(!changes.getDeleteStatements().isEmpty()){
+				this.semanticDB.removeStatements(changes.getDeleteStatements());
+			}
+			if(!changes.getCurrentStatements().isEmpty()){
+				this.semanticDB.addStatements(changes.getCurrentStatements());
+			}
+		} catch(RuntimeException e){
+			for(Object entity : entities){
+				dirtyStateTracker.forget(entity);
+			}
+			throw e;
+		}
+	}
+	
+	private <T> Iterable<T> saveWithUpdate(Iterable<T> entities){
+		List<T> saved = new LinkedList<T>();
+		StringBuilder update = new StringBuilder();
+		Set<Resource> changedResources = new HashSet<Resource>();
+		for(T entity : entities){
+			try{
+				SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(entity.getClass());
+				String entityUpdate = this.entityToUpdateConverter.getUpdateForEntity(persistentEntity, entity);
+				if(update.length() > 0){
+					update.append(" ;\n");
+				}
+				update.append(entityUpdate);
+				saved.add(entity);
+				if(changedResources != null){
+					Set<Resource> entityChangedResources = this.entityToUpdateConverter.getChangedResources(persistentEntity, entity);
+					if(entityChangedResources != null){
+						changedResources.addAll(entityChangedResources);
+					}
+					else{
+						changedResources = null;
+					}
+				}
+			} catch(RequiredPropertyException e){
+				logger.error(e.getMessage(), e);
+			}
+		}
+		if(update.length() > 0){
+			executeUpdate(update.toString(), changedResources);
+		}
+		return saved;
+	}
+	
+	/**
+	 * Execute the update, invalidating the caches only for the changed resources if these are known.
+	 */
+	private void executeUpdate(String update, Set<Resource> changedResources){
+		if(changedResources != null){
+			this.semanticDB.executeUpdateStatement(update, changedResources);
+		}
+		else{
+			this.semanticDB.executeUpdateStatement(update);
 		}
-		return this.entityPersister.persistEntities(entityToExistingState);
 	}
 	
 	@Override
@@ -220,6 +691,12 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		return results;
 	}
 
+	@Override
+	public <T> ClosableIterable<T> streamAll(Class<? extends T> clazz) {
+		lazyInit();
+		return new StreamingEntityIterable<T>(this.statementsCollector.getStatementsForResourcesIteration(clazz, batchSize), clazz);
+	}
+
 	@Override
 	public <T> T find(URI resourceId, Class<? extends T> clazz) {
 		lazyInit();
@@ -236,6 +713,32 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	}
 
 	
+	@Override
+	public <T> List<T> find(Collection<URI> resourceIds, Class<? extends T> clazz) {
+		lazyInit();
+		Map<URI, T> cached = entityCache.getAll(resourceIds, clazz);
+		List<URI> missing = new ArrayList<URI>(resourceIds.size() - cached.size());
+		for(URI id : resourceIds){
+			if(!cached.containsKey(id)){
+				missing.add(id);
+			}
+		}
+		Map<URI, T> loaded = this.batchLoader.load(missing, clazz);
+		List<T> entities = new ArrayList<T>(resourceIds.size());
+		for(URI id : resourceIds){
+			T entity = cached.get(id);
+			if(entity == null){
+				entity = loaded.get(id);
+				if(entity == null){
+					continue;
+				}
+				entityCache.put(entity);
+			}
+			entities.add(entity);
+		}
+		return entities;
+	}
+
 	public <T> T createEntity(Model statements, Class<T> clazz) {
 		lazyInit();
 		return entityPersister.createEntityFromState(new RDFState(statements), clazz);
@@ -260,7 +763,8 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 			return true;
 		}
 		try {
-			return this.semanticDB.getBooleanQueryResult(entityToQueryConverter.getQueryForResourceExistence(resourceId, this.mappingContext.getPersistentEntity(clazz)));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedQueryForResourceExistence(resourceId, this.mappingContext.getPersistentEntity(clazz));
+			return this.semanticDB.getBooleanQueryResult(query.getQuery(), query.getBindings());
 		} catch (Exception e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -281,6 +785,9 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
 		entityCache.remove(entity);
+		if(dirtyStateTracker != null){
+			dirtyStateTracker.forget(persistentEntity.getResourceId(entity));
+		}
 		this.entityRemover.delete(persistentEntity, entity);
 		
 	}
@@ -291,6 +798,9 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(clazz);
 		entityCache.clear(clazz);
+		if(dirtyStateTracker != null){
+			dirtyStateTracker.clear();
+		}
 		this.entityRemover.deleteAll(persistentEntity);
 	}
 
@@ -308,6 +818,64 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		return results;
 	}
 
+	@Override
+	public <T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort) {
+		lazyInit();
+		return this.findSorted(clazz, parameterToValue, sort, null, null);
+	}
+	
+	@Override
+	public <T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Pageable pageRequest) {
+		lazyInit();
+		return this.findSorted(clazz, parameterToValue, pageRequest.getSort(), pageRequest.getOffset(), pageRequest.getPageSize());
+	}
+	
+	@Override
+	public <T> List<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort, Integer offset, Integer limit) {
+		lazyInit();
+		return this.findSorted(clazz, parameterToValue, sort, offset, limit);
+	}
+
+	@Override
+	public <T> List<T> findByQuery(Class<? extends T> clazz, String query, BindingSet bindings) {
+		lazyInit();
+		return this.find(this.statementsCollector.getUrisForQuery(query, bindings), clazz);
+	}
+	
+	@Override
+	public Long countByQuery(String query, BindingSet bindings) {
+		lazyInit();
+		return this.statementsCollector.getCountForQuery(query, bindings);
+	}
+
+	@Override
+	public <T> List<T> findByGraphQuery(Class<? extends T> clazz, String query, BindingSet bindings) {
+		lazyInit();
+		List<T> results = new LinkedList<T>();
+		for(Model statements : this.statementsCollector.getStatementsForGraphQuery(clazz, query, bindings)){
+			results.add(createEntity(statements, clazz));
+		}
+		return results;
+	}
+	
+	@Override
+	public <T> List<T> selectByQuery(Class<T> projection, String query, BindingSet bindings) {
+		lazyInit();
+		BindingSetToObjectConverter<T> converter = new BindingSetToObjectConverter<T>(projection, this.conversionService);
+		List<BindingSet> results = this.statementsCollector.getBindingsForQuery(query, bindings);
+		List<T> projections = new ArrayList<T>(results.size());
+		for(BindingSet result : results){
+			projections.add(converter.convert(result));
+		}
+		return projections;
+	}
+	
+	@Override
+	public boolean askByQuery(String query, BindingSet bindings) {
+		lazyInit();
+		return this.statementsCollector.getBooleanForQuery(query, bindings);
+	}
+
 	@Override
 	public Long countByProperty(Class<?> clazz,
 			Map<String, Object> parameterToValue) {
@@ -324,24 +892,114 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	public SemanticDatabase getSemanticDB() {
 		return semanticDB;
 	}
+	
+	/**
+	 * @return the cache of entity molecules, or null if it is disabled
+	 */
+	public MoleculeCache getMoleculeCache() {
+		lazyInit();
+		return moleculeCache;
+	}
 
 	@Override
 	public <T> List<T> findAll(Class<? extends T> clazz, Pageable pageRequest) {
 		lazyInit();
-		Collection<URI> ids = this.statementsCollector.getUrisForOffsetAndLimit(clazz, pageRequest.getOffset(), pageRequest.getPageSize());
-		List<T> entities = new ArrayList<T>(pageRequest.getPageSize());
-		for(URI id : ids){
-			T entity = this.find(id, clazz);
-			entities.add(entity);
+		if(pageRequest.getSort() != null){
+			return this.findSorted(clazz, Collections.<String, Object>emptyMap(), pageRequest.getSort(), pageRequest.getOffset(), pageRequest.getPageSize());
 		}
-		return entities;
+		Collection<URI> ids = this.statementsCollector.getUrisForOffsetAndLimit(clazz, pageRequest.getOffset(), pageRequest.getPageSize());
+		return this.find(ids, clazz);
 	}
 	
+	@Override
+	public <T> List<T> findAll(Class<? extends T> clazz, Sort sort) {
+		lazyInit();
+		return this.findSorted(clazz, Collections.<String, Object>emptyMap(), sort, null, null);
+	}
 	
-
+	/**
+	 * Let the store order and slice the ids of the matching entities and load them in that order.
+	 */
+	private <T> List<T> findSorted(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort, Integer offset, Integer limit) {
+		List<URI> ids = this.statementsCollector.getSortedUris(clazz, parameterToValue, sort, offset, limit);
+		return this.find(ids, clazz);
+	}
+	
+	@Override
+	public <T> KeysetSlice<T> findAllAfter(Class<? extends T> clazz, URI lastId, int size) {
+		if(size < 1){
+			throw new IllegalArgumentException("Slice size must not be less than one!");
+		}
+		lazyInit();
+		//one more id tells whether there is a next slice
+		List<URI> ids = this.statementsCollector.getUrisAfter(clazz, lastId, size + 1);
+		URI continuation = null;
+		if(ids.size() > size){
+			ids = ids.subList(0, size);
+			continuation = ids.get(size - 1);
+		}
+		return new KeysetSlice<T>(this.<T>find(ids, clazz), size, continuation);
+	}
 	
+	/**
+	 * Creates entities from a cursor of per-entity {@link Model}s as they are consumed.
+	 */
+	private class StreamingEntityIterable<T> implements ClosableIterable<T>, Iterator<T> {
+		
+		private final CloseableIteration<Model, QueryEvaluationException> models;
+		private final Class<? extends T> clazz;
+		
+		public StreamingEntityIterable(CloseableIteration<Model, QueryEvaluationException> models, Class<? extends T> clazz){
+			this.models = models;
+			this.clazz = clazz;
+		}
 
+		@Override
+		public Iterator<T> iterator() {
+			return this;
+		}
 
-	
+		@Override
+		public boolean hasNext() {
+			try {
+				boolean hasNext = models.hasNext();
+				if(!hasNext){
+					models.close();
+				}
+				return hasNext;
+			} catch (QueryEvaluationException e) {
+				close();
+				throw ExceptionTranslator.translateExceptionIfPossible(e);
+			}
+		}
+
+		@Override
+		public T next() {
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			try {
+				return createEntity(models.next(), clazz);
+			} catch (QueryEvaluationException e) {
+				close();
+				throw ExceptionTranslator.translateExceptionIfPossible(e);
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			try {
+				models.close();
+			} catch (QueryEvaluationException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+		
+	}
 	
 }
@@ -15,39 +15,54 @@
  */
 package org.springframework.data.semantic.support;
 
+import info.aduna.iteration.CloseableIteration;
+import info.aduna.iteration.LookAheadIteration;
+
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
-import org.openrdf.model.impl.TreeModel;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.MalformedQueryException;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.query.QueryInterruptedException;
 import org.openrdf.repository.RepositoryException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
 import org.springframework.data.repository.query.QueryCreationException;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.core.SemanticOperationsStatementsCollector;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
 import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.convert.ParameterizedQuery;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.mapping.SemanticPersistentEntityImpl;
+import org.springframework.data.semantic.support.util.CompactModel;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class SemanticTemplateStatementsCollector implements SemanticOperationsStatementsCollector {
 	
 	private SemanticDatabase semanticDB;	
 	private SemanticMappingContext mappingContext;
 	private EntityToQueryConverter entityToQueryConverter;
+	private MoleculeCache moleculeCache;
 	
 	
 	public SemanticTemplateStatementsCollector(SemanticDatabase semanticDB,
@@ -59,6 +74,18 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		this.entityToQueryConverter = entityToQueryConverter;
 	}	
 	
+	/**
+	 * Set the cache serving the molecules of single resources and lazily loaded properties; null disables caching.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
+	public MoleculeCache getMoleculeCache() {
+		return moleculeCache;
+	}
+	
 	public MappingPolicy getMappingPolicy(Class<?> clazz){
 		SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(clazz);
 		return persistentEntity.getMappingPolicy();
@@ -71,8 +98,8 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
 		URI uri = persistentEntity.getResourceId(entity);
 		try {
-			return semanticDB.getGraphQueryResults(
-				entityToQueryConverter.getGraphQueryForResourceProperty(uri, persistentEntity, property));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForResourceProperty(uri, persistentEntity, property);
+			return getMolecule(uri, query);
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
@@ -81,8 +108,8 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	@Override
 	public <T> Model getStatementsForResourceOriginalPredicates(URI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy){
 		try {
-			return semanticDB.getGraphQueryResults(
-					entityToQueryConverter.getGraphQueryForResourceWithOriginalPredicates(resource, getPersistentEntity(clazz), globalMappingPolicy));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForResourceWithOriginalPredicates(resource, getPersistentEntity(clazz), globalMappingPolicy);
+			return semanticDB.getGraphQueryResults(query.getQuery(), query.getBindings());
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
@@ -91,13 +118,45 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	@Override
 	public <T> Model getStatementsForResource(URI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy) {
 		try {
-			return semanticDB.getGraphQueryResults(
-					entityToQueryConverter.getGraphQueryForResource(resource, getPersistentEntity(clazz), globalMappingPolicy));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForResource(resource, getPersistentEntity(clazz), globalMappingPolicy);
+			return getMolecule(resource, query);
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		} 
 	}
 
+	/**
+	 * Serve the statements of a single resource from the {@link MoleculeCache}, if any. The cache is bypassed within transactions,
+	 * since they may read their own uncommitted changes.
+	 */
+	private Model getMolecule(URI resource, ParameterizedQuery query) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException{
+		if(moleculeCache == null || TransactionSynchronizationManager.isActualTransactionActive()){
+			return semanticDB.getGraphQueryResults(query.getQuery(), query.getBindings());
+		}
+		Model molecule = moleculeCache.get(resource, query.getQuery());
+		if(molecule == null){
+			long generation = moleculeCache.getGeneration();
+			molecule = semanticDB.getGraphQueryResults(query.getQuery(), query.getBindings());
+			moleculeCache.put(resource, query.getQuery(), molecule, generation);
+		}
+		return molecule;
+	}
+
+	@Override
+	public <T> Collection<Model> getStatementsForResources(Collection<URI> resources, Class<? extends T> clazz, MappingPolicy globalMappingPolicy) {
+		if(resources.isEmpty()){
+			return new ArrayList<Model>(0);
+		}
+		try {
+			SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(clazz);
+			Model results = semanticDB.getGraphQueryResults(
+					entityToQueryConverter.getGraphQueryForResources(resources, persistentEntity, globalMappingPolicy));
+			return assembleModels(persistentEntity, results);
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+
 	@Override
 	public <T> Collection<Model> getStatementsForResources(Class<? extends T> clazz) {
 		return getStatementsForResources(clazz, null, null);
@@ -108,46 +167,135 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
 			Model results = semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForEntityClass(persistentEntity), offset, limit);
-			return assembleModels(persistentEntity.getRDFType(), results);
+			return assembleModels(persistentEntity, results);
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
 	}
 
+	@Override
+	public <T> CloseableIteration<Model, QueryEvaluationException> getStatementsForResourcesIteration(Class<? extends T> clazz, int pageSize) {
+		return new MoleculePageIteration(clazz, pageSize);
+	}
+
 	@Override
 	public <T> Collection<Model> getStatementsForResourcesAndProperties(
 			Class<? extends T> clazz, Map<String, Object> parameterToValue,
 			Long offset, Long limit) {
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			Model results = semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForEntityClass(persistentEntity, parameterToValue), offset, limit);
-			return assembleModels(persistentEntity.getRDFType(), results);
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForEntityClass(persistentEntity, parameterToValue);
+			Model results = semanticDB.getGraphQueryResults(query.getQuery(), query.getBindings(), offset, limit);
+			return assembleModels(persistentEntity, results);
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
 	}
 	
 	public <T> Collection<Model> assembleModels(URI type, Model allStatements){
-		Model subjects = allStatements.filter(null, null, type);
-		Map<Resource, Model> entityIdToModel = new HashMap<Resource, Model>();
-		for(Statement st : subjects){
-			Resource subject = st.getSubject();
-			Model statementsForSubject = new TreeModel();
-			getStatementsForSubject(allStatements, subject, statementsForSubject);
-			entityIdToModel.put(subject, statementsForSubject);
-		}
-		return entityIdToModel.values();
-	}
-	
-	private void getStatementsForSubject(Model source, Resource subject, Model dest){
-		Model directStatements = source.filter(subject, null, null);
-		dest.addAll(directStatements);
-		for(Statement st : directStatements){
-			Value object = st.getObject();
-			if(object instanceof Resource && !st.getPredicate().equals(RDF.TYPE) && dest.filter((Resource) object, null, null).isEmpty()){
-				getStatementsForSubject(source, (Resource) object, dest);
+		return assembleModels(type, allStatements, null);
+	}
+	
+	/**
+	 * Split the given statements into the molecules of the entities of the given type.
+	 * Only fetched associations are followed, so that related entities do not end up in each other's molecule.
+	 * @param persistentEntity
+	 * @param allStatements
+	 * @return
+	 */
+	public <T> Collection<Model> assembleModels(SemanticPersistentEntity<?> persistentEntity, Model allStatements){
+		return assembleModels(persistentEntity.getRDFType(), allStatements, getFetchedPredicates(persistentEntity));
+	}
+	
+	/**
+	 * The statements are grouped by subject in a single pass; the molecules are assembled lazily while iterating the result.
+	 */
+	private Collection<Model> assembleModels(URI type, Model allStatements, Set<String> fetchedPredicates){
+		return new MoleculeAssembler(type, allStatements, fetchedPredicates);
+	}
+	
+	private Set<String> getFetchedPredicates(SemanticPersistentEntity<?> persistentEntity){
+		Set<String> fetchedPredicates = new HashSet<String>();
+		collectFetchedPredicates(persistentEntity, fetchedPredicates, new HashSet<SemanticPersistentEntity<?>>());
+		return fetchedPredicates;
+	}
+	
+	/**
+	 * Collect the alias predicates of all associations which are fetched together with the given entity.
+	 */
+	private void collectFetchedPredicates(SemanticPersistentEntity<?> persistentEntity, final Set<String> predicates, final Set<SemanticPersistentEntity<?>> visited){
+		if(!visited.add(persistentEntity)){
+			return;
+		}
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				SemanticPersistentProperty property = association.getInverse();
+				if(property.getMappingPolicy().combineWith(MappingPolicyImpl.ALL_POLICY).shouldCascade(Cascade.GET)){
+					predicates.add(property.getAliasPredicate());
+					collectFetchedPredicates(mappingContext.getPersistentEntity(property.getActualType()), predicates, visited);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Assembles the molecules of all entities of a type page by page. The ids of each page are selected in the order of their 
+	 * string value after the last id of the previous page and their molecules are loaded with a single query, so that the 
+	 * molecules do not depend on the order in which the repository returns the statements.
+	 */
+	private class MoleculePageIteration extends LookAheadIteration<Model, QueryEvaluationException> {
+		
+		private final Class<?> clazz;
+		private final SemanticPersistentEntity<?> persistentEntity;
+		private final Set<String> fetchedPredicates;
+		private final int pageSize;
+		private Iterator<URI> ids = Collections.<URI>emptyList().iterator();
+		private MoleculeAssembler page;
+		private URI lastId;
+		private boolean exhausted = false;
+		
+		public MoleculePageIteration(Class<?> clazz, int pageSize){
+			this.clazz = clazz;
+			this.persistentEntity = mappingContext.getPersistentEntity(clazz);
+			this.fetchedPredicates = getFetchedPredicates(persistentEntity);
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		protected Model getNextElement() throws QueryEvaluationException {
+			while(true){
+				while(ids.hasNext()){
+					Model molecule = page.getMolecule(ids.next());
+					//the entity may have been removed since its id was selected
+					if(!molecule.isEmpty()){
+						return molecule;
+					}
+				}
+				if(exhausted){
+					return null;
+				}
+				List<URI> pageIds = getUrisAfter(clazz, lastId, pageSize);
+				exhausted = pageIds.size() < pageSize;
+				if(pageIds.isEmpty()){
+					return null;
+				}
+				lastId = pageIds.get(pageIds.size() - 1);
+				page = loadPage(pageIds);
+				ids = pageIds.iterator();
+			}
+		}
+		
+		private MoleculeAssembler loadPage(List<URI> pageIds){
+			try {
+				Model results = semanticDB.getGraphQueryResults(
+						entityToQueryConverter.getGraphQueryForResources(pageIds, persistentEntity, MappingPolicyImpl.ALL_POLICY));
+				return new MoleculeAssembler(persistentEntity.getRDFType(), results, fetchedPredicates);
+			} catch (Exception e) {
+				throw ExceptionTranslator.translateExceptionIfPossible(e);
 			}
 		}
+		
 	}
 	
 	private SemanticPersistentEntity<?> getPersistentEntity(Class<?> targetClazz){
@@ -160,7 +308,8 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		List<BindingSet> result;
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			result = this.semanticDB.getQueryResults(entityToQueryConverter.getGraphQueryForResourceCount(persistentEntity, new HashMap<String, Object>()));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedQueryForResourceCount(persistentEntity, new HashMap<String, Object>());
+			result = this.semanticDB.getQueryResults(query.getQuery(), query.getBindings());
 			return Long.valueOf(result.get(0).getValue("count").stringValue());
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
@@ -174,7 +323,8 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 			Map<String, Object> parameterToValue) {
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			List<BindingSet> results = semanticDB.getQueryResults(entityToQueryConverter.getGraphQueryForResourceCount(persistentEntity, parameterToValue));
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedQueryForResourceCount(persistentEntity, parameterToValue);
+			List<BindingSet> results = semanticDB.getQueryResults(query.getQuery(), query.getBindings());
 			return Long.valueOf(results.get(0).getValue("count").stringValue());
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
@@ -208,4 +358,148 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		return ids;
 	}
 	
+	@Override
+	public <T> List<URI> getSortedUris(Class<? extends T> clazz, Map<String, Object> parameterToValue, Sort sort, Integer offset, Integer limit) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		List<URI> ids = new ArrayList<URI>(limit != null ? limit : 10);
+		try {
+			for(BindingSet result : semanticDB.getQueryResults(entityToQueryConverter.getQueryForSortedIds(persistentEntity, parameterToValue, sort, offset, limit))){
+				Value id = result.getValue("id");
+				if(id instanceof URI){
+					ids.add((URI) id);
+				}
+			}
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+		return ids;
+	}
+	
+	@Override
+	public List<URI> getUrisForQuery(String query, BindingSet bindings) {
+		List<URI> ids = new ArrayList<URI>();
+		try {
+			for(BindingSet result : semanticDB.getQueryResults(query, bindings)){
+				Value id = result.getValue("id");
+				if(id instanceof URI){
+					ids.add((URI) id);
+				}
+			}
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+		return ids;
+	}
+	
+	@Override
+	public Long getCountForQuery(String query, BindingSet bindings) {
+		try {
+			List<BindingSet> results = semanticDB.getQueryResults(query, bindings);
+			return Long.valueOf(results.get(0).getValue("count").stringValue());
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public List<BindingSet> getBindingsForQuery(String query, BindingSet bindings) {
+		try {
+			return semanticDB.getQueryResults(query, bindings);
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public boolean getBooleanForQuery(String query, BindingSet bindings) {
+		try {
+			return semanticDB.getBooleanQueryResult(query, bindings);
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> Collection<Model> getStatementsForGraphQuery(Class<? extends T> clazz, String query, BindingSet bindings) {
+		try {
+			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+			Model results = semanticDB.getGraphQueryResults(query, bindings);
+			return assembleModels(persistentEntity, toAliasPredicates(persistentEntity, results));
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	/**
+	 * Replace the predicates of the properties of the entities of the given type with the alias predicates the entities are 
+	 * read from, so that statements constructed with the mapped predicates can be turned into entities.
+	 */
+	private Model toAliasPredicates(SemanticPersistentEntity<?> persistentEntity, Model statements){
+		final Map<URI, SemanticPersistentProperty> outgoing = new HashMap<URI, SemanticPersistentProperty>();
+		final Map<URI, SemanticPersistentProperty> incoming = new HashMap<URI, SemanticPersistentProperty>();
+		PropertyHandler<SemanticPersistentProperty> handler = new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty property) {
+				if(property.isIdProperty() || property.isContext() || property.isTransient()){
+					return;
+				}
+				if(property.isAssociation() && Direction.INCOMING.equals(property.getDirection()) && property.getInverseProperty() != null){
+					incoming.put(property.getInverseProperty().getPredicate(), property);
+				}
+				else{
+					outgoing.put(property.getPredicate(), property);
+				}
+			}
+		};
+		persistentEntity.doWithProperties(handler);
+		for(SemanticPersistentProperty property : getAssociationProperties(persistentEntity)){
+			handler.doWithPersistentProperty(property);
+		}
+		Set<Resource> entities = statements.filter(null, RDF.TYPE, persistentEntity.getRDFType()).subjects();
+		Model translated = new CompactModel();
+		for(Statement st : statements){
+			SemanticPersistentProperty property = entities.contains(st.getSubject()) ? outgoing.get(st.getPredicate()) : null;
+			if(property != null){
+				translated.add(st.getSubject(), property.getAliasPredicateURI(), st.getObject(), st.getContext());
+				continue;
+			}
+			property = st.getObject() instanceof Resource && entities.contains(st.getObject()) ? incoming.get(st.getPredicate()) : null;
+			if(property != null){
+				translated.add((Resource) st.getObject(), property.getAliasPredicateURI(), st.getSubject(), st.getContext());
+				continue;
+			}
+			translated.add(st);
+		}
+		return translated;
+	}
+	
+	private List<SemanticPersistentProperty> getAssociationProperties(SemanticPersistentEntity<?> persistentEntity){
+		final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				properties.add(association.getInverse());
+			}
+		});
+		return properties;
+	}
+	
+	@Override
+	public <T> List<URI> getUrisAfter(Class<? extends T> clazz, URI lastId, int limit) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		List<URI> ids = new ArrayList<URI>(limit);
+		try {
+			ParameterizedQuery query = entityToQueryConverter.getParameterizedQueryForIdsAfter(persistentEntity, lastId, limit);
+			for(BindingSet result : semanticDB.getQueryResults(query.getQuery(), query.getBindings())){
+				Value id = result.getValue("id");
+				if(id instanceof URI){
+					ids.add((URI) id);
+				}
+			}
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+		return ids;
+	}
+	
 }
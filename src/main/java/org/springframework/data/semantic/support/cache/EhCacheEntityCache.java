@@ -16,6 +16,14 @@
 package org.springframework.data.semantic.support.cache;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
@@ -23,6 +31,7 @@ import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.config.CacheConfiguration;
 
+import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
 import org.springframework.data.semantic.cache.EntityCache;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
@@ -32,6 +41,7 @@ public class EhCacheEntityCache implements EntityCache {
 	
 	private CacheManager cacheManager;
 	private SemanticMappingContext mappingContext;
+	private Set<String> cacheNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
 	public EhCacheEntityCache(SemanticMappingContext mappingContext, CacheManager cacheManager) {
 		this.mappingContext = mappingContext;
@@ -59,6 +69,28 @@ public class EhCacheEntityCache implements EntityCache {
 		return null;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> Map<URI, T> getAll(Collection<URI> ids, Class<? extends T> clazz) {
+		Ehcache cache = getCache(clazz);
+		List<String> keys = new ArrayList<String>(ids.size());
+		for(URI id : ids){
+			keys.add(id.toString());
+		}
+		Map<Object, Element> elements = cache.getAll(keys);
+		Map<URI, T> entities = new HashMap<URI, T>();
+		for(URI id : ids){
+			Element element = elements.get(id.toString());
+			if(element != null){
+				Object value = element.getObjectValue();
+				if(clazz.isAssignableFrom(value.getClass())){
+					entities.put(id, (T) value);
+				}
+			}
+		}
+		return entities;
+	}
+
 	@Override
 	public <T> void put(T entity) {
 		if(entity != null && entity instanceof Serializable){
@@ -78,6 +110,18 @@ public class EhCacheEntityCache implements EntityCache {
 		cacheManager.clearAll();
 	}
 	
+	@Override
+	public void evict(Collection<? extends Resource> resources) {
+		for(String cacheName : cacheNames){
+			Ehcache cache = cacheManager.getCache(cacheName);
+			if(cache != null){
+				for(Resource resource : resources){
+					cache.remove(resource.toString());
+				}
+			}
+		}
+	}
+	
 	private URI getId(Object entity){
 		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entity.getClass());
 		return persistentEntity.getResourceId(entity);
@@ -91,6 +135,7 @@ public class EhCacheEntityCache implements EntityCache {
 			cache = new Cache(config);
 			cacheManager.addCache(cache);
 		}
+		cacheNames.add(cacheName);
 		return cache;
 	}
 
@@ -15,6 +15,11 @@
  */
 package org.springframework.data.semantic.support.cache;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
 import org.springframework.data.semantic.cache.EntityCache;
 
@@ -30,6 +35,11 @@ public class EmptyEntityCache implements EntityCache {
 		return null;
 	}
 
+	@Override
+	public <T> Map<URI, T> getAll(Collection<URI> ids, Class<? extends T> clazz) {
+		return Collections.emptyMap();
+	}
+
 	@Override
 	public <T> void put(T entity) {
 		return;
@@ -45,4 +55,9 @@ public class EmptyEntityCache implements EntityCache {
 		return;
 	}
 
+	@Override
+	public void evict(Collection<? extends Resource> resources) {
+		return;
+	}
+
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+
+/**
+ * Evicts the entities whose statements have been written from an {@link EntityCache}. Since every statement 
+ * added or removed by a save, including the ones of associated entities saved in cascade, is reported, 
+ * entities changed by bulk operations are invalidated as well.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class EntityCacheInvalidator implements SemanticDatabaseWriteListener {
+	
+	private final EntityCache entityCache;
+	
+	public EntityCacheInvalidator(EntityCache entityCache){
+		this.entityCache = entityCache;
+	}
+
+	@Override
+	public void resourcesChanged(Set<Resource> resources) {
+		entityCache.evict(resources);
+	}
+
+	@Override
+	public void databaseChanged() {
+		entityCache.clearAll();
+	}
+
+}
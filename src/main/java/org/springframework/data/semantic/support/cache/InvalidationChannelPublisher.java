@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.springframework.data.semantic.cache.InvalidationChannel;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+
+/**
+ * Publishes the writes of the local database to the peers connected through an {@link InvalidationChannel}.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class InvalidationChannelPublisher implements SemanticDatabaseWriteListener {
+	
+	private final InvalidationChannel channel;
+	
+	public InvalidationChannelPublisher(InvalidationChannel channel){
+		this.channel = channel;
+	}
+
+	@Override
+	public void resourcesChanged(Set<Resource> resources) {
+		channel.publish(resources);
+	}
+
+	@Override
+	public void databaseChanged() {
+		channel.publishAll();
+	}
+
+}
@@ -0,0 +1,527 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
+import org.springframework.data.semantic.convert.SemanticEntityPersister;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
+import org.springframework.data.semantic.support.Direction;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.semantic.support.util.CompactModel;
+
+/**
+ * In-process {@link EntityCache} holding the molecules (the statements an entity is read from) instead of the entities themselves.
+ * A hit rebuilds a fresh entity from the cached molecule, so callers never share instances and nothing is serialized.
+ * <p>
+ * Each entity type has its own region bounded by the total number of cached statements. A region is split into independently locked
+ * segments, each evicting with a segmented LRU policy: new entries are probationary and are promoted to the protected part on their
+ * second hit, so that a single scan over many entities does not flush the frequently used ones. Entries optionally expire after a time to live.
+ * <p>
+ * An entry embedding the molecules of associated entities fetched with {@link Cascade#GET} is indexed by their ids as well, so that it
+ * is evicted when any of them is written.
+ *
+ * @author konstantin.pentchev
+ *
+ */
+public class LocalEntityCache implements EntityCache {
+
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 100000;
+
+	private static final int SEGMENTS = 16;
+
+	private static final double PROTECTED_RATIO = 0.8;
+
+	private final SemanticMappingContext mappingContext;
+
+	private final SemanticEntityPersister entityPersister;
+
+	private final ConcurrentMap<Class<?>, Region> regions = new ConcurrentHashMap<Class<?>, Region>();
+
+	private final Map<Class<?>, Long> maximumWeights = new ConcurrentHashMap<Class<?>, Long>();
+
+	private volatile long defaultMaximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+
+	private volatile long timeToLive = 0;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	public LocalEntityCache(SemanticMappingContext mappingContext, SemanticEntityPersister entityPersister){
+		this.mappingContext = mappingContext;
+		this.entityPersister = entityPersister;
+	}
+
+	/**
+	 * Set the maximum number of statements cached per entity type, unless configured for the type explicitly.
+	 * Affects only regions created afterwards.
+	 * @param defaultMaximumWeight
+	 */
+	public void setDefaultMaximumWeight(long defaultMaximumWeight) {
+		this.defaultMaximumWeight = defaultMaximumWeight;
+	}
+
+	/**
+	 * Set the maximum number of statements cached for the given entity type. Clears the cached entities of the type.
+	 * @param clazz
+	 * @param maximumWeight
+	 */
+	public void setMaximumWeight(Class<?> clazz, long maximumWeight) {
+		maximumWeights.put(clazz, maximumWeight);
+		regions.remove(clazz);
+	}
+
+	/**
+	 * Set the time in milliseconds after which cached entities expire; 0 disables expiration.
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public <T> void remove(T entity) {
+		if(entity == null){
+			return;
+		}
+		Region region = regions.get(entity.getClass());
+		URI id = getPersistentEntity(entity.getClass()).getResourceId(entity);
+		if(region != null && id != null){
+			region.segmentFor(id).remove(id);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T get(URI id, Class<? extends T> clazz) {
+		Region region = regions.get(clazz);
+		Entry entry = region != null ? region.segmentFor(id).get(id, System.nanoTime()) : null;
+		if(entry == null){
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		T entity = entityPersister.createEntityFromState(new RDFState(entry.molecule), (Class<T>) clazz);
+		SemanticPersistentProperty contextProperty = getPersistentEntity(clazz).getContextProperty();
+		if(entity != null && contextProperty != null && entry.context != null){
+			contextProperty.setValue(entity, entry.context);
+		}
+		return entity;
+	}
+
+	@Override
+	public <T> Map<URI, T> getAll(Collection<URI> ids, Class<? extends T> clazz) {
+		Map<URI, T> entities = new HashMap<URI, T>();
+		for(URI id : ids){
+			T entity = get(id, clazz);
+			if(entity != null){
+				entities.put(id, entity);
+			}
+		}
+		return entities;
+	}
+
+	@Override
+	public <T> void put(T entity) {
+		if(entity == null){
+			return;
+		}
+		SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
+		URI id = persistentEntity.getResourceId(entity);
+		if(id == null){
+			return;
+		}
+		Model molecule = new CompactModel();
+		molecule.add(new StatementImpl(id, RDF.TYPE, persistentEntity.getRDFType()));
+		Set<URI> embedded = new HashSet<URI>();
+		if(!writeMolecule(entity, persistentEntity, id, molecule, embedded)){
+			//an associated entity without id cannot be restored; make sure no outdated state is served
+			getRegion(entity.getClass()).segmentFor(id).remove(id);
+			return;
+		}
+		SemanticPersistentProperty contextProperty = persistentEntity.getContextProperty();
+		Object context = contextProperty != null ? contextProperty.getValue(entity, persistentEntity.getMappingPolicy()) : null;
+		long expires = timeToLive > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLive) : 0;
+		embedded.remove(id);
+		getRegion(entity.getClass()).segmentFor(id).put(new Entry(id, molecule.unmodifiable(), embedded, context, expires));
+	}
+
+	@Override
+	public <T> void clear(Class<? extends T> clazz) {
+		Region region = regions.get(clazz);
+		if(region != null){
+			region.clear();
+		}
+	}
+
+	@Override
+	public void clearAll() {
+		for(Region region : regions.values()){
+			region.clear();
+		}
+	}
+
+	@Override
+	public void evict(Collection<? extends Resource> resources) {
+		for(Region region : regions.values()){
+			for(Resource resource : resources){
+				if(resource instanceof URI){
+					region.segmentFor((URI) resource).remove((URI) resource);
+					for(URI id : region.getEmbeddingIds((URI) resource)){
+						region.segmentFor(id).remove(id);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public long getHitCount(){
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of requests not found in the cache
+	 */
+	public long getMissCount(){
+		return missCount.get();
+	}
+
+	/**
+	 * @param clazz
+	 * @return the number of statements currently cached for the given entity type
+	 */
+	public long getWeight(Class<?> clazz){
+		Region region = regions.get(clazz);
+		return region != null ? region.getWeight() : 0;
+	}
+
+	private SemanticPersistentEntity<?> getPersistentEntity(Class<?> clazz){
+		return mappingContext.getPersistentEntity(clazz);
+	}
+
+	private Region getRegion(Class<?> clazz){
+		Region region = regions.get(clazz);
+		if(region == null){
+			Long maximumWeight = maximumWeights.get(clazz);
+			region = new Region(maximumWeight != null ? maximumWeight : defaultMaximumWeight);
+			Region existing = regions.putIfAbsent(clazz, region);
+			if(existing != null){
+				region = existing;
+			}
+		}
+		return region;
+	}
+
+	/**
+	 * Write the statements the entity is read from, using the alias predicates of the read queries. The molecules of associated entities
+	 * are included for associations fetched with {@link Cascade#GET}.
+	 * @return false if the entity references an associated entity without id
+	 */
+	private boolean writeMolecule(final Object entity, final SemanticPersistentEntity<?> persistentEntity, final URI id, final Model molecule, final Set<URI> visited){
+		if(!visited.add(id)){
+			return true;
+		}
+		persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty property) {
+				if(property.isIdProperty() || property.isContext()){
+					return;
+				}
+				Object value = property.getValue(entity, persistentEntity.getMappingPolicy());
+				if(value instanceof Collection<?>){
+					for(Object element : (Collection<?>) value){
+						if(element != null){
+							molecule.add(new StatementImpl(id, property.getAliasPredicateURI(), ObjectToLiteralConverter.getInstance().convert(element)));
+						}
+					}
+				}
+				else if(value != null){
+					molecule.add(new StatementImpl(id, property.getAliasPredicateURI(), ObjectToLiteralConverter.getInstance().convert(value)));
+				}
+			}
+		});
+		final boolean[] complete = {true};
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				SemanticPersistentProperty property = association.getInverse();
+				Object value = property.getValue(entity, persistentEntity.getMappingPolicy());
+				if(value == null){
+					return;
+				}
+				SemanticPersistentEntity<?> associatedPersistentEntity = getPersistentEntity(property.getTypeInformation().getActualType().getType());
+				Collection<?> associatedEntities = value instanceof Collection<?> ? (Collection<?>) value : Collections.singleton(value);
+				for(Object associatedEntity : associatedEntities){
+					URI associatedId = associatedEntity != null ? associatedPersistentEntity.getResourceId(associatedEntity) : null;
+					if(associatedId == null){
+						complete[0] = false;
+						continue;
+					}
+					if(Direction.INCOMING.equals(property.getDirection())){
+						molecule.add(new StatementImpl(associatedId, property.getInverseProperty().getAliasPredicateURI(), id));
+					}
+					else{
+						molecule.add(new StatementImpl(id, property.getAliasPredicateURI(), associatedId));
+					}
+					if(property.getMappingPolicy().shouldCascade(Cascade.GET)){
+						complete[0] &= writeMolecule(associatedEntity, associatedPersistentEntity, associatedId, molecule, visited);
+					}
+				}
+			}
+		});
+		return complete[0];
+	}
+
+	private static class Entry {
+
+		private final URI id;
+
+		private final Model molecule;
+
+		private final Set<URI> embedded;
+
+		private final Object context;
+
+		private final long weight;
+
+		private final long expires;
+
+		private Entry(URI id, Model molecule, Set<URI> embedded, Object context, long expires){
+			this.id = id;
+			this.molecule = molecule;
+			this.embedded = embedded;
+			this.context = context;
+			this.weight = molecule.size();
+			this.expires = expires;
+		}
+
+		private boolean isExpired(long now){
+			return expires != 0 && now - expires >= 0;
+		}
+	}
+
+	private static class Region {
+
+		private final Segment[] segments = new Segment[SEGMENTS];
+
+		/**
+		 * The ids of the entries embedding the molecule of each associated entity.
+		 */
+		private final Map<URI, Set<URI>> embeddingIds = new HashMap<URI, Set<URI>>();
+
+		private Region(long maximumWeight){
+			long segmentWeight = Math.max(1, maximumWeight / SEGMENTS);
+			for(int i = 0; i < SEGMENTS; i++){
+				segments[i] = new Segment(this, segmentWeight);
+			}
+		}
+
+		private synchronized Collection<URI> getEmbeddingIds(URI embedded){
+			Set<URI> ids = embeddingIds.get(embedded);
+			return ids != null ? new ArrayList<URI>(ids) : Collections.<URI>emptyList();
+		}
+
+		private synchronized void index(Entry entry){
+			for(URI embedded : entry.embedded){
+				Set<URI> ids = embeddingIds.get(embedded);
+				if(ids == null){
+					ids = new HashSet<URI>(2);
+					embeddingIds.put(embedded, ids);
+				}
+				ids.add(entry.id);
+			}
+		}
+
+		private synchronized void unindex(Entry entry){
+			for(URI embedded : entry.embedded){
+				Set<URI> ids = embeddingIds.get(embedded);
+				if(ids != null && ids.remove(entry.id) && ids.isEmpty()){
+					embeddingIds.remove(embedded);
+				}
+			}
+		}
+
+		private Segment segmentFor(URI id){
+			int hash = id.hashCode();
+			return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+		}
+
+		private long getWeight(){
+			long weight = 0;
+			for(Segment segment : segments){
+				weight += segment.getWeight();
+			}
+			return weight;
+		}
+
+		private void clear(){
+			for(Segment segment : segments){
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Segmented LRU: a probationary and a protected access ordered map, evicting from the probationary one first.
+	 */
+	private static class Segment {
+
+		private final LinkedHashMap<URI, Entry> probation = new LinkedHashMap<URI, Entry>(16, 0.75f, true);
+
+		private final LinkedHashMap<URI, Entry> protectedEntries = new LinkedHashMap<URI, Entry>(16, 0.75f, true);
+
+		private final Region region;
+
+		private final long maximumWeight;
+
+		private final long maximumProtectedWeight;
+
+		private long probationWeight;
+
+		private long protectedWeight;
+
+		private Segment(Region region, long maximumWeight){
+			this.region = region;
+			this.maximumWeight = maximumWeight;
+			this.maximumProtectedWeight = (long) (maximumWeight * PROTECTED_RATIO);
+		}
+
+		private synchronized Entry get(URI id, long now){
+			Entry entry = protectedEntries.get(id);
+			if(entry != null){
+				if(entry.isExpired(now)){
+					protectedEntries.remove(id);
+					protectedWeight -= entry.weight;
+					region.unindex(entry);
+					return null;
+				}
+				return entry;
+			}
+			entry = probation.remove(id);
+			if(entry == null){
+				return null;
+			}
+			probationWeight -= entry.weight;
+			if(entry.isExpired(now)){
+				region.unindex(entry);
+				return null;
+			}
+			protectedEntries.put(id, entry);
+			protectedWeight += entry.weight;
+			while(protectedWeight > maximumProtectedWeight && protectedEntries.size() > 1){
+				Entry demoted = removeEldest(protectedEntries);
+				protectedWeight -= demoted.weight;
+				probation.put(demoted.id, demoted);
+				probationWeight += demoted.weight;
+			}
+			evict();
+			return entry;
+		}
+
+		private synchronized void put(Entry entry){
+			remove(entry.id);
+			if(entry.weight > maximumWeight){
+				return;
+			}
+			probation.put(entry.id, entry);
+			probationWeight += entry.weight;
+			region.index(entry);
+			evict();
+		}
+
+		private synchronized void remove(URI id){
+			Entry entry = probation.remove(id);
+			if(entry != null){
+				probationWeight -= entry.weight;
+				region.unindex(entry);
+			}
+			entry = protectedEntries.remove(id);
+			if(entry != null){
+				protectedWeight -= entry.weight;
+				region.unindex(entry);
+			}
+		}
+
+		private synchronized long getWeight(){
+			return probationWeight + protectedWeight;
+		}
+
+		private synchronized void clear(){
+			for(Entry entry : probation.values()){
+				region.unindex(entry);
+			}
+			for(Entry entry : protectedEntries.values()){
+				region.unindex(entry);
+			}
+			probation.clear();
+			protectedEntries.clear();
+			probationWeight = 0;
+			protectedWeight = 0;
+		}
+
+		private void evict(){
+			while(probationWeight + protectedWeight > maximumWeight){
+				Entry evicted;
+				if(!probation.isEmpty()){
+					evicted = removeEldest(probation);
+					probationWeight -= evicted.weight;
+				}
+				else{
+					evicted = removeEldest(protectedEntries);
+					protectedWeight -= evicted.weight;
+				}
+				region.unindex(evicted);
+			}
+		}
+
+		private static Entry removeEldest(LinkedHashMap<URI, Entry> entries){
+			Iterator<Entry> it = entries.values().iterator();
+			Entry eldest = it.next();
+			it.remove();
+			return eldest;
+		}
+	}
+
+}
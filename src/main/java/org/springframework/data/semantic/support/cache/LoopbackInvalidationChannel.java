@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.openrdf.model.Resource;
+import org.springframework.data.semantic.cache.InvalidationChannel;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+
+/**
+ * In-JVM {@link InvalidationChannel}: all channels created for the same {@link Hub} act as the nodes of a cluster and 
+ * synchronously receive the invalidations published by each other. Meant for tests and for several templates 
+ * sharing a repository within one application.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class LoopbackInvalidationChannel implements InvalidationChannel {
+	
+	private final Hub hub;
+	
+	private final List<SemanticDatabaseWriteListener> listeners = new CopyOnWriteArrayList<SemanticDatabaseWriteListener>();
+	
+	/**
+	 * Create a channel joining the given hub.
+	 * @param hub
+	 */
+	public LoopbackInvalidationChannel(Hub hub){
+		this.hub = hub;
+		hub.channels.add(this);
+	}
+
+	@Override
+	public void publish(Set<Resource> resources) {
+		for(LoopbackInvalidationChannel peer : hub.channels){
+			if(peer != this){
+				for(SemanticDatabaseWriteListener listener : peer.listeners){
+					listener.resourcesChanged(resources);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void publishAll() {
+		for(LoopbackInvalidationChannel peer : hub.channels){
+			if(peer != this){
+				for(SemanticDatabaseWriteListener listener : peer.listeners){
+					listener.databaseChanged();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void subscribe(SemanticDatabaseWriteListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void unsubscribe(SemanticDatabaseWriteListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Leave the hub; the channel no longer receives the invalidations of its peers.
+	 */
+	public void close(){
+		hub.channels.remove(this);
+	}
+	
+	/**
+	 * Connects the {@link LoopbackInvalidationChannel}s of a cluster.
+	 */
+	public static class Hub {
+		
+		private final List<LoopbackInvalidationChannel> channels = new CopyOnWriteArrayList<LoopbackInvalidationChannel>();
+		
+	}
+
+}
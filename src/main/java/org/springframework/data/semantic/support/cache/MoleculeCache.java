@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+import org.springframework.data.semantic.support.util.CompactModel;
+
+/**
+ * Statement level cache of the molecules loaded for single resources, shared by all entity types, lazy properties 
+ * and associations requesting the same statements. A molecule is identified by its resource and the query retrieving it, 
+ * which encodes the set of predicates and patterns. An entry is evicted as soon as a statement having one of the resources 
+ * of the molecule as subject or object is written. The cache is bounded by the total number of cached statements.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class MoleculeCache implements SemanticDatabaseWriteListener {
+	
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 100000;
+	
+	private final long maximumWeight;
+	
+	private final LinkedHashMap<Key, Model> molecules = new LinkedHashMap<Key, Model>(16, 0.75f, true);
+	
+	private final Map<Resource, Set<Key>> resourceToKeys = new HashMap<Resource, Set<Key>>();
+	
+	private long weight;
+	
+	private long generation;
+	
+	private long hitCount;
+	
+	private long missCount;
+	
+	public MoleculeCache(){
+		this(DEFAULT_MAXIMUM_WEIGHT);
+	}
+	
+	public MoleculeCache(long maximumWeight){
+		this.maximumWeight = maximumWeight;
+	}
+	
+	/**
+	 * 
+	 * @param resource
+	 * @param query - the query retrieving the molecule
+	 * @return a copy of the cached molecule or null
+	 */
+	public synchronized Model get(URI resource, String query){
+		Model molecule = molecules.get(new Key(resource, query));
+		if(molecule == null){
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return new CompactModel(molecule);
+	}
+	
+	/**
+	 * The generation has to be obtained before querying the repository for a molecule and passed to {@link #put(URI, String, Model, long)}, 
+	 * so that a molecule loaded concurrently to a write is not cached.
+	 * @return
+	 */
+	public synchronized long getGeneration(){
+		return generation;
+	}
+	
+	/**
+	 * Cache a copy of the molecule, unless it has been invalidated since the given generation.
+	 * @param resource
+	 * @param query
+	 * @param molecule
+	 * @param generation
+	 */
+	public synchronized void put(URI resource, String query, Model molecule, long generation){
+		if(generation != this.generation || molecule.size() > maximumWeight){
+			return;
+		}
+		Key key = new Key(resource, query);
+		remove(key);
+		Model copy = new CompactModel(molecule);
+		molecules.put(key, copy);
+		weight += copy.size();
+		index(resource, key);
+		for(Statement statement : copy){
+			index(statement.getSubject(), key);
+			if(statement.getObject() instanceof Resource){
+				index((Resource) statement.getObject(), key);
+			}
+		}
+		while(weight > maximumWeight){
+			remove(molecules.keySet().iterator().next());
+		}
+	}
+	
+	@Override
+	public synchronized void resourcesChanged(Set<Resource> resources) {
+		generation++;
+		for(Resource resource : resources){
+			Set<Key> keys = resourceToKeys.get(resource);
+			if(keys != null){
+				for(Key key : keys.toArray(new Key[keys.size()])){
+					remove(key);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public void databaseChanged() {
+		clear();
+	}
+	
+	public synchronized void clear(){
+		generation++;
+		molecules.clear();
+		resourceToKeys.clear();
+		weight = 0;
+	}
+	
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * @return the number of requests not found in the cache
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * @return the number of statements currently cached
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+	
+	private void index(Resource resource, Key key){
+		Set<Key> keys = resourceToKeys.get(resource);
+		if(keys == null){
+			keys = new HashSet<Key>(2);
+			resourceToKeys.put(resource, keys);
+		}
+		keys.add(key);
+	}
+	
+	private void remove(Key key){
+		Model molecule = molecules.remove(key);
+		if(molecule == null){
+			return;
+		}
+		weight -= molecule.size();
+		unindex(key.resource, key);
+		for(Statement statement : molecule){
+			unindex(statement.getSubject(), key);
+			Value object = statement.getObject();
+			if(object instanceof Resource){
+				unindex((Resource) object, key);
+			}
+		}
+	}
+	
+	private void unindex(Resource resource, Key key){
+		Set<Key> keys = resourceToKeys.get(resource);
+		if(keys != null && keys.remove(key) && keys.isEmpty()){
+			resourceToKeys.remove(resource);
+		}
+	}
+	
+	private static class Key {
+		
+		private final URI resource;
+		
+		private final String query;
+		
+		private Key(URI resource, String query){
+			this.resource = resource;
+			this.query = query;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * resource.hashCode() + query.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key) obj;
+			return resource.equals(other.resource) && query.equals(other.query);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import java.util.Iterator;
+
+import org.openrdf.model.Value;
+import org.openrdf.query.Binding;
+import org.openrdf.query.BindingSet;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Maps a select query result to a projection. The result is returned as is for {@link BindingSet}, the value of its single 
+ * binding is converted for {@link Value}s and simple types, and other types are instantiated with the values of the 
+ * bindings set to the fields of the same name.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class BindingSetToObjectConverter<T> implements Converter<BindingSet, T> {
+	
+	private final Class<?> type;
+	
+	private final ConversionService conversionService;
+	
+	public BindingSetToObjectConverter(Class<T> type, ConversionService conversionService){
+		this.type = ClassUtils.resolvePrimitiveIfNecessary(type);
+		this.conversionService = conversionService;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T convert(BindingSet source) {
+		if(type.isInstance(source)){
+			return (T) source;
+		}
+		if(Value.class.isAssignableFrom(type) || BeanUtils.isSimpleValueType(type)){
+			Value value = getSingleValue(source);
+			if(value == null){
+				return null;
+			}
+			return (T) EntityMaterializer.convertValue(value, type, conversionService);
+		}
+		Object projection = BeanUtils.instantiateClass(type);
+		PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(projection);
+		for(Binding binding : source){
+			if(accessor.isWritableProperty(binding.getName())){
+				accessor.setPropertyValue(binding.getName(), 
+						EntityMaterializer.convertValue(binding.getValue(), accessor.getPropertyType(binding.getName()), conversionService));
+			}
+		}
+		return (T) projection;
+	}
+	
+	private Value getSingleValue(BindingSet source){
+		if(source.size() > 1){
+			throw new IllegalArgumentException("Cannot map the bindings "+source.getBindingNames()+" to a single value of type "+type.getName()+".");
+		}
+		Iterator<Binding> bindings = source.iterator();
+		return bindings.hasNext() ? bindings.next().getValue() : null;
+	}
+
+}
@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Read plan of a {@link SemanticPersistentEntity} compiled once per entity type. The alias predicates of the simple properties
+ * are resolved to {@link URI}s and each property gets a converter for its target type, so that an entity is populated
+ * with a single pass over its statements. Typed literals are converted directly to the property type; other values
+ * fall back to the {@link ConversionService}.
+ *
+ * @author konstantin.pentchev
+ *
+ */
+public class EntityMaterializer<T> {
+
+	private final SemanticPersistentEntity<T> persistentEntity;
+
+	private final PropertyReader[] readers;
+
+	private final Map<URI, PropertyReader> predicateToReader;
+
+	private final ConversionService conversionService;
+
+	public EntityMaterializer(SemanticPersistentEntity<T> persistentEntity, final ConversionService conversionService){
+		this.persistentEntity = persistentEntity;
+		this.conversionService = conversionService;
+		final List<PropertyReader> propertyReaders = new ArrayList<PropertyReader>();
+		this.predicateToReader = new HashMap<URI, PropertyReader>();
+		persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty property) {
+				//Id property is populated on entity instantiation; nothing to do with it here
+				if(property.isIdProperty() || property.isContext()) {
+					return;
+				}
+				PropertyReader reader = new PropertyReader(propertyReaders.size(), property, conversionService);
+				propertyReaders.add(reader);
+				predicateToReader.put(property.getAliasPredicateURI(), reader);
+			}
+		});
+		this.readers = propertyReaders.toArray(new PropertyReader[propertyReaders.size()]);
+	}
+
+	/**
+	 * Populate the properties of the wrapped entity from the statements having the entity as subject.
+	 * @param wrapper
+	 * @param source
+	 */
+	public void populate(T entity, RDFState source){
+		Model model = source.getCurrentStatements();
+		Object[] values = new Object[readers.length];
+		for(Statement st : model.filter(persistentEntity.getResourceId(entity), null, null)){
+			PropertyReader reader = predicateToReader.get(st.getPredicate());
+			if(reader != null){
+				values[reader.index] = reader.read(values[reader.index], st.getObject());
+			}
+		}
+		for(PropertyReader reader : readers){
+			Object value = values[reader.index];
+			if(value == null && reader.collection){
+				value = new ArrayList<Object>(0);
+			}
+			setProperty(entity, reader.property, value, conversionService);
+		}
+	}
+
+	/**
+	 * Set the value of a property through its accessor, converting it to the property type if necessary.
+	 * @param entity
+	 * @param property
+	 * @param value
+	 * @param conversionService may be null
+	 */
+	static void setProperty(Object entity, SemanticPersistentProperty property, Object value, ConversionService conversionService){
+		try {
+			if(value != null && conversionService != null && !ClassUtils.isAssignableValue(property.getType(), value)){
+				value = conversionService.convert(value, property.getType());
+			}
+			property.setValue(entity, value);
+		} catch (Exception e) {
+			throw new MappingException("Setting property " + property.getName()
+					+ " to " + value + " on " + entity, e);
+		}
+	}
+
+	/**
+	 * Convert an RDF {@link Value} to the given type the same way property values are converted.
+	 * @param value
+	 * @param type
+	 * @param conversionService
+	 * @return
+	 */
+	public static Object convertValue(Value value, Class<?> type, ConversionService conversionService){
+		return ValueConverter.forType(type, conversionService).convert(value);
+	}
+
+	private static class PropertyReader {
+
+		private final int index;
+
+		private final SemanticPersistentProperty property;
+
+		private final boolean collection;
+
+		private final ValueConverter converter;
+
+		private PropertyReader(int index, SemanticPersistentProperty property, ConversionService conversionService){
+			this.index = index;
+			this.property = property;
+			this.collection = property.isCollectionLike();
+			if(collection){
+				Class<?> componentType = property.getComponentType();
+				if(!conversionService.canConvert(String.class, componentType)){
+					throw new IllegalArgumentException("No converter available for target type "+componentType.getName()+".");
+				}
+				this.converter = ValueConverter.forType(componentType, conversionService);
+			}
+			else{
+				this.converter = ValueConverter.forType(property.getType(), conversionService);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object read(Object current, Value value){
+			if(collection){
+				List<Object> values = current == null ? new ArrayList<Object>() : (List<Object>) current;
+				values.add(converter.convert(value));
+				return values;
+			}
+			return current == null ? converter.convert(value) : current;
+		}
+	}
+
+	/**
+	 * Converts an RDF {@link Value} to the type of a property.
+	 */
+	private abstract static class ValueConverter {
+
+		private final Class<?> type;
+
+		private final ConversionService conversionService;
+
+		private ValueConverter(Class<?> type, ConversionService conversionService){
+			this.type = type;
+			this.conversionService = conversionService;
+		}
+
+		private Object convert(Value value){
+			if(String.class.equals(type) || Object.class.equals(type)){
+				return value.stringValue();
+			}
+			if(type.isInstance(value)){
+				return value;
+			}
+			if(value instanceof Literal && ((Literal) value).getDatatype() != null){
+				try{
+					return convertLiteral((Literal) value);
+				} catch(IllegalArgumentException e){
+					//fall back to the conversion of the lexical value
+				}
+			}
+			return conversionService.convert(value.stringValue(), type);
+		}
+
+		protected abstract Object convertLiteral(Literal literal);
+
+		private static ValueConverter forType(Class<?> type, ConversionService conversionService){
+			if(Integer.class.equals(type) || int.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.intValue();
+					}
+				};
+			}
+			if(Long.class.equals(type) || long.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.longValue();
+					}
+				};
+			}
+			if(Short.class.equals(type) || short.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.shortValue();
+					}
+				};
+			}
+			if(Double.class.equals(type) || double.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.doubleValue();
+					}
+				};
+			}
+			if(Float.class.equals(type) || float.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.floatValue();
+					}
+				};
+			}
+			if(Boolean.class.equals(type) || boolean.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.booleanValue();
+					}
+				};
+			}
+			if(BigInteger.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.integerValue();
+					}
+				};
+			}
+			if(BigDecimal.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.decimalValue();
+					}
+				};
+			}
+			if(XMLGregorianCalendar.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.calendarValue();
+					}
+				};
+			}
+			if(Date.class.equals(type)){
+				return new ValueConverter(type, conversionService) {
+					@Override
+					protected Object convertLiteral(Literal literal) {
+						return literal.calendarValue().toGregorianCalendar().getTime();
+					}
+				};
+			}
+			return new ValueConverter(type, conversionService) {
+				@Override
+				protected Object convertLiteral(Literal literal) {
+					throw new IllegalArgumentException();
+				}
+			};
+		}
+	}
+
+}
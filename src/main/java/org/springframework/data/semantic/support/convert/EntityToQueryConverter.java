@@ -15,14 +15,29 @@
  */
 package org.springframework.data.semantic.support.convert;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LiteralImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
 import org.springframework.data.semantic.support.MappingPolicyImpl;
 import org.springframework.data.semantic.support.convert.handlers.AbstractPropertiesToQueryHandler;
 import org.springframework.data.semantic.support.convert.handlers.PropertiesToBindingsHandler;
@@ -42,6 +57,8 @@ public class EntityToQueryConverter {
 	
 	private SemanticMappingContext mappingContext;
 	
+	private final ConcurrentMap<QueryTemplateKey, String> queryTemplates = new ConcurrentHashMap<QueryTemplateKey, String>();
+	
 	public EntityToQueryConverter(SemanticMappingContext mappingContext){
 		this.mappingContext = mappingContext;
 	}
@@ -55,13 +72,17 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	public String getGraphQueryForResourceProperty(URI uri, SemanticPersistentEntity<?> entity, SemanticPersistentProperty property){
+		return getGraphQueryForResourceProperty("<"+uri+">", property);
+	}
+	
+	private String getGraphQueryForResourceProperty(String subjectBinding, SemanticPersistentProperty property){
 		StringBuilder sb = new StringBuilder();
 		
 		sb.append("CONSTRUCT { ");
-		sb.append(getPropertyBinding(uri, property));
+		sb.append(getPropertyBinding(subjectBinding, property));
 		sb.append(" }\n");
 		sb.append("WHERE { ");
-		sb.append(getPropertyPattern(uri, entity, property));
+		sb.append(getPropertyPattern(subjectBinding, property));
 		sb.append(" }");
 		
 		return sb.toString();
@@ -109,6 +130,33 @@ public class EntityToQueryConverter {
 		return sb.toString();
 	}
 	
+	/**
+	 * Create a graph query retrieving the molecules of several entities of the same type at once.
+	 * The entities are selected through a VALUES block on the subject variable.
+	 * @param uris - the uris of the entities
+	 * @param entity - the container which holds the information about that entity type
+	 * @param globalMappingPolicy
+	 * @return
+	 */
+	public String getGraphQueryForResources(Collection<URI> uris, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy){
+		StringBuilder sb = new StringBuilder();
+		Map<String, Object> propertyToValue = new HashMap<String, Object>();
+		String subjectBinding = getSubjectBinding(null, entity);
+		
+		sb.append("CONSTRUCT { ");
+		sb.append(getPropertyBindings(null, entity, propertyToValue, globalMappingPolicy, false));
+		sb.append(" }\n");
+		sb.append("WHERE { ");
+		sb.append("VALUES "+subjectBinding+" { ");
+		for(URI uri : uris){
+			sb.append("<"+uri+"> ");
+		}
+		sb.append("} ");
+		sb.append(getPropertyPatterns(null, entity, propertyToValue, false, globalMappingPolicy, true));
+		sb.append(" }");
+		return sb.toString();
+	}
+	
 	/**
 	 * Create a select count query for a given entity type.
 	 * @param entity
@@ -141,7 +189,100 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	public String getQueryForIds(SemanticPersistentEntity<?> entity, int offset, int size){
-		return "SELECT ?id WHERE { ?id a <"+entity.getRDFType()+"> } OFFSET "+offset+" LIMIT "+size+"";
+		return "SELECT ?id WHERE { ?id a <"+entity.getRDFType()+"> } ORDER BY STR(?id) OFFSET "+offset+" LIMIT "+size+"";
+	}
+	
+	/**
+	 * Create a parameterized select query for the ids (URIs) of entities of a given type following the given id, in the order
+	 * of their string value. Unlike an offset, the filter on the last id does not require skipping the preceding entities.
+	 * @param entity
+	 * @param lastId - the id preceding the range or null for the first one
+	 * @param size
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedQueryForIdsAfter(SemanticPersistentEntity<?> entity, URI lastId, int size){
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT ?id WHERE { ?id a <");
+		sb.append(entity.getRDFType());
+		sb.append("> . ");
+		if(lastId != null){
+			sb.append("FILTER(STR(?id) > ?lastId) ");
+		}
+		sb.append("} ORDER BY STR(?id) LIMIT ");
+		sb.append(size);
+		ParameterizedQuery query = new ParameterizedQuery(sb.toString());
+		if(lastId != null){
+			query.bind("lastId", new LiteralImpl(lastId.stringValue()));
+		}
+		return query;
+	}
+	
+	/**
+	 * Create a select query for the ids (URIs) of entities of a given type matching the given property values, ordered by the
+	 * given {@link Sort} and then by the string value of the ids, so that the store sorts and slices the results.
+	 * @param entity
+	 * @param propertyToValue
+	 * @param sort - may be null
+	 * @param offset - may be null
+	 * @param limit - may be null
+	 * @return
+	 */
+	public String getQueryForSortedIds(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, Sort sort, Integer offset, Integer limit){
+		StringBuilder sb = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		sb.append("SELECT DISTINCT ("+subjectBinding+" AS ?id) WHERE { ");
+		sb.append(getPropertyPatterns(null, entity, propertyToValue, true, MappingPolicyImpl.ALL_POLICY, false));
+		String orderBy = appendSortPatterns(sb, entity, subjectBinding, sort);
+		sb.append("}");
+		sb.append(orderBy);
+		appendSlice(sb, offset, limit);
+		return sb.toString();
+	}
+	
+	/**
+	 * Append optional patterns binding the values of the properties in the given {@link Sort} and create the matching
+	 * ORDER BY clause; ties are ordered by the string value of the subject.
+	 * @param sb - the where clause
+	 * @param entity
+	 * @param subjectBinding
+	 * @param sort - may be null
+	 * @return the ORDER BY clause
+	 */
+	static String appendSortPatterns(StringBuilder sb, SemanticPersistentEntity<?> entity, String subjectBinding, Sort sort){
+		StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+		if(sort != null){
+			int index = 0;
+			for(Order order : sort){
+				SemanticPersistentProperty property = entity.getPersistentProperty(order.getProperty());
+				if(property == null){
+					throw new IllegalArgumentException("No property "+order.getProperty()+" found for type "+entity.getType().getName()+".");
+				}
+				String sortBinding = subjectBinding;
+				if(!property.isIdProperty()){
+					if(property.isAssociation() || property.isContext() || property.isTransient()){
+						throw new IllegalArgumentException("Cannot sort by property "+order.getProperty()+" of type "+entity.getType().getName()+".");
+					}
+					sortBinding = "?sort"+index++;
+					sb.append("OPTIONAL { ");
+					AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<"+property.getPredicate()+">", sortBinding);
+					sb.append("} ");
+				}
+				orderBy.append(order.isAscending() ? "ASC(" : "DESC(");
+				orderBy.append(sortBinding);
+				orderBy.append(") ");
+			}
+		}
+		orderBy.append("STR("+subjectBinding+")");
+		return orderBy.toString();
+	}
+	
+	static void appendSlice(StringBuilder sb, Integer offset, Integer limit){
+		if(offset != null){
+			sb.append(" OFFSET "+offset);
+		}
+		if(limit != null){
+			sb.append(" LIMIT "+limit);
+		}
 	}
 	
 	public String getGraphQueryForEntityClass(SemanticPersistentEntity<?> entity){
@@ -161,6 +302,153 @@ public class EntityToQueryConverter {
 		return sb.toString();
 	}
 	
+	/**
+	 * Create a parameterized graph query retrieving the molecule of an entity. The query text is shared by all entities of the type, 
+	 * the uri is bound to the subject variable.
+	 * @param uri - the uri of the entity
+	 * @param entity - the container which holds the information about that entity
+	 * @param globalMappingPolicy
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedGraphQueryForResource(URI uri, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy){
+		return getParameterizedQuery(QueryKind.RESOURCE, uri, entity, globalMappingPolicy, null, null);
+	}
+	
+	/**
+	 * Create a parameterized graph query retrieving the molecule of an entity with the original predicates.
+	 * @param uri - the uri of the entity
+	 * @param entity - the container which holds the information about that entity
+	 * @param globalMappingPolicy
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedGraphQueryForResourceWithOriginalPredicates(URI uri, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy){
+		return getParameterizedQuery(QueryKind.RESOURCE_ORIGINAL_PREDICATES, uri, entity, globalMappingPolicy, null, null);
+	}
+	
+	/**
+	 * Create a parameterized graph query retrieving a specific property of the entity identified by this uri.
+	 * @param uri
+	 * @param entity
+	 * @param property
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedGraphQueryForResourceProperty(URI uri, SemanticPersistentEntity<?> entity, SemanticPersistentProperty property){
+		return getParameterizedQuery(QueryKind.RESOURCE_PROPERTY, uri, entity, null, property, null);
+	}
+	
+	/**
+	 * Create a parameterized ask query checking if an entity exists.
+	 * @param uri
+	 * @param entity
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedQueryForResourceExistence(URI uri, SemanticPersistentEntity<?> entity){
+		return getParameterizedQuery(QueryKind.RESOURCE_EXISTENCE, uri, entity, null, null, null);
+	}
+	
+	/**
+	 * Create a parameterized graph query retrieving the entities of the given type with the given property values.
+	 * @param entity
+	 * @param propertyToValue
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedGraphQueryForEntityClass(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue){
+		return getParameterizedQuery(QueryKind.ENTITY_CLASS, null, entity, MappingPolicyImpl.ALL_POLICY, null, propertyToValue);
+	}
+	
+	/**
+	 * Create a parameterized select count query for the entities of the given type with the given property values.
+	 * @param entity
+	 * @param propertyToValue
+	 * @return
+	 */
+	public ParameterizedQuery getParameterizedQueryForResourceCount(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue){
+		return getParameterizedQuery(QueryKind.COUNT, null, entity, MappingPolicyImpl.ALL_POLICY, null, propertyToValue);
+	}
+	
+	/**
+	 * Create the query templates used for loading, saving, checking and counting entities of the given type ahead of their first use.
+	 * @param entity
+	 */
+	public void createQueryTemplates(SemanticPersistentEntity<?> entity){
+		getParameterizedQuery(QueryKind.RESOURCE, null, entity, MappingPolicyImpl.ALL_POLICY, null, null);
+		getParameterizedQuery(QueryKind.RESOURCE_ORIGINAL_PREDICATES, null, entity, MappingPolicyImpl.DEFAULT_POLICY, null, null);
+		getParameterizedQuery(QueryKind.RESOURCE_EXISTENCE, null, entity, null, null, null);
+		getParameterizedQuery(QueryKind.ENTITY_CLASS, null, entity, MappingPolicyImpl.ALL_POLICY, null, null);
+		getParameterizedQuery(QueryKind.COUNT, null, entity, MappingPolicyImpl.ALL_POLICY, null, null);
+	}
+	
+	private ParameterizedQuery getParameterizedQuery(QueryKind kind, URI uri, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy, 
+			SemanticPersistentProperty property, Map<String, Object> propertyToValue){
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		Map<String, Value> values = new HashMap<String, Value>();
+		StringBuilder filters = new StringBuilder();
+		if(propertyToValue != null){
+			for(Map.Entry<String, Object> entry : new TreeMap<String, Object>(propertyToValue).entrySet()){
+				Object value = entry.getValue();
+				if(value == null){
+					continue;
+				}
+				if(value.getClass().isArray()){
+					value = Arrays.asList((Object[]) value);
+				}
+				if(value instanceof Collection<?>){
+					List<QueryParameter> collectionParameters = new ArrayList<QueryParameter>(((Collection<?>) value).size());
+					for(Object o : (Collection<?>) value){
+						QueryParameter parameter = new QueryParameter("param_"+entry.getKey()+"_"+collectionParameters.size());
+						values.put(parameter.getName(), ObjectToLiteralConverter.getInstance().convert(o));
+						collectionParameters.add(parameter);
+					}
+					parameters.put(entry.getKey(), collectionParameters);
+					filters.append(entry.getKey()).append("[").append(collectionParameters.size()).append("] ");
+				}
+				else{
+					QueryParameter parameter = new QueryParameter("param_"+entry.getKey());
+					values.put(parameter.getName(), ObjectToLiteralConverter.getInstance().convert(value));
+					parameters.put(entry.getKey(), parameter);
+					filters.append(entry.getKey()).append(" ");
+				}
+			}
+		}
+		QueryTemplateKey key = new QueryTemplateKey(kind, entity.getType(), globalMappingPolicy, property != null ? property.getName() : null, filters.toString());
+		String template = queryTemplates.get(key);
+		if(template == null){
+			template = createQueryTemplate(kind, entity, globalMappingPolicy, property, parameters);
+			String existing = queryTemplates.putIfAbsent(key, template);
+			if(existing != null){
+				template = existing;
+			}
+		}
+		ParameterizedQuery query = new ParameterizedQuery(template);
+		if(uri != null){
+			query.bind(getSubjectBinding(null, entity).substring(1), uri);
+		}
+		for(Map.Entry<String, Value> value : values.entrySet()){
+			query.bind(value.getKey(), value.getValue());
+		}
+		return query;
+	}
+	
+	private String createQueryTemplate(QueryKind kind, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy, 
+			SemanticPersistentProperty property, Map<String, Object> parameters){
+		switch (kind) {
+		case RESOURCE:
+			return getGraphQueryForResource(null, entity, parameters, globalMappingPolicy, false);
+		case RESOURCE_ORIGINAL_PREDICATES:
+			return getGraphQueryForResource(null, entity, parameters, globalMappingPolicy, true);
+		case RESOURCE_PROPERTY:
+			return getGraphQueryForResourceProperty(getSubjectBinding(null, entity), property);
+		case RESOURCE_EXISTENCE:
+			return "ASK {"+getSubjectBinding(null, entity)+" a <"+entity.getRDFType()+"> }";
+		case ENTITY_CLASS:
+			return getGraphQueryForEntityClass(entity, parameters);
+		case COUNT:
+			return getGraphQueryForResourceCount(entity, parameters);
+		default:
+			throw new IllegalArgumentException("Unknown query kind "+kind);
+		}
+	}
+	
 	private String getSubjectBinding(URI uri, SemanticPersistentEntity<?> entity){
 		return uri != null ? "<"+uri+">" : "?"+entity.getRDFType().getLocalName();
 	}
@@ -188,8 +476,12 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	protected static String getPropertyBinding(URI uri, SemanticPersistentProperty property){
+		return getPropertyBinding("<"+uri+">", property);
+	}
+	
+	private static String getPropertyBinding(String subjectBinding, SemanticPersistentProperty property){
 		StringBuilder sb = new StringBuilder();
-		AbstractPropertiesToQueryHandler.appendPattern(sb, "<"+uri+">", "<" + property.getAliasPredicate() + ">", "?"+property.getName());
+		AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<" + property.getAliasPredicate() + ">", "?"+property.getName());
 		return sb.toString();
 	}
 	
@@ -201,8 +493,12 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	protected String getPropertyPattern(URI uri, SemanticPersistentEntity<?> entity, SemanticPersistentProperty property){
+		return getPropertyPattern("<"+uri+">", property);
+	}
+	
+	private String getPropertyPattern(String subjectBinding, SemanticPersistentProperty property){
 		StringBuilder sb = new StringBuilder();
-		new PropertiesToPatternsHandler(sb, "<"+uri+">", new HashMap<String, Object>(), this.mappingContext, false, false, MappingPolicyImpl.ALL_POLICY).doWithPersistentProperty(property);
+		new PropertiesToPatternsHandler(sb, subjectBinding, new HashMap<String, Object>(), this.mappingContext, false, false, MappingPolicyImpl.ALL_POLICY).doWithPersistentProperty(property);
 		return sb.toString();
 	}
 	
@@ -248,8 +544,53 @@ public class EntityToQueryConverter {
 		return StringUtils.collectionToDelimitedString(var, "");
 	}
 	
+	private enum QueryKind {
+		RESOURCE, RESOURCE_ORIGINAL_PREDICATES, RESOURCE_PROPERTY, RESOURCE_EXISTENCE, ENTITY_CLASS, COUNT
+	}
 	
-	
-	
+	/**
+	 * Identifies a query template by entity type, mapping policy, query kind and the filtered properties.
+	 */
+	private static class QueryTemplateKey {
+		
+		private final QueryKind kind;
+		private final Class<?> type;
+		private final Set<Cascade> cascades;
+		private final String property;
+		private final String filters;
+		
+		public QueryTemplateKey(QueryKind kind, Class<?> type, MappingPolicy mappingPolicy, String property, String filters){
+			this.kind = kind;
+			this.type = type;
+			this.cascades = mappingPolicy != null ? new HashSet<Cascade>(mappingPolicy.getCascades()) : null;
+			this.property = property;
+			this.filters = filters;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = kind.hashCode();
+			hash = 31 * hash + type.hashCode();
+			hash = 31 * hash + (cascades != null ? cascades.hashCode() : 0);
+			hash = 31 * hash + (property != null ? property.hashCode() : 0);
+			hash = 31 * hash + filters.hashCode();
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(!(obj instanceof QueryTemplateKey)){
+				return false;
+			}
+			QueryTemplateKey other = (QueryTemplateKey) obj;
+			return kind == other.kind && type.equals(other.type) && filters.equals(other.filters)
+					&& (cascades == null ? other.cascades == null : cascades.equals(other.cascades))
+					&& (property == null ? other.property == null : property.equals(other.property));
+		}
+		
+	}
 
 }
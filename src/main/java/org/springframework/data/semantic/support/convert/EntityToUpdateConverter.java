@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.rio.ntriples.NTriplesUtil;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
+import org.springframework.data.semantic.support.Direction;
+import org.springframework.data.semantic.support.MappingPolicyImpl;
+import org.springframework.data.semantic.support.convert.handlers.PropertiesToPatternsHandler;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+
+/**
+ * Class that converts domain objects to a single SPARQL update replacing their stored state:
+ * <pre>
+ * DELETE { ?s0 &lt;p&gt; ?s0_p . ... } INSERT { &lt;entity&gt; &lt;p&gt; "value" . ... } 
+ * WHERE { VALUES (?s0 ...) { (&lt;entity&gt; ...) } OPTIONAL { { ?s0 &lt;p&gt; ?s0_p . } UNION ... } }
+ * </pre>
+ * The delete template covers all mapped predicates of the entity and of the associated entities saved in cascade
+ * (including the inverse statements of bidirectional associations), the insert template is the current state of the entities. 
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class EntityToUpdateConverter {
+	
+	private final SemanticMappingContext mappingContext;
+	
+	private final EntityToStatementsConverter toStatementsConverter;
+	
+	public EntityToUpdateConverter(SemanticMappingContext mappingContext, EntityToStatementsConverter toStatementsConverter){
+		this.mappingContext = mappingContext;
+		this.toStatementsConverter = toStatementsConverter;
+	}
+	
+	/**
+	 * Create an update replacing the stored state of the given entity.
+	 * @param persistentEntity
+	 * @param entity
+	 * @return
+	 */
+	public String getUpdateForEntity(SemanticPersistentEntity<?> persistentEntity, Object entity){
+		RDFState currentState = toStatementsConverter.convertEntityToStatements(persistentEntity, entity);
+		Map<URI, String> subjects = new LinkedHashMap<URI, String>();
+		List<String> patterns = new ArrayList<String>();
+		collectDeletePatterns(persistentEntity, entity, subjects, patterns);
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("DELETE { ");
+		for(String pattern : patterns){
+			sb.append(pattern);
+		}
+		sb.append("}\n");
+		sb.append("INSERT { ");
+		appendStatements(sb, currentState.getCurrentStatements());
+		sb.append("}\n");
+		sb.append("WHERE { VALUES (");
+		for(String binding : subjects.values()){
+			sb.append(binding);
+			sb.append(" ");
+		}
+		sb.append(") { (");
+		for(URI subject : subjects.keySet()){
+			sb.append("<");
+			sb.append(subject);
+			sb.append("> ");
+		}
+		sb.append(") } ");
+		if(!patterns.isEmpty()){
+			sb.append("OPTIONAL { ");
+			for(int i = 0; i < patterns.size(); i++){
+				if(i > 0){
+					sb.append("UNION ");
+				}
+				sb.append("{ ");
+				sb.append(patterns.get(i));
+				sb.append("} ");
+			}
+			sb.append("} ");
+		}
+		sb.append("}");
+		return sb.toString();
+	}
+	
+	/**
+	 * Collect the resources whose statements are changed by the update of the given entity: the entity, the associated
+	 * entities saved in cascade and the resources referenced by their current state.
+	 * @param persistentEntity
+	 * @param entity
+	 * @return the changed resources, or null if they cannot be determined without the stored state, i.e. when the update
+	 * removes statements of formerly associated entities through an incoming or bidirectional association
+	 */
+	public Set<Resource> getChangedResources(SemanticPersistentEntity<?> persistentEntity, Object entity){
+		Set<Resource> resources = new HashSet<Resource>();
+		if(!collectChangedResources(persistentEntity, entity, resources)){
+			return null;
+		}
+		for(Statement statement : toStatementsConverter.convertEntityToStatements(persistentEntity, entity).getCurrentStatements()){
+			resources.add(statement.getSubject());
+			if(statement.getObject() instanceof Resource){
+				resources.add((Resource) statement.getObject());
+			}
+		}
+		return resources;
+	}
+	
+	private boolean collectChangedResources(final SemanticPersistentEntity<?> persistentEntity, final Object entity, final Set<Resource> resources){
+		if(!resources.add(persistentEntity.getResourceId(entity))){
+			return true;
+		}
+		final boolean[] determined = {true};
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				SemanticPersistentProperty persistentProperty = association.getInverse();
+				if(!Direction.OUTGOING.equals(persistentProperty.getDirection())){
+					determined[0] = false;
+				}
+				else if(persistentProperty.getMappingPolicy().shouldCascade(Cascade.SAVE)){
+					Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+					for(Object associatedEntityInstance : asCollection(persistentProperty, value)){
+						determined[0] &= collectChangedResources(mappingContext.getPersistentEntity(associatedEntityInstance.getClass()), associatedEntityInstance, resources);
+					}
+				}
+			}
+		});
+		return determined[0];
+	}
+	
+	/**
+	 * Add a pattern for each mapped predicate of the entity, using a dedicated subject variable per entity. 
+	 * Associated entities which are saved in cascade are processed recursively.
+	 */
+	private void collectDeletePatterns(final SemanticPersistentEntity<?> persistentEntity, final Object entity, final Map<URI, String> subjects, final List<String> patterns){
+		URI resourceId = persistentEntity.getResourceId(entity);
+		if(subjects.containsKey(resourceId)){
+			return;
+		}
+		final String binding = "?s"+subjects.size();
+		subjects.put(resourceId, binding);
+		final StringBuilder sb = new StringBuilder();
+		final PropertiesToPatternsHandler patternsHandler = new PropertiesToPatternsHandler(sb, binding, new HashMap<String, Object>(), mappingContext, false, true, MappingPolicyImpl.DEFAULT_POLICY);
+		persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+				addPattern(patternsHandler, persistentProperty, sb, patterns);
+			}
+		});
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				SemanticPersistentProperty persistentProperty = association.getInverse();
+				addPattern(patternsHandler, persistentProperty, sb, patterns);
+				if(Direction.BOTH.equals(persistentProperty.getDirection())){
+					SemanticPersistentProperty inverseProperty = persistentProperty.getInverseProperty();
+					URI predicate = inverseProperty != null ? inverseProperty.getPredicate() : persistentProperty.getPredicate();
+					patterns.add(binding+"_"+persistentProperty.getName()+"_in <"+predicate+"> "+binding+" . ");
+				}
+				if(persistentProperty.getMappingPolicy().shouldCascade(Cascade.SAVE)){
+					Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+					for(Object associatedEntityInstance : asCollection(persistentProperty, value)){
+						collectDeletePatterns(mappingContext.getPersistentEntity(associatedEntityInstance.getClass()), associatedEntityInstance, subjects, patterns);
+					}
+				}
+			}
+		});
+	}
+	
+	private void addPattern(PropertiesToPatternsHandler patternsHandler, SemanticPersistentProperty persistentProperty, StringBuilder sb, List<String> patterns){
+		sb.setLength(0);
+		patternsHandler.handlePersistentProperty(persistentProperty);
+		if(sb.length() > 0){
+			patterns.add(sb.toString());
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Collection<Object> asCollection(SemanticPersistentProperty persistentProperty, Object value){
+		if(value == null){
+			return new ArrayList<Object>(0);
+		}
+		if(persistentProperty.isArray()){
+			return Arrays.asList((Object[]) value);
+		}
+		if(persistentProperty.isCollectionLike()){
+			return (Collection<Object>) value;
+		}
+		return Arrays.asList(value);
+	}
+	
+	private void appendStatements(StringBuilder sb, Collection<Statement> statements){
+		Map<Resource, List<Statement>> statementsPerContext = new LinkedHashMap<Resource, List<Statement>>();
+		for(Statement statement : statements){
+			List<Statement> contextStatements = statementsPerContext.get(statement.getContext());
+			if(contextStatements == null){
+				contextStatements = new ArrayList<Statement>();
+				statementsPerContext.put(statement.getContext(), contextStatements);
+			}
+			contextStatements.add(statement);
+		}
+		for(Map.Entry<Resource, List<Statement>> entry : statementsPerContext.entrySet()){
+			if(entry.getKey() != null){
+				sb.append("GRAPH ");
+				sb.append(NTriplesUtil.toNTriplesString(entry.getKey()));
+				sb.append(" { ");
+			}
+			for(Statement statement : entry.getValue()){
+				sb.append(NTriplesUtil.toNTriplesString(statement.getSubject()));
+				sb.append(" ");
+				sb.append(NTriplesUtil.toNTriplesString(statement.getPredicate()));
+				sb.append(" ");
+				sb.append(NTriplesUtil.toNTriplesString(statement.getObject()));
+				sb.append(" . ");
+			}
+			if(entry.getKey() != null){
+				sb.append("} ");
+			}
+		}
+	}
+
+}
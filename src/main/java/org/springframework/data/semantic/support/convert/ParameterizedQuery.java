@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import org.openrdf.model.Value;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.impl.MapBindingSet;
+
+/**
+ * A SPARQL query template together with the values for its variables.
+ * The template text is shared between calls, only the bindings differ.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class ParameterizedQuery {
+	
+	private final String query;
+	
+	private final MapBindingSet bindings;
+	
+	public ParameterizedQuery(String query){
+		this.query = query;
+		this.bindings = new MapBindingSet();
+	}
+	
+	public String getQuery() {
+		return query;
+	}
+	
+	public BindingSet getBindings() {
+		return bindings;
+	}
+	
+	void bind(String name, Value value){
+		bindings.addBinding(name, value);
+	}
+	
+	@Override
+	public String toString() {
+		return query + " " + bindings;
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LiteralImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.Part.IgnoreCaseType;
+import org.springframework.data.repository.query.parser.Part.Type;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.query.parser.PartTree.OrPart;
+import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Direction;
+import org.springframework.data.semantic.support.convert.handlers.AbstractPropertiesToQueryHandler;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.semantic.support.util.ValueUtils;
+
+/**
+ * Compiles the {@link PartTree} of a derived query method to a SPARQL select query for the ids or the count of the matching 
+ * entities. Equality becomes a triple pattern, while comparisons, ranges, string matching, IN and null checks become FILTERs, 
+ * so that the store selects the entities. The method arguments are bound to the query.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class PartTreeToQueryConverter {
+	
+	private static final String SUBJECT_BINDING = "?id";
+	
+	private final SemanticMappingContext mappingContext;
+	
+	public PartTreeToQueryConverter(SemanticMappingContext mappingContext){
+		this.mappingContext = mappingContext;
+	}
+	
+	/**
+	 * Create a select query for the ids of the entities matching the given tree, bound as ?id.
+	 * @param entity
+	 * @param tree
+	 * @param values - the arguments of the method in the order of the parts
+	 * @param sort - may be null
+	 * @param offset - may be null
+	 * @param limit - may be null
+	 * @return
+	 */
+	public ParameterizedQuery getQueryForIds(SemanticPersistentEntity<?> entity, PartTree tree, List<?> values, Sort sort, Integer offset, Integer limit){
+		Map<String, Value> bindings = new LinkedHashMap<String, Value>();
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT DISTINCT "+SUBJECT_BINDING+" WHERE { ");
+		appendWhere(sb, entity, tree, values, bindings);
+		String orderBy = EntityToQueryConverter.appendSortPatterns(sb, entity, SUBJECT_BINDING, sort);
+		sb.append("}");
+		sb.append(orderBy);
+		EntityToQueryConverter.appendSlice(sb, offset, limit);
+		return createQuery(sb.toString(), bindings);
+	}
+	
+	/**
+	 * Create a select query counting the entities matching the given tree, bound as ?count.
+	 * @param entity
+	 * @param tree
+	 * @param values - the arguments of the method in the order of the parts
+	 * @return
+	 */
+	public ParameterizedQuery getQueryForCount(SemanticPersistentEntity<?> entity, PartTree tree, List<?> values){
+		Map<String, Value> bindings = new LinkedHashMap<String, Value>();
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT (COUNT (DISTINCT "+SUBJECT_BINDING+") as ?count) WHERE { ");
+		appendWhere(sb, entity, tree, values, bindings);
+		sb.append("}");
+		return createQuery(sb.toString(), bindings);
+	}
+	
+	private ParameterizedQuery createQuery(String query, Map<String, Value> bindings){
+		ParameterizedQuery parameterizedQuery = new ParameterizedQuery(query);
+		for(Map.Entry<String, Value> binding : bindings.entrySet()){
+			parameterizedQuery.bind(binding.getKey(), binding.getValue());
+		}
+		return parameterizedQuery;
+	}
+	
+	private void appendWhere(StringBuilder sb, SemanticPersistentEntity<?> entity, PartTree tree, List<?> values, Map<String, Value> bindings){
+		AbstractPropertiesToQueryHandler.appendPattern(sb, SUBJECT_BINDING, "<"+ValueUtils.RDF_TYPE_PREDICATE+">", "<"+entity.getRDFType()+">");
+		List<OrPart> orParts = new ArrayList<OrPart>();
+		for(OrPart orPart : tree){
+			orParts.add(orPart);
+		}
+		Iterator<?> valueIterator = values.iterator();
+		int index = 0;
+		for(OrPart orPart : orParts){
+			if(orParts.size() > 1){
+				sb.append(index > 0 ? "UNION { " : "{ ");
+			}
+			for(Part part : orPart){
+				appendPart(sb, entity, part, valueIterator, "v"+index++, bindings);
+			}
+			if(orParts.size() > 1){
+				sb.append("} ");
+			}
+		}
+	}
+	
+	private void appendPart(StringBuilder sb, SemanticPersistentEntity<?> entity, Part part, Iterator<?> values, String name, Map<String, Value> bindings){
+		Object[] arguments = new Object[part.getNumberOfArguments()];
+		for(int i = 0; i < arguments.length; i++){
+			arguments[i] = values.next();
+		}
+		Type type = part.getType();
+		if(arguments.length == 1 && arguments[0] == null){
+			if(Type.SIMPLE_PROPERTY.equals(type)){
+				type = Type.IS_NULL;
+			}
+			else if(Type.NEGATING_SIMPLE_PROPERTY.equals(type)){
+				type = Type.IS_NOT_NULL;
+			}
+		}
+		boolean ignoreCase = !IgnoreCaseType.NEVER.equals(part.shouldIgnoreCase());
+		String valueBinding = "?"+name;
+		StringBuilder path = new StringBuilder();
+		switch (type) {
+		case SIMPLE_PROPERTY:
+			if(!ignoreCase){
+				appendEquals(sb, entity, part.getProperty(), name, arguments[0], bindings);
+				return;
+			}
+			valueBinding = appendPathPatterns(sb, entity, part.getProperty(), name, valueBinding);
+			appendFilter(sb, lowerCase(valueBinding, true)+" = "+lowerCase(bind(name+"_0", arguments[0], bindings), true));
+			return;
+		case NEGATING_SIMPLE_PROPERTY:
+			sb.append("FILTER NOT EXISTS { ");
+			appendEquals(sb, entity, part.getProperty(), name, arguments[0], bindings);
+			sb.append("} ");
+			return;
+		case IS_NULL:
+			appendPathPatterns(path, entity, part.getProperty(), name, valueBinding);
+			sb.append("FILTER NOT EXISTS { ").append(path).append("} ");
+			return;
+		case IS_NOT_NULL:
+		case EXISTS:
+			appendPathPatterns(sb, entity, part.getProperty(), name, valueBinding);
+			return;
+		case TRUE:
+		case FALSE:
+			appendPathPatterns(sb, entity, part.getProperty(), name, Type.TRUE.equals(type) ? "true" : "false");
+			return;
+		case CONTAINING:
+			if(part.getProperty().getLeafProperty().isCollection()){
+				appendEquals(sb, entity, part.getProperty(), name, arguments[0], bindings);
+				return;
+			}
+			break;
+		default:
+			break;
+		}
+		valueBinding = appendPathPatterns(sb, entity, part.getProperty(), name, valueBinding);
+		switch (type) {
+		case LESS_THAN:
+		case BEFORE:
+			appendFilter(sb, valueBinding+" < "+bind(name+"_0", arguments[0], bindings));
+			break;
+		case LESS_THAN_EQUAL:
+			appendFilter(sb, valueBinding+" <= "+bind(name+"_0", arguments[0], bindings));
+			break;
+		case GREATER_THAN:
+		case AFTER:
+			appendFilter(sb, valueBinding+" > "+bind(name+"_0", arguments[0], bindings));
+			break;
+		case GREATER_THAN_EQUAL:
+			appendFilter(sb, valueBinding+" >= "+bind(name+"_0", arguments[0], bindings));
+			break;
+		case BETWEEN:
+			appendFilter(sb, valueBinding+" >= "+bind(name+"_0", arguments[0], bindings)+" && "+valueBinding+" <= "+bind(name+"_1", arguments[1], bindings));
+			break;
+		case STARTING_WITH:
+			appendFilter(sb, "STRSTARTS("+lowerCase(valueBinding, ignoreCase)+", "+lowerCase(bind(name+"_0", arguments[0], bindings), ignoreCase)+")");
+			break;
+		case ENDING_WITH:
+			appendFilter(sb, "STRENDS("+lowerCase(valueBinding, ignoreCase)+", "+lowerCase(bind(name+"_0", arguments[0], bindings), ignoreCase)+")");
+			break;
+		case CONTAINING:
+			appendFilter(sb, "CONTAINS("+lowerCase(valueBinding, ignoreCase)+", "+lowerCase(bind(name+"_0", arguments[0], bindings), ignoreCase)+")");
+			break;
+		case LIKE:
+			appendFilter(sb, regex(valueBinding, bind(name+"_0", new LiteralImpl(likeToRegex(String.valueOf(arguments[0]))), bindings), ignoreCase));
+			break;
+		case NOT_LIKE:
+			appendFilter(sb, "!"+regex(valueBinding, bind(name+"_0", new LiteralImpl(likeToRegex(String.valueOf(arguments[0]))), bindings), ignoreCase));
+			break;
+		case REGEX:
+			appendFilter(sb, regex(valueBinding, bind(name+"_0", new LiteralImpl(String.valueOf(arguments[0])), bindings), ignoreCase));
+			break;
+		case IN:
+			appendFilter(sb, valueBinding+" IN ("+bindAll(name, asCollection(arguments[0]), bindings)+")");
+			break;
+		case NOT_IN:
+			Collection<?> excluded = asCollection(arguments[0]);
+			if(!excluded.isEmpty()){
+				appendFilter(sb, valueBinding+" NOT IN ("+bindAll(name, excluded, bindings)+")");
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported keyword "+type+" in derived query part "+part+".");
+		}
+	}
+	
+	/**
+	 * Bind each of the given values and join the bindings into a comma separated list.
+	 */
+	private String bindAll(String name, Collection<?> values, Map<String, Value> bindings){
+		StringBuilder list = new StringBuilder();
+		int i = 0;
+		for(Object value : values){
+			if(i > 0){
+				list.append(", ");
+			}
+			list.append(bind(name+"_"+i++, value, bindings));
+		}
+		return list.toString();
+	}
+	
+	/**
+	 * Match the given value (or each of the given values) with triple patterns.
+	 */
+	private void appendEquals(StringBuilder sb, SemanticPersistentEntity<?> entity, PropertyPath propertyPath, String name, Object argument, Map<String, Value> bindings){
+		Collection<?> arguments = argument instanceof Collection<?> || argument.getClass().isArray() ? asCollection(argument) : Arrays.asList(argument);
+		int i = 0;
+		for(Object value : arguments){
+			String parameterBinding = bind(name+"_"+i, value, bindings);
+			String valueBinding = appendPathPatterns(sb, entity, propertyPath, name+"_"+i, parameterBinding);
+			if(!valueBinding.equals(parameterBinding)){
+				appendFilter(sb, valueBinding+" = "+parameterBinding);
+			}
+			i++;
+		}
+	}
+	
+	/**
+	 * Append the patterns leading from the entity to the value of the given property path.
+	 * @param sb
+	 * @param entity
+	 * @param propertyPath
+	 * @param name - prefix for the bindings of the intermediate resources
+	 * @param objectBinding - the binding of the value
+	 * @return the binding of the value; the binding of the resource if the path ends with an id property
+	 */
+	private String appendPathPatterns(StringBuilder sb, SemanticPersistentEntity<?> entity, PropertyPath propertyPath, String name, String objectBinding){
+		String subjectBinding = SUBJECT_BINDING;
+		SemanticPersistentEntity<?> currentEntity = entity;
+		int depth = 0;
+		for(PropertyPath segment = propertyPath; ; segment = segment.next()){
+			SemanticPersistentProperty property = currentEntity.getPersistentProperty(segment.getSegment());
+			if(property == null){
+				throw new IllegalArgumentException("No property "+segment.getSegment()+" found for type "+currentEntity.getType().getName()+".");
+			}
+			if(property.isIdProperty()){
+				return subjectBinding;
+			}
+			if(property.isContext() || property.isTransient()){
+				throw new IllegalArgumentException("Cannot query by property "+segment.getSegment()+" of type "+currentEntity.getType().getName()+".");
+			}
+			if(!segment.hasNext()){
+				appendPropertyPattern(sb, subjectBinding, property, objectBinding);
+				return objectBinding;
+			}
+			String associationBinding = "?"+name+"_r"+depth++;
+			appendPropertyPattern(sb, subjectBinding, property, associationBinding);
+			subjectBinding = associationBinding;
+			currentEntity = mappingContext.getPersistentEntity(property.getActualType());
+		}
+	}
+	
+	private static void appendPropertyPattern(StringBuilder sb, String subjectBinding, SemanticPersistentProperty property, String objectBinding){
+		if(property.isAssociation() && Direction.INCOMING.equals(property.getDirection()) && property.getInverseProperty() != null){
+			AbstractPropertiesToQueryHandler.appendPattern(sb, objectBinding, "<"+property.getInverseProperty().getPredicate()+">", subjectBinding);
+		}
+		else{
+			AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<"+property.getPredicate()+">", objectBinding);
+		}
+	}
+	
+	private static String bind(String name, Object value, Map<String, Value> bindings){
+		if(value == null){
+			throw new IllegalArgumentException("Null value for query parameter "+name+".");
+		}
+		bindings.put(name, ObjectToLiteralConverter.getInstance().convert(value));
+		return "?"+name;
+	}
+	
+	private static void appendFilter(StringBuilder sb, String expression){
+		sb.append("FILTER(").append(expression).append(") ");
+	}
+	
+	private static String lowerCase(String binding, boolean ignoreCase){
+		return ignoreCase ? "LCASE(STR("+binding+"))" : "STR("+binding+")";
+	}
+	
+	private static String regex(String valueBinding, String patternBinding, boolean ignoreCase){
+		return "REGEX(STR("+valueBinding+"), "+patternBinding+(ignoreCase ? ", \"i\")" : ")");
+	}
+	
+	/**
+	 * Translate a LIKE pattern, where % matches any sequence and _ any single character, to an anchored regular expression.
+	 * @param like
+	 * @return
+	 */
+	static String likeToRegex(String like){
+		StringBuilder regex = new StringBuilder("^");
+		for(char c : like.toCharArray()){
+			if(c == '%'){
+				regex.append(".*");
+			}
+			else if(c == '_'){
+				regex.append(".");
+			}
+			else if("\\.[]{}()*+-?^$|".indexOf(c) >= 0){
+				regex.append("\\").append(c);
+			}
+			else{
+				regex.append(c);
+			}
+		}
+		return regex.append("$").toString();
+	}
+	
+	private static Collection<?> asCollection(Object value){
+		if(value.getClass().isArray()){
+			return Arrays.asList((Object[]) value);
+		}
+		return (Collection<?>) value;
+	}
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+/**
+ * Placeholder for a property value in a query template. The generated query contains the variable 
+ * instead of the value; the value itself is bound when the query is executed.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class QueryParameter {
+	
+	private final String name;
+	
+	public QueryParameter(String name){
+		this.name = name;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public String getBinding() {
+		return "?" + name;
+	}
+
+}
@@ -29,7 +29,6 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.data.mapping.Association;
 import org.springframework.data.mapping.AssociationHandler;
 import org.springframework.data.mapping.context.MappingContext;
-import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
 import org.springframework.data.semantic.convert.state.EntityState;
@@ -43,7 +42,6 @@ import org.springframework.data.semantic.support.Direction;
 import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.mapping.SemanticPersistentEntityImpl;
-import org.springframework.data.semantic.support.util.ValueUtils;
 
 /**
  * Handles the logic for converting Statements to Entities
@@ -94,7 +92,6 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 	@Override
 	public void write(Object source, RDFState dbStatements) {
 		final SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(source.getClass());
-		final BeanWrapper<Object> wrapper = BeanWrapper.<Object>create(source, conversionService);
         RDFState currentState = toStatementsConverter.convertEntityToStatements(persistentEntity, source);
 		if (dbStatements != null && !dbStatements.isEmpty()) {
 			//TODO optimize conversion of alias statements to actual statements
@@ -104,7 +101,7 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 			dbStatements.getCurrentStatements().removeAll(currentState.getCurrentStatements());
         	currentState.setDeleteStatements(dbStatements.getCurrentStatements());
         }
-		EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(wrapper, currentState);
+		EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(source, currentState);
 		state.persist();
 	}
 	
@@ -116,7 +113,6 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 				Object source = entry.getKey();
 				RDFState dbStatements = entry.getValue();
 				final SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(source.getClass());
-				final BeanWrapper<Object> wrapper = BeanWrapper.<Object>create(source, conversionService);
 		        RDFState currentState = toStatementsConverter.convertEntityToStatements(persistentEntity, source);
 				if (dbStatements != null && !dbStatements.isEmpty()) {
 					//TODO optimize conversion of alias statements to actual statements
@@ -126,7 +122,7 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 					dbStatements.getCurrentStatements().removeAll(currentState.getCurrentStatements());
 		        	currentState.setDeleteStatements(dbStatements.getCurrentStatements());
 		        }
-				EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(wrapper, currentState);
+				EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(source, currentState);
 				mergedModel.merge(state.getPersistentState());
 			} catch(RequiredPropertyException e){
 				logger.error(e.getMessage(), e);
@@ -141,14 +137,13 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 			MappingPolicy mappingPolicy,
 			SemanticPersistentEntity<R> persistentEntity) {
 		
-		final BeanWrapper<R> wrapper = BeanWrapper.<R>create(entity, conversionService);
-        sourceStateTransmitter.copyPropertiesFrom(wrapper, source, persistentEntity, mappingPolicy);
-        cascadeFetch(entity, persistentEntity, wrapper, source);
+        sourceStateTransmitter.copyPropertiesFrom(entity, source, persistentEntity, mappingPolicy);
+        cascadeFetch(entity, persistentEntity, source);
         
         return entity;
 	}
 	
-	private <R> void cascadeFetch(final R entity, final SemanticPersistentEntity<R> persistentEntity, final BeanWrapper<R> wrapper, final RDFState source) {
+	private <R> void cascadeFetch(final R entity, final SemanticPersistentEntity<R> persistentEntity, final RDFState source) {
 		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
             @Override
             public void doWithAssociation(Association<SemanticPersistentProperty> association) {
@@ -159,10 +154,10 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 				SemanticPersistentEntity<Object> associatedPersistentEntity = (SemanticPersistentEntity<Object>) mappingContext.getPersistentEntity(property.getTypeInformation().getActualType());
             	Set<? extends Value> associatedEntityIds;
             	if(Direction.INCOMING.equals(property.getDirection())){
-            		associatedEntityIds = source.getCurrentStatements().filter(null, ValueUtils.createUri(property.getInverseProperty().getAliasPredicate()), persistentEntity.getResourceId(entity)).subjects();
+            		associatedEntityIds = source.getCurrentStatements().filter(null, property.getInverseProperty().getAliasPredicateURI(), persistentEntity.getResourceId(entity)).subjects();
             	}
             	else{
-            		associatedEntityIds = source.getCurrentStatements().filter(persistentEntity.getResourceId(entity), ValueUtils.createUri(property.getAliasPredicate()), null).objects();
+            		associatedEntityIds = source.getCurrentStatements().filter(persistentEntity.getResourceId(entity), property.getAliasPredicateURI(), null).objects();
             	}
             	if (property.getTypeInformation().isCollectionLike()) {
             		List<Object> associationValuesList = new LinkedList<Object>();
@@ -173,13 +168,12 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
                 			associationValuesList.add(associatedEntity);
                 			if (mappingPolicy.shouldCascade(Cascade.GET)) {
                                 RDFState associatedEntityState = new RDFState(source.getCurrentStatements().filter(associatedEntityURI, null, null));
-                                final BeanWrapper<Object> associatedWrapper = BeanWrapper.<Object>create(associatedEntity, conversionService);
-                                sourceStateTransmitter.copyPropertiesFrom(associatedWrapper, associatedEntityState, associatedPersistentEntity, mappingPolicy);
-                                cascadeFetch(associatedEntity, associatedPersistentEntity, associatedWrapper, source);
+                                sourceStateTransmitter.copyPropertiesFrom(associatedEntity, associatedEntityState, associatedPersistentEntity, mappingPolicy);
+                                cascadeFetch(associatedEntity, associatedPersistentEntity, source);
                             }
                 		}
                 	}
-            		sourceStateTransmitter.setProperty(wrapper, property, associationValuesList);
+            		sourceStateTransmitter.setProperty(entity, property, associationValuesList);
             	}
             	else{
             		if(!associatedEntityIds.isEmpty()){
@@ -187,11 +181,10 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
             			Object associatedEntity = entityInstantiator.createInstance(associatedPersistentEntity, associatedEntityURI);
             			if (mappingPolicy.shouldCascade(Cascade.GET)) {
             				 RDFState associatedEntityState = new RDFState(source.getCurrentStatements().filter(associatedEntityURI, null, null));
-                             final BeanWrapper<Object> associatedWrapper = BeanWrapper.<Object>create(associatedEntity, conversionService);
-                             sourceStateTransmitter.copyPropertiesFrom(associatedWrapper, associatedEntityState, associatedPersistentEntity, mappingPolicy);
-                             cascadeFetch(associatedEntity, associatedPersistentEntity, associatedWrapper, source);
+                             sourceStateTransmitter.copyPropertiesFrom(associatedEntity, associatedEntityState, associatedPersistentEntity, mappingPolicy);
+                             cascadeFetch(associatedEntity, associatedPersistentEntity, source);
                         }
-            			sourceStateTransmitter.setProperty(wrapper, property, associatedEntity);
+            			sourceStateTransmitter.setProperty(entity, property, associatedEntity);
             			
             		}
             	}
@@ -20,15 +20,27 @@ import java.util.Map;
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityPersister;
 import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.support.convert.state.DirtyStateTracker;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
 public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
 	
 	private SemanticEntityConverter entityConverter;
 	
+	private SemanticMappingContext mappingContext;
+	
+	private DirtyStateTracker dirtyStateTracker;
+	
 	public SemanticEntityPersisterImpl(SemanticEntityConverter entityConverter){
 		this.entityConverter = entityConverter;
 	}
 	
+	public SemanticEntityPersisterImpl(SemanticEntityConverter entityConverter, SemanticMappingContext mappingContext, DirtyStateTracker dirtyStateTracker){
+		this.entityConverter = entityConverter;
+		this.mappingContext = mappingContext;
+		this.dirtyStateTracker = dirtyStateTracker;
+	}
+	
 
 	@Override
 	public <T> T createEntityFromState(RDFState statements,
@@ -36,7 +48,11 @@ public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
 		if (statements.isEmpty()) {
             return null;
         }
-		return entityConverter.read(type, statements);
+		T entity = entityConverter.read(type, statements);
+		if(dirtyStateTracker != null){
+			dirtyStateTracker.snapshot(mappingContext.getPersistentEntity(type), entity);
+		}
+		return entity;
 	}
 
 
@@ -55,4 +71,13 @@ public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
 		return entitiesToExistingState.keySet();
 	}
 
+
+	@Override
+	public <T> RDFState getDirtyState(T entity) {
+		if(dirtyStateTracker == null){
+			return null;
+		}
+		return dirtyStateTracker.getChanges(mappingContext.getPersistentEntity(entity.getClass()), entity);
+	}
+
 }
@@ -68,6 +68,7 @@ public class SemanticEntityRemoverImpl implements SemanticEntityRemover {
 		sb.append(persistentEntity.getRDFType().stringValue());
 		sb.append("> }");
 		
+		// the deleted entities may be referenced by entities of any type, so the update invalidates the whole cache
 		this.semanticDb.executeUpdateStatement(sb.toString());
 	}
 	
@@ -15,8 +15,11 @@
  */
 package org.springframework.data.semantic.support.convert;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.convert.ConversionService;
 import org.springframework.data.mapping.PropertyHandler;
-import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.semantic.convert.state.EntityState;
 import org.springframework.data.semantic.convert.state.EntityStateFactory;
@@ -35,25 +38,38 @@ import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 public class SemanticSourceStateTransmitter {
 
 	private EntityStateFactory<RDFState> entityStateFactory;
+	
+	private ConversionService conversionService;
+	
+	private final ConcurrentMap<SemanticPersistentEntity<?>, EntityMaterializer<?>> materializers = new ConcurrentHashMap<SemanticPersistentEntity<?>, EntityMaterializer<?>>();
 
 	public SemanticSourceStateTransmitter(
 			EntityStateFactory<RDFState> entityStateFactory) {
 		this.entityStateFactory = entityStateFactory;
 	}
+	
+	public SemanticSourceStateTransmitter(
+			EntityStateFactory<RDFState> entityStateFactory, ConversionService conversionService) {
+		this.entityStateFactory = entityStateFactory;
+		this.conversionService = conversionService;
+	}
 
 	/**
 	 * 
-	 * @param wrapper
+	 * @param entity
 	 * @param source
 	 * @param persistentEntity
 	 * @param mappingPolicy
 	 */
 	public <R> void copyPropertiesFrom(
-			final BeanWrapper<R> wrapper,
+			final R entity,
 			RDFState source,
 			SemanticPersistentEntity<R> persistentEntity,
 			final MappingPolicy mappingPolicy) {
-		final R entity = wrapper.getBean();
+		if(conversionService != null && mappingPolicy.useDirty()){
+			getMaterializer(persistentEntity).populate(entity, source);
+			return;
+		}
 		final EntityState<R, RDFState> entityState = this.entityStateFactory.getEntityState(entity, false);
 		entityState.setPersistentState(source);
 		persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {					
@@ -64,32 +80,44 @@ public class SemanticSourceStateTransmitter {
 					return;
 				}
 
-				copyEntityStatePropertyValue(property, entityState,	wrapper, mappingPolicy.combineWith(property.getMappingPolicy()));
+				copyEntityStatePropertyValue(property, entityState, entity, mappingPolicy.combineWith(property.getMappingPolicy()));
 			}
 		});
 	}
 
-	private <R> Object copyEntityStatePropertyValue(SemanticPersistentProperty property, EntityState<R, RDFState> state, 	BeanWrapper<R> wrapper,
+	/**
+	 * Get the compiled read plan of the given entity type.
+	 * @param persistentEntity
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> EntityMaterializer<R> getMaterializer(SemanticPersistentEntity<R> persistentEntity){
+		EntityMaterializer<R> materializer = (EntityMaterializer<R>) materializers.get(persistentEntity);
+		if(materializer == null){
+			materializer = new EntityMaterializer<R>(persistentEntity, conversionService);
+			EntityMaterializer<R> existing = (EntityMaterializer<R>) materializers.putIfAbsent(persistentEntity, materializer);
+			if(existing != null){
+				materializer = existing;
+			}
+		}
+		return materializer;
+	}
+
+	private <R> Object copyEntityStatePropertyValue(SemanticPersistentProperty property, EntityState<R, RDFState> state, R entity,
 			final MappingPolicy mappingPolicy) {
 		final Object value = state.getValue(property, mappingPolicy);
-		setProperty(wrapper, property, value);
+		setProperty(entity, property, value);
 		return value;
 	}
 	
-	public EntityState<Object, RDFState> copyPropertiesTo(BeanWrapper<Object> wrapper, RDFState model){
-		final Object entity = wrapper.getBean();
+	public EntityState<Object, RDFState> copyPropertiesTo(Object entity, RDFState model){
 		final EntityState<Object, RDFState> state = this.entityStateFactory.getEntityState(entity, false);
 		state.setPersistentState(model);
 		return state;
 	}
 
-	public <R> void setProperty(BeanWrapper<R> wrapper, SemanticPersistentProperty property, Object value) {
-		try {
-			wrapper.setProperty(property, value);
-		} catch (Exception e) {
-			throw new MappingException("Setting property " + property.getName()
-					+ " to " + value + " on " + wrapper.getBean(), e);
-		}
+	public void setProperty(Object entity, SemanticPersistentProperty property, Object value) {
+		EntityMaterializer.setProperty(entity, property, value, conversionService);
 	}
 
 }
@@ -17,17 +17,15 @@ package org.springframework.data.semantic.support.convert.access;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.openrdf.model.Model;
-import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
+import org.openrdf.model.Value;
 import org.springframework.data.semantic.convert.access.FieldAccessor;
 import org.springframework.data.semantic.convert.access.FieldAccessorFactory;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
-import org.springframework.data.semantic.support.MappingPolicyImpl;
 import org.springframework.data.semantic.support.SemanticTemplateStatementsCollector;
 
 /**
@@ -75,7 +73,7 @@ public class AssociationFieldAccessorFactory implements FieldAccessorFactory {
 			this.operations = operations;
 			this.property = property;
 			//this.predicates = property.getPredicate();
-			this.fieldType = property.getType();
+			this.fieldType = property.getActualType();
 		}
 		
 		@Override
@@ -93,13 +91,14 @@ public class AssociationFieldAccessorFactory implements FieldAccessorFactory {
 		@Override
 		public Object getValue(Object entity, MappingPolicy mappingPolicy) {
 			Model stIterator = statementsCollector.getStatementsForResourceProperty(entity, property);
-			if(this.property.isCollectionLike()){
-				Set<Resource> subjects = stIterator.subjects();
-				List<Object> result = new ArrayList<Object>(subjects.size());
-				for(Resource subject : subjects){
-					Model iterator = statementsCollector.getStatementsForResource((URI) subject, fieldType, MappingPolicyImpl.ALL_POLICY);
-					result.add(operations.createEntity(iterator, fieldType));
+			List<URI> associatedIds = new ArrayList<URI>();
+			for(Value object : stIterator.objects()){
+				if(object instanceof URI){
+					associatedIds.add((URI) object);
 				}
+			}
+			if(this.property.isCollectionLike()){
+				List<Object> result = operations.find(associatedIds, fieldType);
 				if(this.property.isArray()){
 					return result.toArray();
 				}
@@ -108,12 +107,8 @@ public class AssociationFieldAccessorFactory implements FieldAccessorFactory {
 				}
 			}
 			else{
-				if(!stIterator.isEmpty()) {
-					
-					URI resource = (URI) stIterator.objects().iterator().next();
-					Model iterator = statementsCollector.getStatementsForResource(resource, fieldType, MappingPolicyImpl.ALL_POLICY);
-					
-					return operations.createEntity(iterator, fieldType);
+				if(!associatedIds.isEmpty()) {
+					return operations.find(associatedIds.get(0), fieldType);
 				}
 			}
 			return null;
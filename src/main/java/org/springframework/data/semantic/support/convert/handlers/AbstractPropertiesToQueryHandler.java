@@ -15,9 +15,13 @@
  */
 package org.springframework.data.semantic.support.convert.handlers;
 
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
 import org.springframework.data.mapping.AssociationHandler;
 import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.convert.QueryParameter;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
 public abstract class AbstractPropertiesToQueryHandler implements PropertyHandler<SemanticPersistentProperty>,  AssociationHandler<SemanticPersistentProperty>{
@@ -52,6 +56,19 @@ public abstract class AbstractPropertiesToQueryHandler implements PropertyHandle
 		sb.append(" . ");
 	}
 	
+	/**
+	 * Create the query representation of a property value; a {@link QueryParameter} is rendered as its variable.
+	 * @param value
+	 * @return
+	 */
+	public static String getObjectValue(Object value){
+		if(value instanceof QueryParameter){
+			return ((QueryParameter) value).getBinding();
+		}
+		Value val = ObjectToLiteralConverter.getInstance().convert(value);
+		return val instanceof URI ? "<"+val+">" : val.toString();
+	}
+	
 	public static String getObjectBinding(String subjBinding, SemanticPersistentProperty persistentProperty){
 		String obj;
 		if(subjBinding.charAt(0) != '<'){
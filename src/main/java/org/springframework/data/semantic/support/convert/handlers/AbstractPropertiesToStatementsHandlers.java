@@ -54,7 +54,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 	@Override
 	public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
 		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
-		Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+		Object value = getValue(persistentProperty);
 		if(persistentProperty.shallBePersisted() && !persistentProperty.isContext()){
 			if(value != null){
 				if(persistentProperty.isCollectionLike()){
@@ -89,7 +89,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 	public void doWithAssociation(Association<SemanticPersistentProperty> association) {
 		SemanticPersistentProperty persistentProperty = association.getInverse();
 		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
-		Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+		Object value = getValue(persistentProperty);
 		if(value == null){
 			if(!persistentProperty.isOptional() && !allowEmpty()){
 				throw new RequiredPropertyException(persistentEntity.getIdProperty().getValue(entity, persistentEntity.getMappingPolicy()), persistentProperty);
@@ -131,6 +131,14 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 		}
 	}
 	
+	/**
+	 * @return the value of the given property of the processed entity
+	 */
+	protected Object getValue(SemanticPersistentProperty persistentProperty){
+		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
+		return persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+	}
+	
 	protected abstract AbstractPropertiesToStatementsHandlers getInstance(RDFState statements, Object entity, SemanticMappingContext mappingContext);
 	
 	protected abstract void processPropertyStatement(SemanticPersistentProperty property, Object value);
@@ -20,10 +20,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.openrdf.model.URI;
-import org.openrdf.model.Value;
 import org.springframework.data.mapping.Association;
-import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
@@ -36,7 +33,6 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 	private StringBuilder sb;
 	private String binding;
 	private Map<String, Object> propertyToValue;
-	private ObjectToLiteralConverter objectToLiteralConverter;
 	private int depth;
 	private final MappingPolicy globalMappingPolicy;
 	private final Boolean originalPredicates;
@@ -54,7 +50,6 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 		this.sb = sb;
 		this.binding = binding;
 		this.propertyToValue = propertyToValue;
-		this.objectToLiteralConverter = ObjectToLiteralConverter.getInstance();
 		this.depth = depth;
 		this.globalMappingPolicy = globalMappingPolicy;
 		this.originalPredicates = originalPredicates;
@@ -85,8 +80,7 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 						objectValue = Arrays.asList((Object[]) objectValue);
 					}
 					for(Object o : (Collection<Object>) objectValue){
-						Value val = this.objectToLiteralConverter.convert(o);
-						String obj = val instanceof URI ? "<"+val+">" : val.toString();
+						String obj = getObjectValue(o);
 						if(originalPredicates){
 							appendPattern(sb, binding, "<" + persistentProperty.getPredicate() + ">", obj);
 						}
@@ -96,8 +90,7 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 					}
 				}
 				else{
-					Value val = this.objectToLiteralConverter.convert(objectValue);
-					String obj = val instanceof URI ? "<"+val+">" : val.toString();
+					String obj = getObjectValue(objectValue);
 					if(originalPredicates){
 						appendPattern(sb, binding, "<" + persistentProperty.getPredicate() + ">", obj);
 					}
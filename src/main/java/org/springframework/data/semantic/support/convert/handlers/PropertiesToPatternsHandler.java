@@ -21,9 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.openrdf.model.URI;
-import org.openrdf.model.Value;
 import org.springframework.data.mapping.Association;
-import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
@@ -37,7 +35,6 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 	private StringBuilder sb;
 	private String binding;
 	private Map<String, Object> propertyToValue;
-	private ObjectToLiteralConverter objectToLiteralConverter;
 	private int depth;
 	private boolean isCount;
 	private boolean isDelete;
@@ -59,7 +56,6 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 		this.sb = sb;
 		this.binding = binding;
 		this.propertyToValue = propertyToValue;
-		this.objectToLiteralConverter = ObjectToLiteralConverter.getInstance();
 		this.depth = depth;
 		this.isCount = isCount;
 		this.isDelete = isDelete;
@@ -141,14 +137,12 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 						objectValue = Arrays.asList((Object[])objectValue);
 					}
 					for (Object o : (Collection<Object>) objectValue){
-						Value val = this.objectToLiteralConverter.convert(o);
-						obj = val instanceof URI ? "<"+val.toString()+">" : val.toString();
+						obj = getObjectValue(o);
 						addPattern(persistentProperty, optional, subj, pred, obj);
 					}
 				}
 				else{
-					Value val = this.objectToLiteralConverter.convert(objectValue);
-					obj = val instanceof URI ? "<"+val.toString()+">" : val.toString();
+					obj = getObjectValue(objectValue);
 					addPattern(persistentProperty, optional, subj, pred, obj);
 				}
 			}
@@ -0,0 +1,505 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.state;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.ContextStatementImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.core.SemanticDatabaseWriteListener;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
+import org.springframework.data.semantic.support.convert.handlers.PropertiesToStatementsHandler;
+import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.semantic.support.util.CompactModel;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Keeps a per-property snapshot of the entities created from the database, so that saving them only writes
+ * the properties and associations which changed since they were loaded. Entities are tracked by identity and
+ * are only weakly referenced.
+ * <p>
+ * Only copies of the property values are kept; the statements of a changed property are built when the entity is saved.
+ * Associations cascading saves are the exception, since changes of the associated entities can only be detected by their statements.
+ * <p>
+ * The snapshots of resources reported as written are forgotten. Writes which are not reported, e.g. by another node 
+ * without an invalidation channel, leave the snapshots stale: saving a tracked entity then only replaces its own 
+ * previous values, so a single-valued property may end up with both the value written by the other node and the new one.
+ *
+ * @author konstantin.pentchev
+ *
+ */
+public class DirtyStateTracker implements SemanticDatabaseWriteListener {
+
+	private final SemanticMappingContext mappingContext;
+
+	private final ConcurrentMap<URI, SnapshotGroup> snapshots = new ConcurrentHashMap<URI, SnapshotGroup>();
+
+	private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<Object>();
+
+	public DirtyStateTracker(SemanticMappingContext mappingContext){
+		this.mappingContext = mappingContext;
+	}
+
+	/**
+	 * Record the current state of the given entity. Entities which cannot be serialized completely (e.g. not fully loaded) are not tracked.
+	 * @param persistentEntity
+	 * @param entity
+	 */
+	public void snapshot(final SemanticPersistentEntity<?> persistentEntity, final Object entity){
+		if(entity == null || !persistentEntity.getMappingPolicy().useDirty()){
+			return;
+		}
+		final URI resourceId = persistentEntity.getResourceId(entity);
+		if(resourceId == null){
+			return;
+		}
+		final EntitySnapshot snapshot = new EntitySnapshot(persistentEntity.getContext(entity));
+		try{
+			persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+					if(!persistentProperty.isContext()){
+						record(snapshot, resourceId, entity, persistentProperty);
+					}
+				}
+			});
+			persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+					record(snapshot, resourceId, entity, association.getInverse());
+				}
+			});
+		} catch(RequiredPropertyException e){
+			remove(resourceId, new EntityReference(entity, resourceId, null));
+			return;
+		}
+		purge();
+		put(resourceId, new EntityReference(entity, resourceId, referenceQueue), snapshot);
+	}
+
+	/**
+	 * Collect the statements to add and remove for the properties of the given entity which changed since its snapshot was taken
+	 * and update the snapshot accordingly.
+	 * @param persistentEntity
+	 * @param entity
+	 * @return the changes, or null if the entity is not tracked
+	 */
+	public RDFState getChanges(final SemanticPersistentEntity<?> persistentEntity, final Object entity){
+		final URI resourceId = persistentEntity.getResourceId(entity);
+		if(resourceId == null){
+			return null;
+		}
+		purge();
+		final EntitySnapshot snapshot = get(resourceId, new EntityReference(entity, resourceId, null));
+		if(snapshot == null){
+			return null;
+		}
+		synchronized (snapshot) {
+			final Resource context = persistentEntity.getContext(entity);
+			final boolean contextChanged = !ObjectUtils.nullSafeEquals(snapshot.context, context);
+			final RDFState changes = new RDFState();
+			final Set<SemanticPersistentProperty> changed = new HashSet<SemanticPersistentProperty>();
+			persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+					if(collectChanges(snapshot, entity, persistentProperty, contextChanged, changes)){
+						changed.add(persistentProperty);
+					}
+				}
+			});
+			persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+					if(collectChanges(snapshot, entity, association.getInverse(), contextChanged, changes)){
+						changed.add(association.getInverse());
+					}
+				}
+			});
+			changes.getDeleteStatements().removeAll(changes.getCurrentStatements());
+			//statements of cascaded entities may still be produced by another, unchanged property
+			Model referenced = null;
+			for(Iterator<Statement> it = changes.getDeleteStatements().iterator(); it.hasNext();){
+				Statement statement = it.next();
+				if(!resourceId.equals(statement.getSubject())){
+					if(referenced == null){
+						referenced = getUnchangedStatements(snapshot, entity, changed);
+					}
+					if(referenced.contains(statement)){
+						it.remove();
+					}
+				}
+			}
+			snapshot.context = context;
+			return changes;
+		}
+	}
+
+	/**
+	 * Stop tracking the given entity.
+	 * @param entity
+	 */
+	public void forget(Object entity){
+		URI resourceId = mappingContext.getPersistentEntity(entity.getClass()).getResourceId(entity);
+		if(resourceId != null){
+			remove(resourceId, new EntityReference(entity, resourceId, null));
+		}
+	}
+
+	/**
+	 * Stop tracking all entities with the given id.
+	 * @param resourceId
+	 */
+	public void forget(URI resourceId){
+		SnapshotGroup group = snapshots.remove(resourceId);
+		if(group != null){
+			synchronized (group) {
+				group.removed = true;
+			}
+		}
+	}
+
+	/**
+	 * Stop tracking all entities.
+	 */
+	public void clear(){
+		for(URI resourceId : snapshots.keySet()){
+			forget(resourceId);
+		}
+		purge();
+	}
+
+	@Override
+	public void resourcesChanged(Set<Resource> resources) {
+		for(Resource resource : resources){
+			if(resource instanceof URI){
+				forget((URI) resource);
+			}
+		}
+	}
+
+	@Override
+	public void databaseChanged() {
+		clear();
+	}
+
+	/**
+	 * @return the number of currently tracked entities
+	 */
+	public int size(){
+		purge();
+		int size = 0;
+		for(SnapshotGroup group : snapshots.values()){
+			synchronized (group) {
+				size += group.entries.size();
+			}
+		}
+		return size;
+	}
+
+	private void record(EntitySnapshot snapshot, URI resourceId, Object entity, SemanticPersistentProperty persistentProperty){
+		Object value = getValue(entity, persistentProperty);
+		if(!isComplete(persistentProperty, value)){
+			throw new RequiredPropertyException(resourceId, persistentProperty);
+		}
+		snapshot.values.put(persistentProperty, copyValue(value));
+		if(isCascaded(persistentProperty)){
+			snapshot.setStatements(persistentProperty, getPropertyStatements(entity, persistentProperty));
+		}
+	}
+
+	/**
+	 * Add the changes of the given property to the given state and update the snapshot accordingly.
+	 * @return true if the property changed
+	 */
+	private boolean collectChanges(EntitySnapshot snapshot, Object entity, SemanticPersistentProperty persistentProperty, boolean contextChanged, RDFState changes){
+		if(!snapshot.values.containsKey(persistentProperty)){
+			return false;
+		}
+		Object value = getValue(entity, persistentProperty);
+		boolean cascaded = isCascaded(persistentProperty);
+		if(!contextChanged && !cascaded && isSameValue(snapshot.values.get(persistentProperty), value)){
+			return false;
+		}
+		Model oldStatements = getSnapshotStatements(snapshot, entity, persistentProperty);
+		Model newStatements = getPropertyStatements(entity, persistentProperty);
+		if(!contextChanged && oldStatements.equals(newStatements)){
+			return false;
+		}
+		for(Statement statement : oldStatements){
+			if(contextChanged || !newStatements.contains(statement)){
+				changes.getDeleteStatements().add(statement);
+			}
+		}
+		for(Statement statement : newStatements){
+			if(contextChanged || !oldStatements.contains(statement)){
+				changes.getCurrentStatements().add(statement);
+			}
+		}
+		snapshot.values.put(persistentProperty, copyValue(value));
+		if(cascaded){
+			snapshot.setStatements(persistentProperty, newStatements);
+		}
+		return true;
+	}
+
+	private Model getUnchangedStatements(EntitySnapshot snapshot, Object entity, Set<SemanticPersistentProperty> changed){
+		Model statements = new CompactModel();
+		for(SemanticPersistentProperty persistentProperty : snapshot.values.keySet()){
+			if(!changed.contains(persistentProperty)){
+				statements.addAll(getSnapshotStatements(snapshot, entity, persistentProperty));
+			}
+		}
+		return statements;
+	}
+
+	/**
+	 * Build the statements of the given property from the value recorded in the snapshot.
+	 */
+	private Model getSnapshotStatements(EntitySnapshot snapshot, Object entity, SemanticPersistentProperty persistentProperty){
+		if(snapshot.statements != null && snapshot.statements.containsKey(persistentProperty)){
+			return snapshot.statements.get(persistentProperty);
+		}
+		RDFState statements = new RDFState();
+		handle(new SnapshotToStatementsHandler(statements, entity, mappingContext, snapshot.values.get(persistentProperty)), persistentProperty);
+		Resource context = ((SemanticPersistentEntity<?>) persistentProperty.getOwner()).getContext(entity);
+		if(ObjectUtils.nullSafeEquals(snapshot.context, context)){
+			return statements.getCurrentStatements();
+		}
+		Model inContext = new CompactModel();
+		for(Statement statement : statements.getCurrentStatements()){
+			if(snapshot.context == null){
+				inContext.add(new StatementImpl(statement.getSubject(), statement.getPredicate(), statement.getObject()));
+			}
+			else{
+				inContext.add(new ContextStatementImpl(statement.getSubject(), statement.getPredicate(), statement.getObject(), snapshot.context));
+			}
+		}
+		return inContext;
+	}
+
+	private Model getPropertyStatements(Object entity, SemanticPersistentProperty persistentProperty){
+		RDFState statements = new RDFState();
+		handle(new PropertiesToStatementsHandler(statements, entity, mappingContext), persistentProperty);
+		return statements.getCurrentStatements();
+	}
+
+	private static void handle(PropertiesToStatementsHandler handler, SemanticPersistentProperty persistentProperty){
+		if(persistentProperty.isAssociation()){
+			handler.doWithAssociation(persistentProperty.getAssociation());
+		}
+		else{
+			handler.doWithPersistentProperty(persistentProperty);
+		}
+	}
+
+	private void put(URI resourceId, EntityReference reference, EntitySnapshot snapshot){
+		while(true){
+			SnapshotGroup group = snapshots.get(resourceId);
+			if(group == null){
+				group = new SnapshotGroup();
+				SnapshotGroup existing = snapshots.putIfAbsent(resourceId, group);
+				if(existing != null){
+					group = existing;
+				}
+			}
+			synchronized (group) {
+				if(!group.removed){
+					group.entries.put(reference, snapshot);
+					return;
+				}
+			}
+		}
+	}
+
+	private EntitySnapshot get(URI resourceId, EntityReference reference){
+		SnapshotGroup group = snapshots.get(resourceId);
+		if(group == null){
+			return null;
+		}
+		synchronized (group) {
+			return group.entries.get(reference);
+		}
+	}
+
+	private void remove(URI resourceId, EntityReference reference){
+		SnapshotGroup group = snapshots.get(resourceId);
+		if(group != null){
+			synchronized (group) {
+				group.entries.remove(reference);
+				if(group.entries.isEmpty() && !group.removed){
+					group.removed = true;
+					snapshots.remove(resourceId, group);
+				}
+			}
+		}
+	}
+
+	private void purge(){
+		Reference<?> reference;
+		while((reference = referenceQueue.poll()) != null){
+			EntityReference entityReference = (EntityReference) reference;
+			remove(entityReference.resourceId, entityReference);
+		}
+	}
+
+	private static Object getValue(Object entity, SemanticPersistentProperty persistentProperty){
+		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
+		return persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
+	}
+
+	private static boolean isCascaded(SemanticPersistentProperty persistentProperty){
+		return persistentProperty.isAssociation() && persistentProperty.getMappingPolicy().shouldCascade(Cascade.SAVE);
+	}
+
+	/**
+	 * Mirrors the required property checks performed when the entity is converted to statements.
+	 */
+	private static boolean isComplete(SemanticPersistentProperty persistentProperty, Object value){
+		if(persistentProperty.isOptional() || (!persistentProperty.isAssociation() && !persistentProperty.shallBePersisted())){
+			return true;
+		}
+		if(value instanceof Collection<?>){
+			return !((Collection<?>) value).isEmpty();
+		}
+		if(value instanceof Object[]){
+			return ((Object[]) value).length != 0;
+		}
+		return value != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object copyValue(Object value){
+		if(value instanceof Collection<?>){
+			return new ArrayList<Object>((Collection<Object>) value);
+		}
+		if(value instanceof Object[]){
+			return ((Object[]) value).clone();
+		}
+		if(value instanceof Date){
+			return ((Date) value).clone();
+		}
+		return value;
+	}
+
+	private static boolean isSameValue(Object snapshotValue, Object value){
+		return ObjectUtils.nullSafeEquals(snapshotValue, copyValue(value));
+	}
+
+	/**
+	 * The snapshots of the instances of a single resource; a removed group is no longer reachable from the index.
+	 */
+	private static class SnapshotGroup {
+
+		private final Map<EntityReference, EntitySnapshot> entries = new HashMap<EntityReference, EntitySnapshot>(2);
+
+		private boolean removed = false;
+	}
+
+	private static class EntitySnapshot {
+
+		private Resource context;
+
+		private final Map<SemanticPersistentProperty, Object> values = new HashMap<SemanticPersistentProperty, Object>();
+
+		private Map<SemanticPersistentProperty, Model> statements;
+
+		private EntitySnapshot(Resource context){
+			this.context = context;
+		}
+
+		private void setStatements(SemanticPersistentProperty persistentProperty, Model statements){
+			if(this.statements == null){
+				this.statements = new HashMap<SemanticPersistentProperty, Model>(2);
+			}
+			this.statements.put(persistentProperty, new CompactModel(statements));
+		}
+	}
+
+	/**
+	 * Converts a property to statements using the value recorded in a snapshot instead of the current one.
+	 */
+	private static class SnapshotToStatementsHandler extends PropertiesToStatementsHandler {
+
+		private final Object value;
+
+		private SnapshotToStatementsHandler(RDFState statements, Object entity, SemanticMappingContext mappingContext, Object value){
+			super(statements, entity, mappingContext);
+			this.value = value;
+		}
+
+		@Override
+		protected Object getValue(SemanticPersistentProperty persistentProperty) {
+			return value;
+		}
+	}
+
+	/**
+	 * Weak reference with identity semantics, so that entities overriding equals/hashCode are tracked per instance.
+	 */
+	private static class EntityReference extends WeakReference<Object> {
+
+		private final URI resourceId;
+
+		private final int hash;
+
+		private EntityReference(Object entity, URI resourceId, ReferenceQueue<Object> queue){
+			super(entity, queue);
+			this.resourceId = resourceId;
+			this.hash = System.identityHashCode(entity);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(!(obj instanceof EntityReference)){
+				return false;
+			}
+			Object referent = get();
+			return referent != null && referent == ((EntityReference) obj).get();
+		}
+	}
+
+}
@@ -24,7 +24,6 @@ import java.util.Map;
 import org.openrdf.model.Model;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
-import org.openrdf.model.impl.URIImpl;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.semantic.convert.access.FieldAccessor;
 import org.springframework.data.semantic.convert.access.FieldAccessorProvider;
@@ -115,8 +114,7 @@ public class SemanticEntityState<T> implements
 	}
 	
 	private Object getValueFromState(SemanticPersistentProperty property){
-		String alias = property.getAliasPredicate();
-		URI predicate = new URIImpl(alias);
+		URI predicate = property.getAliasPredicateURI();
 		Model model = state.getCurrentStatements();
 		
 		List<Object> values = new LinkedList<Object>();
@@ -15,6 +15,15 @@
  */
 package org.springframework.data.semantic.support.database;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openrdf.query.BooleanQuery;
+import org.openrdf.query.GraphQuery;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.Query;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
@@ -26,18 +35,29 @@ public class ExtendedRepositoryConnection extends RepositoryConnectionWrapper {
 	private SesameConnectionPool connectionPool;
 	private Logger logger = LoggerFactory.getLogger(getClass());
 	private StackTraceElement[] cause;
+	private final long created = System.currentTimeMillis();
+	private volatile long lastReturned = created;
+	private volatile boolean reclaimable = true;
+	private volatile boolean leakReported = false;
+	private volatile boolean transactionBound = false;
+	private final Map<PreparedQueryKey, Query> preparedQueries;
+	private volatile long preparedQueryHits = 0;
 	
 	public ExtendedRepositoryConnection(SesameConnectionPool connectionPool, Repository repository, RepositoryConnection connection){
 		super(repository, connection);
 		this.connectionPool = connectionPool;
+		this.preparedQueries = new PreparedQueryCache(connectionPool.getPreparedQueryCacheSize());
 	}
 	
 	protected void destroy(){
 		try {
+			preparedQueries.clear();
 			getDelegate().close();
-			connectionPool.getOpenConnections().decrementAndGet();
 		} catch (RepositoryException e) {
 			logger.error(e.getMessage(), e);
+		} finally {
+			//a connection failing to close is not usable either, so it must not count against the limit
+			connectionPool.getOpenConnections().decrementAndGet();
 		}
 	}
 	
@@ -48,8 +68,186 @@ public class ExtendedRepositoryConnection extends RepositoryConnectionWrapper {
 	
 	@Override
 	public void close() throws RepositoryException {
-		cause = null;
-		connectionPool.closeConnection(this);
+		if(!transactionBound){
+			cause = null;
+			connectionPool.closeConnection(this);
+		}
+	}
+	
+	@Override
+	public void begin() throws RepositoryException {
+		if(!transactionBound){
+			super.begin();
+		}
+	}
+	
+	@Override
+	public void commit() throws RepositoryException {
+		if(!transactionBound){
+			super.commit();
+		}
+	}
+	
+	@Override
+	public void rollback() throws RepositoryException {
+		if(!transactionBound){
+			super.rollback();
+		}
+	}
+	
+	/**
+	 * Bind this connection to an externally managed transaction. While bound, {@link #begin()}, {@link #commit()}, 
+	 * {@link #rollback()} and {@link #close()} are ignored, so that a sequence of operations shares a single transaction.
+	 * The transaction itself is started with {@link #beginTransaction()} and completed with {@link #commitTransaction()} or {@link #rollbackTransaction()}.
+	 * @param transactionBound
+	 */
+	public void setTransactionBound(boolean transactionBound){
+		this.transactionBound = transactionBound;
+	}
+	
+	public boolean isTransactionBound(){
+		return transactionBound;
+	}
+	
+	public void beginTransaction() throws RepositoryException {
+		super.begin();
+	}
+	
+	public void commitTransaction() throws RepositoryException {
+		super.commit();
+	}
+	
+	public void rollbackTransaction() throws RepositoryException {
+		super.rollback();
+	}
+	
+	@Override
+	public TupleQuery prepareTupleQuery(QueryLanguage ql, String query) throws MalformedQueryException, RepositoryException {
+		return prepareTupleQuery(ql, query, null);
+	}
+	
+	@Override
+	public TupleQuery prepareTupleQuery(QueryLanguage ql, String query, String baseURI) throws MalformedQueryException, RepositoryException {
+		PreparedQueryKey key = new PreparedQueryKey(TupleQuery.class, ql, query, baseURI);
+		TupleQuery prepared = (TupleQuery) getPreparedQuery(key);
+		if(prepared == null){
+			prepared = super.prepareTupleQuery(ql, query, baseURI);
+			preparedQueries.put(key, prepared);
+		}
+		return prepared;
+	}
+	
+	@Override
+	public GraphQuery prepareGraphQuery(QueryLanguage ql, String query) throws MalformedQueryException, RepositoryException {
+		return prepareGraphQuery(ql, query, null);
+	}
+	
+	@Override
+	public GraphQuery prepareGraphQuery(QueryLanguage ql, String query, String baseURI) throws MalformedQueryException, RepositoryException {
+		PreparedQueryKey key = new PreparedQueryKey(GraphQuery.class, ql, query, baseURI);
+		GraphQuery prepared = (GraphQuery) getPreparedQuery(key);
+		if(prepared == null){
+			prepared = super.prepareGraphQuery(ql, query, baseURI);
+			preparedQueries.put(key, prepared);
+		}
+		return prepared;
+	}
+	
+	@Override
+	public BooleanQuery prepareBooleanQuery(QueryLanguage ql, String query) throws MalformedQueryException, RepositoryException {
+		return prepareBooleanQuery(ql, query, null);
+	}
+	
+	@Override
+	public BooleanQuery prepareBooleanQuery(QueryLanguage ql, String query, String baseURI) throws MalformedQueryException, RepositoryException {
+		PreparedQueryKey key = new PreparedQueryKey(BooleanQuery.class, ql, query, baseURI);
+		BooleanQuery prepared = (BooleanQuery) getPreparedQuery(key);
+		if(prepared == null){
+			prepared = super.prepareBooleanQuery(ql, query, baseURI);
+			preparedQueries.put(key, prepared);
+		}
+		return prepared;
+	}
+	
+	/**
+	 * Retrieve a previously prepared query and reset the state left from its last execution.
+	 * @param key
+	 * @return the prepared query or null if it has not been prepared on this connection or has been evicted.
+	 */
+	private Query getPreparedQuery(PreparedQueryKey key){
+		Query prepared = preparedQueries.get(key);
+		if(prepared != null){
+			preparedQueryHits++;
+			prepared.clearBindings();
+			prepared.setDataset(null);
+		}
+		return prepared;
+	}
+	
+	/**
+	 * 
+	 * @return the number of prepared queries currently held by this connection.
+	 */
+	public int getPreparedQueryCount(){
+		return preparedQueries.size();
+	}
+	
+	/**
+	 * 
+	 * @return the number of queries served by this connection from its prepared queries.
+	 */
+	public long getPreparedQueryHitCount(){
+		return preparedQueryHits;
+	}
+	
+	/**
+	 * Check that the underlying connection is still usable.
+	 * @return
+	 */
+	protected boolean validate(){
+		try {
+			if(!getDelegate().isOpen()){
+				return false;
+			}
+			getDelegate().getNamespaces().close();
+			return true;
+		} catch (RepositoryException e) {
+			logger.warn(e.getMessage(), e);
+			return false;
+		}
+	}
+	
+	protected long getLastReturned(){
+		return lastReturned;
+	}
+	
+	protected void setLastReturned(long lastReturned){
+		this.lastReturned = lastReturned;
+	}
+	
+	protected long getCreated(){
+		return created;
+	}
+	
+	public boolean isReclaimable(){
+		return reclaimable;
+	}
+	
+	/**
+	 * Allow or prevent the pool from forcibly reclaiming this connection while it is leased, 
+	 * e.g. for long running reads. Reset to true on every borrow.
+	 * @param reclaimable
+	 */
+	public void setReclaimable(boolean reclaimable){
+		this.reclaimable = reclaimable;
+	}
+	
+	protected boolean isLeakReported(){
+		return leakReported;
+	}
+	
+	protected void setLeakReported(boolean leakReported){
+		this.leakReported = leakReported;
 	}
 	
 	public void setCause(StackTraceElement[] cause){
@@ -59,4 +257,64 @@ public class ExtendedRepositoryConnection extends RepositoryConnectionWrapper {
 	public StackTraceElement[] getCause(){
 		return cause;
 	}
+	
+	/**
+	 * Access-ordered map evicting the least recently used prepared query once the capacity is exceeded.
+	 * A connection is used by a single thread at a time, so no synchronization is needed.
+	 */
+	private static class PreparedQueryCache extends LinkedHashMap<PreparedQueryKey, Query> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int capacity;
+		
+		public PreparedQueryCache(int capacity){
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<PreparedQueryKey, Query> eldest) {
+			return size() > capacity;
+		}
+		
+	}
+	
+	private static class PreparedQueryKey {
+		
+		private final Class<? extends Query> type;
+		private final QueryLanguage ql;
+		private final String query;
+		private final String baseURI;
+		
+		public PreparedQueryKey(Class<? extends Query> type, QueryLanguage ql, String query, String baseURI){
+			this.type = type;
+			this.ql = ql;
+			this.query = query;
+			this.baseURI = baseURI;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = type.hashCode();
+			hash = 31 * hash + ql.hashCode();
+			hash = 31 * hash + query.hashCode();
+			hash = 31 * hash + (baseURI != null ? baseURI.hashCode() : 0);
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(!(obj instanceof PreparedQueryKey)){
+				return false;
+			}
+			PreparedQueryKey other = (PreparedQueryKey) obj;
+			return type.equals(other.type) && ql.equals(other.ql) && query.equals(other.query) 
+					&& (baseURI == null ? other.baseURI == null : baseURI.equals(other.baseURI));
+		}
+		
+	}
 }
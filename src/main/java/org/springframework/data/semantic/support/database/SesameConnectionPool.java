@@ -15,84 +15,178 @@
  */
 package org.springframework.data.semantic.support.database;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.support.exceptions.ConnectionPoolTimeoutException;
+import org.springframework.data.semantic.support.exceptions.SemanticDatabaseAccessException;
 
 
 
 /**
  * A connection pool implementation for Sesame semantic repositories.
+ * <p>
+ * Idle connections are kept in a non-blocking queue, the number of leased connections is bounded by a semaphore, 
+ * so borrowing and returning a connection does not take a lock unless the pool is exhausted.
+ * Leak reporting, reclamation, idle eviction and warm-up are done periodically on a housekeeping thread shared by all pools.
  * 
  * @author konstantin.pentchev
  */
 public final class SesameConnectionPool {
-	private BlockingQueue<ExtendedRepositoryConnection> availableList;
-	private Map<ExtendedRepositoryConnection, Long> inUseList;
+	public static final int DEFAULT_PREPARED_QUERY_CACHE_SIZE = 64;
+	public static final long DEFAULT_CONNECTION_TIMEOUT = 30000;
+	public static final long DEFAULT_VALIDATION_INTERVAL = 30000;
+	public static final long DEFAULT_HOUSEKEEPING_INTERVAL = 5000;
+	public static final long DEFAULT_LEAK_DETECTION_THRESHOLD = 60000;
+	public static final long DEFAULT_IDLE_TIMEOUT = 600000;
+	public static final long DEFAULT_MAX_LIFETIME = 1800000;
+	
+	private static ScheduledExecutorService housekeeper;
+	
+	private final Queue<ExtendedRepositoryConnection> availableList;
+	private final Map<ExtendedRepositoryConnection, Long> inUseList;
+	private final Semaphore permits;
 	private volatile AtomicInteger openConnections = new AtomicInteger(0);
 	private final int maxConnections;
-	private final int timeOutToCollect;
 	private Repository repo;
 	private Logger logger = LoggerFactory.getLogger(getClass());
-	private Thread unusedConnectionsCollectorThread;
+	private ScheduledFuture<?> housekeeping;
+	private volatile int preparedQueryCacheSize = DEFAULT_PREPARED_QUERY_CACHE_SIZE;
+	private volatile long connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+	private volatile long validationInterval = DEFAULT_VALIDATION_INTERVAL;
+	private volatile boolean leakDetection = false;
+	private volatile long leakDetectionThreshold = DEFAULT_LEAK_DETECTION_THRESHOLD;
+	private volatile long reclaimTimeout = 0;
+	private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+	private volatile long maxLifetime = DEFAULT_MAX_LIFETIME;
+	private volatile int minIdle = 0;
+	private volatile boolean closed = false;
+	
+	private final long startTime = System.currentTimeMillis();
+	private final AtomicLong borrowCount = new AtomicLong(0);
+	private final AtomicLong timeoutCount = new AtomicLong(0);
+	private final AtomicLong totalWaitTime = new AtomicLong(0);
+	private final AtomicLong maxWaitTime = new AtomicLong(0);
 
 	/**
 	 * Create a new instance of the connection pool
 	 * 
 	 * @param repository
 	 *            Sesame repository 
-	 * @param config
 	 * 
 	 * @param maxConnections
 	 *            maximum number of connections to the repository
 	 */
-	public SesameConnectionPool(Repository repository,
-			int maxConnections, int timeoutToCollect) {
+	public SesameConnectionPool(Repository repository, int maxConnections) {
 		this.maxConnections = maxConnections;
-		this.availableList = new ArrayBlockingQueue<ExtendedRepositoryConnection>(
-				maxConnections, true);
+		this.availableList = new ConcurrentLinkedQueue<ExtendedRepositoryConnection>();
+		this.permits = new Semaphore(maxConnections, true);
 		this.repo = repository;
 		this.inUseList = new ConcurrentHashMap<ExtendedRepositoryConnection, Long>();
-		this.timeOutToCollect = timeoutToCollect;
-		unusedConnectionsCollectorThread = new Thread(new UnusedConnectionsCollector(), "UnusedConnectionsCollector");
-		unusedConnectionsCollectorThread.start();
+		setHousekeepingInterval(DEFAULT_HOUSEKEEPING_INTERVAL);
+	}
+	
+	/**
+	 * Create a new instance of the connection pool which forcibly reclaims connections held for longer than the given time.
+	 * 
+	 * @param repository
+	 *            Sesame repository 
+	 * 
+	 * @param maxConnections
+	 *            maximum number of connections to the repository
+	 * @param timeoutToCollect
+	 *            time in milliseconds after which a leased connection is reclaimed
+	 */
+	public SesameConnectionPool(Repository repository,
+			int maxConnections, int timeoutToCollect) {
+		this(repository, maxConnections);
+		this.reclaimTimeout = timeoutToCollect;
 	}
 	
-	public void shutdownThread(){
-		unusedConnectionsCollectorThread.interrupt();
+	/**
+	 * Stop the periodic housekeeping of this pool.
+	 */
+	public synchronized void shutdownThread(){
+		if(housekeeping != null){
+			housekeeping.cancel(false);
+		}
+	}
+	
+	/**
+	 * All pools share a single daemon thread for housekeeping.
+	 * @return
+	 */
+	private static synchronized ScheduledExecutorService getHousekeeper(){
+		if(housekeeper == null){
+			housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "SesameConnectionPoolHousekeeper");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return housekeeper;
 	}
 
 	/**
-	 * Returns a connection to the repository by taking it from the synchronized
-	 * blocking queue. If no connection is available and the connection limit is
-	 * not reached, a new connection is opened. Otherwise the method waits until
-	 * a connection is made available.
+	 * Returns a connection to the repository. An idle connection is reused if available, 
+	 * otherwise a new one is opened if the connection limit is not reached. When all connections are leased
+	 * the method waits at most {@link #getConnectionTimeout()} milliseconds for one to be returned.
 	 * 
 	 * @return RepositoryConnection implementation of class
 	 *         ExtendedRepositoryConnection
-	 * @throws RepositoryException 
+	 * @throws ConnectionPoolTimeoutException if no connection became available in time
+	 * @throws SemanticDatabaseAccessException if a new connection could not be opened or the pool has been shut down
 	 */
-	public RepositoryConnection getConnection() {
+	public ExtendedRepositoryConnection getConnection() {
+		if(closed){
+			throw new SemanticDatabaseAccessException("The connection pool has been shut down.");
+		}
+		acquirePermit();
 		try{
-			return getConnectionFromPool();
-		} catch(Exception e){
-			logger.error(e.getMessage(), e);
+			ExtendedRepositoryConnection connection = takeIdleConnection();
+			if(connection == null){
+				connection = openConnection();
+			}
+			if(leakDetection){
+				connection.setCause(Thread.currentThread().getStackTrace());
+			}
+			connection.setReclaimable(true);
+			connection.setLeakReported(false);
+			inUseList.put(connection, System.currentTimeMillis());
+			borrowCount.incrementAndGet();
+			return connection;
+		} catch (RepositoryException e){
+			permits.release();
+			throw new SemanticDatabaseAccessException(e);
+		} catch (RuntimeException e){
+			permits.release();
+			throw e;
 		}
-		return null;
 	}
 	
 	/**
 	 * Adds the repository connection back to the queue of available
-	 * connections. All statements are committed before making the connection
+	 * connections. Uncommitted changes are rolled back before making the connection
 	 * available.
 	 * 
 	 * @param connection
@@ -102,54 +196,119 @@ public final class SesameConnectionPool {
 	 */
 	public void closeConnection(ExtendedRepositoryConnection connection)
 			throws RepositoryException {
-		if(connection.isActive()){
-			connection.rollback();
+		if(inUseList.remove(connection) == null){
+			return;
 		}
-		Long val = inUseList.remove(connection);
-		if(val != null){
-			availableList.add(connection);
+		boolean reusable = false;
+		try{
+			if(connection.isActive()){
+				connection.rollback();
+			}
+			reusable = true;
+		} finally {
+			long now = System.currentTimeMillis();
+			if(reusable && !closed && (maxLifetime <= 0 || now - connection.getCreated() < maxLifetime)){
+				connection.setLastReturned(now);
+				offerIdleConnection(connection);
+			}
+			else{
+				connection.destroy();
+			}
+			permits.release();
 		}
 	}
 
 	/**
 	 * Checks if a connection is open. By the definition of using a connection
-	 * pool a connection is open, i.e. available, if it is in the list of
-	 * available connections.
+	 * pool a connection is open if it is currently leased.
 	 * 
 	 * @param connection
 	 *            The connection to be checked.
-	 * @return Returns true if the connection is in the queue of available
-	 *         connections.
+	 * @return Returns true if the connection is leased from the pool.
 	 */
 	public boolean isOpenConnection(RepositoryConnection connection) {
-		return !availableList.contains(connection);
-	}
-	
-	private RepositoryConnection getConnectionFromPool() throws RepositoryException, InterruptedException{
-		ExtendedRepositoryConnection connection  = availableList.poll();
-		if(connection == null){
-			if (openConnections.get() < maxConnections) {
-				synchronized(openConnections){
-					if (openConnections.get() < maxConnections) {
-						connection = new ExtendedRepositoryConnection(this, repo, repo.getConnection());
-						if(openConnections.incrementAndGet() == maxConnections-1) {
-							logger.info("Reached maximum number of opened connections: "+maxConnections);
-						}
-					}
-				}
-			} 
-			if (connection == null){
-					connection = availableList.take();
+		return inUseList.containsKey(connection);
+	}
+	
+	private void acquirePermit(){
+		if(permits.tryAcquire()){
+			recordWaitTime(0);
+			return;
+		}
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SemanticDatabaseAccessException(e);
+		}
+		recordWaitTime(System.nanoTime() - start);
+		if(!acquired){
+			timeoutCount.incrementAndGet();
+			throw new ConnectionPoolTimeoutException("Could not obtain a connection within "+connectionTimeout+" ms (max: "+maxConnections+", active: "+getActiveConnections()+", waiting: "+getWaitingThreads()+")");
+		}
+	}
+	
+	private void recordWaitTime(long waitTime){
+		totalWaitTime.addAndGet(waitTime);
+		long max = maxWaitTime.get();
+		while(waitTime > max && !maxWaitTime.compareAndSet(max, waitTime)){
+			max = maxWaitTime.get();
+		}
+	}
+	
+	/**
+	 * Poll the idle connections and return the first valid one. 
+	 * Connections which have been idle for longer than the validation interval are checked before being reused.
+	 * @return
+	 */
+	private ExtendedRepositoryConnection takeIdleConnection(){
+		ExtendedRepositoryConnection connection;
+		while((connection = availableList.poll()) != null){
+			if(System.currentTimeMillis() - connection.getLastReturned() < validationInterval || connection.validate()){
+				return connection;
 			}
+			logger.info("Discarding invalid idle connection.");
+			connection.destroy();
+		}
+		return null;
+	}
+	
+	private ExtendedRepositoryConnection openConnection() throws RepositoryException{
+		ExtendedRepositoryConnection connection = new ExtendedRepositoryConnection(this, repo, repo.getConnection());
+		if(openConnections.incrementAndGet() == maxConnections) {
+			logger.info("Reached maximum number of opened connections: "+maxConnections);
 		}
-		connection.setCause(Thread.currentThread().getStackTrace());
-		inUseList.put(connection, System.currentTimeMillis());
 		return connection;
 	}
 	
+	/**
+	 * Stop the housekeeping and close the idle connections. Afterwards no connections are handed out or opened, 
+	 * and leased connections are closed when returned.
+	 */
 	public void shutDown(){
-		while(!availableList.isEmpty()){
-			availableList.poll().destroy();
+		closed = true;
+		shutdownThread();
+		closeIdleConnections();
+	}
+	
+	/**
+	 * Make the connection available for reuse. A connection offered concurrently to {@link #shutDown()} is closed, 
+	 * since the pool might have been drained already.
+	 * @param connection
+	 */
+	private void offerIdleConnection(ExtendedRepositoryConnection connection){
+		availableList.offer(connection);
+		if(closed){
+			closeIdleConnections();
+		}
+	}
+	
+	private void closeIdleConnections(){
+		ExtendedRepositoryConnection connection;
+		while((connection = availableList.poll()) != null){
+			connection.destroy();
 		}
 	}
 
@@ -161,31 +320,295 @@ public final class SesameConnectionPool {
 		this.openConnections = openConnections;
 	}
 	
-	private class UnusedConnectionsCollector implements Runnable {
+	public int getPreparedQueryCacheSize() {
+		return preparedQueryCacheSize;
+	}
+	
+	/**
+	 * Set the maximum number of prepared queries each connection keeps for reuse. 
+	 * Applies to connections opened after the call.
+	 * @param preparedQueryCacheSize
+	 */
+	public void setPreparedQueryCacheSize(int preparedQueryCacheSize) {
+		this.preparedQueryCacheSize = preparedQueryCacheSize;
+	}
+	
+	/**
+	 * Set the period in milliseconds between two housekeeping runs.
+	 * @param housekeepingInterval
+	 */
+	public synchronized void setHousekeepingInterval(long housekeepingInterval) {
+		shutdownThread();
+		if(closed){
+			return;
+		}
+		housekeeping = getHousekeeper().scheduleWithFixedDelay(new Housekeeper(), housekeepingInterval, housekeepingInterval, TimeUnit.MILLISECONDS);
+	}
+	
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+	
+	/**
+	 * Set the time in milliseconds after which a leased connection is reported as a possible leak, 0 disables the reporting.
+	 * @param leakDetectionThreshold
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+	
+	public long getReclaimTimeout() {
+		return reclaimTimeout;
+	}
+	
+	/**
+	 * Set the time in milliseconds after which a leased connection without an active transaction is returned to the pool forcibly, 
+	 * 0 disables reclamation. Connections marked as not reclaimable, e.g. ones bound to a transaction, are never reclaimed.
+	 * @param reclaimTimeout
+	 */
+	public void setReclaimTimeout(long reclaimTimeout) {
+		this.reclaimTimeout = reclaimTimeout;
+	}
+	
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+	
+	/**
+	 * Set the time in milliseconds after which an unused idle connection is closed, 0 keeps idle connections open.
+	 * @param idleTimeout
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+	
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+	
+	/**
+	 * Set the maximum time in milliseconds a connection is kept open, 0 for no limit. 
+	 * Leased connections are closed when returned.
+	 * @param maxLifetime
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+	
+	public int getMinIdle() {
+		return minIdle;
+	}
+	
+	/**
+	 * Set the number of idle connections the housekeeper keeps open in advance.
+	 * @param minIdle
+	 */
+	public void setMinIdle(int minIdle) {
+		this.minIdle = minIdle;
+	}
+	
+	public long getConnectionTimeout() {
+		return connectionTimeout;
+	}
+	
+	/**
+	 * Set the maximum time in milliseconds to wait for a connection when the pool is exhausted.
+	 * @param connectionTimeout
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+	
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+	
+	/**
+	 * Set the time in milliseconds after which an idle connection is validated before being reused.
+	 * @param validationInterval
+	 */
+	public void setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+	
+	public boolean isLeakDetection() {
+		return leakDetection;
+	}
+	
+	/**
+	 * Enable recording of the stack trace of the borrower of each connection. 
+	 * The trace is logged when a connection is collected after it has been held for too long.
+	 * @param leakDetection
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+	
+	/**
+	 * Open new connections until the pool holds at least {@link #getMinIdle()} idle connections or the connection limit is reached.
+	 * This is done periodically by the housekeeping and can be called to open the connections ahead of the first request.
+	 * Each connection is opened holding a permit and a reserved slot below the limit, so that filling the pool concurrently 
+	 * with borrowers or another fill does not exceed the limit; filling stops when all permits are taken.
+	 */
+	public void fillIdleConnections(){
+		while(!closed && availableList.size() < minIdle && permits.tryAcquire()){
+			try {
+				if(!reserveConnection()){
+					return;
+				}
+				try {
+					offerIdleConnection(new ExtendedRepositoryConnection(this, repo, repo.getConnection()));
+				} catch (RepositoryException e) {
+					openConnections.decrementAndGet();
+					logger.error(e.getMessage(), e);
+					return;
+				}
+			} finally {
+				permits.release();
+			}
+		}
+	}
+	
+	/**
+	 * Atomically count a connection about to be opened, unless the connection limit is reached.
+	 * @return true if the slot was reserved
+	 */
+	private boolean reserveConnection(){
+		int open;
+		do {
+			open = openConnections.get();
+			if(open >= maxConnections){
+				return false;
+			}
+		} while(!openConnections.compareAndSet(open, open + 1));
+		return true;
+	}
+	
+	/**
+	 * 
+	 * @return the number of currently leased connections.
+	 */
+	public int getActiveConnections(){
+		return inUseList.size();
+	}
+	
+	/**
+	 * 
+	 * @return the number of open connections waiting to be reused.
+	 */
+	public int getIdleConnections(){
+		return availableList.size();
+	}
+	
+	/**
+	 * 
+	 * @return the estimated number of threads waiting for a connection.
+	 */
+	public int getWaitingThreads(){
+		return permits.getQueueLength();
+	}
+	
+	/**
+	 * 
+	 * @return the total number of connections handed out by the pool.
+	 */
+	public long getBorrowCount(){
+		return borrowCount.get();
+	}
+	
+	/**
+	 * 
+	 * @return the number of requests which timed out waiting for a connection.
+	 */
+	public long getTimeoutCount(){
+		return timeoutCount.get();
+	}
+	
+	/**
+	 * 
+	 * @return the average time in milliseconds spent waiting for a connection.
+	 */
+	public double getAverageWaitTime(){
+		long requests = borrowCount.get() + timeoutCount.get();
+		return requests > 0 ? totalWaitTime.get() / 1000000.0 / requests : 0;
+	}
+	
+	/**
+	 * 
+	 * @return the longest time in milliseconds spent waiting for a connection.
+	 */
+	public double getMaxWaitTime(){
+		return maxWaitTime.get() / 1000000.0;
+	}
+	
+	/**
+	 * 
+	 * @return the average number of borrowed connections per second since the pool was created.
+	 */
+	public double getBorrowRate(){
+		long elapsed = System.currentTimeMillis() - startTime;
+		return elapsed > 0 ? borrowCount.get() * 1000.0 / elapsed : 0;
+	}
+	
+	private class Housekeeper implements Runnable {
 
 		@Override
 		public void run() {
 			try {
-				while(true){
-					for(Entry<ExtendedRepositoryConnection, Long> entry : inUseList.entrySet()){
-						try {
-							if((System.currentTimeMillis() - entry.getValue() > timeOutToCollect) && !entry.getKey().isActive()){
-								entry.getKey().close();
-							}
-						} catch (RepositoryException e) {
-							logger.error(e.getMessage(),e);
+				long now = System.currentTimeMillis();
+				checkLeasedConnections(now);
+				evictIdleConnections(now);
+				fillIdleConnections();
+			} catch (Throwable e) {
+				//an exception would cancel all further executions
+				logger.error(e.getMessage(), e);
+			}
+		}
+		
+		/**
+		 * Report connections held for longer than the leak detection threshold and reclaim 
+		 * the ones held for longer than the reclaim timeout, unless they opted out.
+		 * @param now
+		 */
+		private void checkLeasedConnections(long now){
+			for(Entry<ExtendedRepositoryConnection, Long> entry : inUseList.entrySet()){
+				ExtendedRepositoryConnection connection = entry.getKey();
+				long held = now - entry.getValue();
+				if(leakDetectionThreshold > 0 && held > leakDetectionThreshold && !connection.isLeakReported()){
+					connection.setLeakReported(true);
+					StackTraceElement[] cause = connection.getCause();
+					logger.warn("Connection held for "+held+" ms, possible leak"+(cause != null ? ", borrowed at "+Arrays.toString(cause) : ""));
+				}
+				if(reclaimTimeout > 0 && held > reclaimTimeout && connection.isReclaimable()){
+					try {
+						if(!connection.isActive()){
+							logger.warn("Reclaiming connection held for "+held+" ms");
+							connection.close();
 						}
+					} catch (RepositoryException e) {
+						logger.error(e.getMessage(), e);
 					}
-				
-					Thread.sleep(5000);
-				} 
-			}catch (InterruptedException e) {
-					logger.info("Shutting down thread "+Thread.currentThread().getName());
-					Thread.currentThread().interrupt();
+				}
 			}
-			
 		}
 		
+		/**
+		 * Close idle connections which have exceeded their lifetime or have not been used for longer than the idle timeout, 
+		 * keeping at least the minimum number of idle connections.
+		 * @param now
+		 */
+		private void evictIdleConnections(long now){
+			int idle = availableList.size();
+			for(ExtendedRepositoryConnection connection : availableList){
+				boolean expired = maxLifetime > 0 && now - connection.getCreated() > maxLifetime;
+				boolean unused = idleTimeout > 0 && now - connection.getLastReturned() > idleTimeout && idle > minIdle;
+				if((expired || unused) && availableList.remove(connection)){
+					connection.destroy();
+					idle--;
+				}
+			}
+		}
+
 	}
 
 }
@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.exceptions;
+
+/**
+ * Thrown when no connection could be obtained from the pool within the configured timeout.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class ConnectionPoolTimeoutException extends SemanticDatabaseAccessException {
+
+	private static final long serialVersionUID = 4071637417938362071L;
+
+	public ConnectionPoolTimeoutException(String message){
+		super(message);
+	}
+
+}
@@ -25,5 +25,9 @@ public class SemanticDatabaseAccessException extends RuntimeException {
 	public SemanticDatabaseAccessException(Throwable e){
 		super(e);
 	}
+	
+	public SemanticDatabaseAccessException(String message){
+		super(message);
+	}
 
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.mapping;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.cglib.core.CodeGenerationException;
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.semantic.mapping.PropertyValueAccessor;
+import org.springframework.data.semantic.mapping.PropertyValueAccessorFactory;
+import org.springframework.data.semantic.support.mapping.ReflectivePropertyValueAccessorFactory.FieldValueAccessor;
+
+/**
+ * Creates {@link PropertyValueAccessor}s invoking the public getters and setters of a property through a class generated
+ * once per entity type ({@link FastClass}), so that no reflective call is made when accessing the property. Properties
+ * without a public getter or setter fall back to field access.
+ * @author konstantin.pentchev
+ *
+ */
+public class GeneratedPropertyValueAccessorFactory implements PropertyValueAccessorFactory {
+
+	private static final Logger logger = LoggerFactory.getLogger(GeneratedPropertyValueAccessorFactory.class);
+
+	private final ConcurrentMap<Class<?>, FastClass> fastClasses = new ConcurrentHashMap<Class<?>, FastClass>();
+
+	@Override
+	public PropertyValueAccessor createAccessor(Field field, PropertyDescriptor propertyDescriptor) {
+		FieldValueAccessor fieldAccessor = new FieldValueAccessor(field);
+		if(propertyDescriptor == null){
+			return fieldAccessor;
+		}
+		FastMethod getter = getFastMethod(propertyDescriptor.getReadMethod());
+		FastMethod setter = getFastMethod(propertyDescriptor.getWriteMethod());
+		if(getter == null && setter == null){
+			return fieldAccessor;
+		}
+		return new GeneratedValueAccessor(field, getter, setter, fieldAccessor);
+	}
+
+	private FastMethod getFastMethod(Method method){
+		if(method == null || !Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())){
+			return null;
+		}
+		try{
+			return getFastClass(method.getDeclaringClass()).getMethod(method);
+		} catch(CodeGenerationException e){
+			logger.debug("Could not generate accessor for {}, falling back to field access.", method);
+			return null;
+		}
+	}
+
+	private FastClass getFastClass(Class<?> type){
+		FastClass fastClass = fastClasses.get(type);
+		if(fastClass == null){
+			fastClass = FastClass.create(type);
+			FastClass existing = fastClasses.putIfAbsent(type, fastClass);
+			if(existing != null){
+				fastClass = existing;
+			}
+		}
+		return fastClass;
+	}
+
+	private static class GeneratedValueAccessor implements PropertyValueAccessor {
+
+		private static final Object[] NO_ARGS = new Object[0];
+
+		private final Field field;
+
+		private final FastMethod getter;
+
+		private final FastMethod setter;
+
+		private final PropertyValueAccessor fieldAccessor;
+
+		private GeneratedValueAccessor(Field field, FastMethod getter, FastMethod setter, PropertyValueAccessor fieldAccessor){
+			this.field = field;
+			this.getter = getter;
+			this.setter = setter;
+			this.fieldAccessor = fieldAccessor;
+		}
+
+		@Override
+		public Object getValue(Object entity) {
+			if(getter == null){
+				return fieldAccessor.getValue(entity);
+			}
+			try {
+				return getter.invoke(entity, NO_ARGS);
+			} catch (InvocationTargetException e) {
+				throw new MappingException("Could not read property " + field, e.getTargetException());
+			}
+		}
+
+		@Override
+		public void setValue(Object entity, Object value) {
+			if(setter == null){
+				fieldAccessor.setValue(entity, value);
+				return;
+			}
+			try {
+				setter.invoke(entity, new Object[]{value});
+			} catch (InvocationTargetException e) {
+				throw new MappingException("Could not set property " + field
+						+ " to value " + value, e.getTargetException());
+			}
+		}
+
+	}
+
+}
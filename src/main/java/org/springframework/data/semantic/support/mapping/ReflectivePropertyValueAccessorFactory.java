@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.mapping;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.semantic.mapping.PropertyValueAccessor;
+import org.springframework.data.semantic.mapping.PropertyValueAccessorFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Creates {@link PropertyValueAccessor}s reading and writing the property fields directly via reflection.
+ * The fields are made accessible once, when the accessor is created.
+ * @author konstantin.pentchev
+ *
+ */
+public class ReflectivePropertyValueAccessorFactory implements PropertyValueAccessorFactory {
+
+	@Override
+	public PropertyValueAccessor createAccessor(Field field, PropertyDescriptor propertyDescriptor) {
+		return new FieldValueAccessor(field);
+	}
+
+	static class FieldValueAccessor implements PropertyValueAccessor {
+
+		private final Field field;
+
+		FieldValueAccessor(Field field){
+			ReflectionUtils.makeAccessible(field);
+			this.field = field;
+		}
+
+		@Override
+		public Object getValue(Object entity) {
+			try {
+				return field.get(entity);
+			} catch (IllegalAccessException e) {
+				throw new MappingException("Could not access field " + field, e);
+			}
+		}
+
+		@Override
+		public void setValue(Object entity, Object value) {
+			try {
+				field.set(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new MappingException("Could not access field " + field
+						+ " for setting value " + value, e);
+			}
+		}
+
+	}
+
+}
@@ -35,6 +35,7 @@ import org.openrdf.model.impl.URIImpl;
 import org.springframework.data.mapping.context.AbstractMappingContext;
 import org.springframework.data.mapping.model.SimpleTypeHolder;
 import org.springframework.data.semantic.annotation.SemanticEntity;
+import org.springframework.data.semantic.mapping.PropertyValueAccessorFactory;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 import org.springframework.data.semantic.support.util.ValueUtils;
@@ -61,6 +62,7 @@ public class SemanticMappingContext  extends AbstractMappingContext<SemanticPers
 	private Namespace defaultNS;
 	private Map<String, String> prefix2Namespace;
 	private final boolean explicitSupertypes;
+	private PropertyValueAccessorFactory propertyValueAccessorFactory = new GeneratedPropertyValueAccessorFactory();
 	
 	public SemanticMappingContext(List<? extends Namespace> namespaces, Namespace defaultNS, boolean explicitSupertypes){
 		super();
@@ -73,6 +75,21 @@ public class SemanticMappingContext  extends AbstractMappingContext<SemanticPers
 		this.explicitSupertypes = explicitSupertypes;
 	}
 	
+	/**
+	 * @return the factory of the accessors used to read and write the persistent properties
+	 */
+	public PropertyValueAccessorFactory getPropertyValueAccessorFactory() {
+		return propertyValueAccessorFactory;
+	}
+
+	/**
+	 * Set the factory of the property accessors. Only properties of entities created afterwards are affected.
+	 * @param propertyValueAccessorFactory
+	 */
+	public void setPropertyValueAccessorFactory(PropertyValueAccessorFactory propertyValueAccessorFactory) {
+		this.propertyValueAccessorFactory = propertyValueAccessorFactory;
+	}
+	
 	public boolean isSemanticPersistentEntity(Class<?> clazz){
 		return clazz.isAnnotationPresent(SemanticEntity.class);
 	}
@@ -21,8 +21,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -32,7 +32,6 @@ import org.springframework.data.annotation.Transient;
 import org.springframework.data.mapping.Association;
 import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.model.AbstractPersistentProperty;
-import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mapping.model.SimpleTypeHolder;
 import org.springframework.data.semantic.annotation.Context;
 import org.springframework.data.semantic.annotation.Datatype;
@@ -44,6 +43,8 @@ import org.springframework.data.semantic.annotation.Predicate;
 import org.springframework.data.semantic.annotation.RelatedTo;
 import org.springframework.data.semantic.annotation.ResourceId;
 import org.springframework.data.semantic.mapping.MappingPolicy;
+import org.springframework.data.semantic.mapping.PropertyValueAccessor;
+import org.springframework.data.semantic.mapping.PropertyValueAccessorFactory;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 import org.springframework.data.semantic.support.Direction;
@@ -61,11 +62,20 @@ public class SemanticPersistentPropertyImpl extends
 		AbstractPersistentProperty<SemanticPersistentProperty> implements
 		SemanticPersistentProperty {
 
-	private Map<Class<? extends Annotation>, ? extends Annotation> annotations;
-	private boolean isIdProperty;
-	private SemanticMappingContext mappingContext;
-	private String aliasPredicate;
-	private String bindingName;
+	private final Map<Class<? extends Annotation>, ? extends Annotation> annotations;
+	private final boolean isIdProperty;
+	private final SemanticMappingContext mappingContext;
+	private final String aliasPredicate;
+	private final URI aliasPredicateURI;
+	private final String bindingName;
+	private final List<String> languages;
+	private final String datatype;
+	private final Direction direction;
+	private final MappingPolicy mappingPolicy;
+	private final PropertyValueAccessor accessor;
+	private volatile URI predicate;
+	private volatile SemanticPersistentProperty inverseProperty;
+	private volatile boolean inversePropertyResolved;
 
 	public SemanticPersistentPropertyImpl(Field field,
 			PropertyDescriptor propertyDescriptor,
@@ -82,20 +92,33 @@ public class SemanticPersistentPropertyImpl extends
 		annotations = extractAnnotations(field);
 		isIdProperty = annotations.containsKey(ResourceId.class);
 		this.mappingContext = mappingContext;
+		this.aliasPredicate = "urn:"+getOwner().getType().getSimpleName().toLowerCase()+":field:"+field.getName();
+		this.aliasPredicateURI = new URIImpl(aliasPredicate);
+		this.bindingName = getOwner().getType().getSimpleName().toLowerCase()+"_"+getName();
+		this.languages = extractLanguages();
+		Datatype dt = getAnnotation(Datatype.class);
+		this.datatype = dt != null ? dt.value().toString() : null;
+		this.direction = isAssociation() ? findAnnotation(RelatedTo.class).direction() : Direction.OUTGOING;
+		this.mappingPolicy = annotations.containsKey(Fetch.class) ? new MappingPolicyImpl(Arrays.asList(((Fetch) annotations.get(Fetch.class)).value())) : MappingPolicyImpl.DEFAULT_POLICY;
+		//the predicate can only be resolved when either a namespace or the mapping context is available
+		if(mappingContext != null || getOwnerNamespace() != null){
+			this.predicate = resolvePredicate();
+		}
+		PropertyValueAccessorFactory accessorFactory = mappingContext != null ? mappingContext.getPropertyValueAccessorFactory() : new ReflectivePropertyValueAccessorFactory();
+		this.accessor = accessorFactory.createAccessor(field, propertyDescriptor);
 	}
 
 	@Override
 	public String getAliasPredicate() {
-		if(aliasPredicate == null){
-			aliasPredicate = "urn:"+getOwner().getType().getSimpleName().toLowerCase()+":field:"+field.getName();
-		}
 		return aliasPredicate;
 	}
+
+	@Override
+	public URI getAliasPredicateURI() {
+		return aliasPredicateURI;
+	}
 	
 	public String getBindingName(){
-		if(bindingName == null){
-			bindingName = getOwner().getType().getSimpleName().toLowerCase()+"_"+getName();
-		}
 		return bindingName;
 	}
 
@@ -119,6 +142,13 @@ public class SemanticPersistentPropertyImpl extends
 
 	@Override
 	public URI getPredicate() {
+		if(predicate == null){
+			predicate = resolvePredicate();
+		}
+		return predicate;
+	}
+
+	private URI resolvePredicate() {
 		if (hasPredicate()) {
 			String predicate = getAnnotation(Predicate.class).value();
 			if(ValueUtils.isAbsoluteURI(predicate)){
@@ -131,18 +161,31 @@ public class SemanticPersistentPropertyImpl extends
 	}
 
 	private URI resolveWithNamespace(String name) {
-		if(this.getOwner() instanceof SemanticPersistentEntity){
-			SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) this.getOwner();
-			URI namespace = persistentEntity.getNamespace();
-			if(namespace != null){
-				return ValueUtils.createUri(namespace.stringValue(), name);
-			}
+		URI namespace = getOwnerNamespace();
+		if(namespace != null){
+			return ValueUtils.createUri(namespace.stringValue(), name);
 		}
 		return mappingContext.resolveURI(name);
 	}
 
+	private URI getOwnerNamespace() {
+		if(this.getOwner() instanceof SemanticPersistentEntity){
+			return ((SemanticPersistentEntity<?>) this.getOwner()).getNamespace();
+		}
+		return null;
+	}
+
 	@Override
 	public SemanticPersistentProperty getInverseProperty() {
+		//the associated entity may not be known to the mapping context while this property is created
+		if(!inversePropertyResolved){
+			inverseProperty = resolveInverseProperty();
+			inversePropertyResolved = true;
+		}
+		return inverseProperty;
+	}
+
+	private SemanticPersistentProperty resolveInverseProperty() {
 		if(this.isAssociation()){
 			RelatedTo relatedTo = findAnnotation(RelatedTo.class);
 			String mappedProperty = relatedTo.mappedProperty();
@@ -161,15 +204,19 @@ public class SemanticPersistentPropertyImpl extends
 
 	@Override
 	public List<String> getLanguage() {
+		return languages;
+	}
+
+	private List<String> extractLanguages() {
 		final Language lang = getAnnotation(Language.class);
 		if (lang != null) {
-			List<String> languages = new LinkedList<String>();
+			List<String> languages = new ArrayList<String>(lang.value().length);
 			for (Languages l : lang.value()) {
 				languages.add(l.toString());
 			}
-			return languages;
+			return Collections.unmodifiableList(languages);
 		}
-		return new ArrayList<String>(0);
+		return Collections.emptyList();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -184,11 +231,7 @@ public class SemanticPersistentPropertyImpl extends
 
 	@Override
 	public String getDatatype() {
-		final Datatype dt = getAnnotation(Datatype.class);
-		if (dt != null) {
-			return dt.value().toString();
-		}
-		return null;
+		return datatype;
 	}
 
 	@Override
@@ -203,28 +246,12 @@ public class SemanticPersistentPropertyImpl extends
 	}
 
 	private Object getValueFromEntity(Object entity) {
-		try {
-			final Field field = getField();
-			if (!field.isAccessible()) {
-				field.setAccessible(true);
-			}
-			return field.get(entity);
-		} catch (IllegalAccessException e) {
-			throw new MappingException("Could not access field " + field, e);
-		}
+		return accessor.getValue(entity);
 	}
 
 	@Override
 	public void setValue(Object entity, Object newValue) {
-		try {
-			if (!field.isAccessible()) {
-				field.setAccessible(true);
-			}
-			field.set(entity, newValue);
-		} catch (IllegalAccessException e) {
-			throw new MappingException("Could not access field " + field
-					+ " for setting value " + newValue + " on " + this, e);
-		}
+		accessor.setValue(entity, newValue);
 	}
 
 	@Override
@@ -234,12 +261,7 @@ public class SemanticPersistentPropertyImpl extends
 
 	@Override
 	public MappingPolicy getMappingPolicy() {
-		if (annotations.containsKey(Fetch.class)){
-            return new MappingPolicyImpl(Arrays.asList(((Fetch) annotations.get(Fetch.class)).value()));
-		}
-        else {
-        	return MappingPolicyImpl.DEFAULT_POLICY;
-        }
+		return mappingPolicy;
 	}
 	
 	@Override
@@ -277,13 +299,7 @@ public class SemanticPersistentPropertyImpl extends
 
 	@Override
 	public Direction getDirection() {
-		if(isAssociation()){
-			RelatedTo relatedTo = findAnnotation(RelatedTo.class);
-			return relatedTo.direction();
-		}
-		else{
-			return Direction.OUTGOING;
-		}
+		return direction;
 	}
 
 	@Override
@@ -24,6 +24,8 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.semantic.core.ClosableIterable;
+import org.springframework.data.semantic.core.KeysetSlice;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.repository.SemanticRepository;
 
@@ -51,13 +53,22 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 	
 	@Override
 	public List<T> findAll(Sort sort) {
-		// TODO Auto-generated method stub
-		return null;
+		return this.operations.findAll(clazz, sort);
 	}
 
 	@Override
 	public Page<T> findAll(Pageable pageable) {
-		return new PageImpl<T>(this.operations.findAll(clazz, pageable), pageable, this.count());
+		List<T> content = this.operations.findAll(clazz, pageable);
+		//the total is known without counting if the page is not full
+		if(content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())){
+			return new PageImpl<T>(content, pageable, pageable.getOffset() + content.size());
+		}
+		return new PageImpl<T>(content, pageable, this.count());
+	}
+	
+	@Override
+	public KeysetSlice<T> findAllAfter(URI lastId, int size) {
+		return this.operations.findAllAfter(clazz, lastId, size);
 	}
 
 	@Override
@@ -82,14 +93,16 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 
 	@Override
 	public List<T> findAll(Iterable<URI> ids) {
-		List<T> result = new LinkedList<T>();
+		List<URI> idList = new LinkedList<URI>();
 		for(URI id : ids){
-			T entity = this.operations.find(id, clazz);
-			if(entity != null){
-				result.add(entity);
-			}
+			idList.add(id);
 		}
-		return result;
+		return this.operations.find(idList, clazz);
+	}
+
+	@Override
+	public ClosableIterable<T> streamAll() {
+		return this.operations.streamAll(clazz);
 	}
 
 	@Override
@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.openrdf.model.URI;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.Parameter;
 import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.Parameters;
@@ -32,44 +34,68 @@ import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.support.convert.ParameterizedQuery;
+import org.springframework.data.semantic.support.convert.PartTreeToQueryConverter;
 
 public abstract class AbstractSemanticRepositoryQuery implements RepositoryQuery {
 	
 	protected SemanticOperationsCRUD operations;
+	protected final SemanticQueryMethod queryMethod;
 	private final String methodName;
 	protected final Class<?> domainClass;
 	private final Parameters<?, ?> parameters;
+	private PartTreeToQueryConverter queryConverter;
 	
 	public abstract Object doExecute(Map<String, Object> params);
 	
+	/**
+	 * Execute the query with the resolved bindable parameters and access to the special ones, e.g. {@link Sort} and {@link Pageable}.
+	 * Ignores the special parameters unless overridden.
+	 * @param params
+	 * @param accessor
+	 * @return
+	 */
+	protected Object doExecute(Map<String, Object> params, ParameterAccessor accessor) {
+		return doExecute(params);
+	}
+	
 	public abstract String getPrefix();
 	
-	public AbstractSemanticRepositoryQuery(SemanticOperationsCRUD operations, String methodName, Class<?> domainClass, Parameters<?, ?> parameters) {
+	public AbstractSemanticRepositoryQuery(SemanticOperationsCRUD operations, SemanticQueryMethod queryMethod) {
 		this.operations = operations;
-		this.methodName = methodName;
-		this.domainClass = domainClass;
-		this.parameters = parameters;
+		this.queryMethod = queryMethod;
+		this.methodName = queryMethod.getName();
+		this.domainClass = queryMethod.getDomainClass();
+		this.parameters = queryMethod.getParameters();
 	}
 	
 	private Map<String, Object> resolveParameters(Map<Parameter, Object> parameters) {
         Map<String, Object> params = new HashMap<String, Object>();
+        int position = 0;
         for (Map.Entry<Parameter, Object> entry : parameters.entrySet()) {
-        	params.put(getParameterName(entry.getKey()), resolveValue(entry.getValue()));
+        	params.put(getParameterName(entry.getKey(), position++), resolveValue(entry.getValue()));
         }
         return params;
     }
 	
-	private String getParameterName(Parameter parameter) {
+	private String getParameterName(Parameter parameter, int position) {
         final String parameterName = parameter.getName();
         if (parameterName != null) {
             return parameterName;
         }
+        List<String> propertyNames = queryMethod.getPropertyNames();
+        if (position < propertyNames.size()) {
+        	return propertyNames.get(position);
+        }
         String methodNameParams = methodName.substring(methodName.indexOf(getPrefix())+getPrefix().length());
         String[] paramNames = methodNameParams.split("And|Or");
         return paramNames[parameter.getIndex()].toLowerCase();
     }
 	
 	private Object resolveValue(Object value){
+		if(value == null){
+			return null;
+		}
 		if(value instanceof Collection<?> || value.getClass().isArray()){
 			Collection<?> values;
 			if(value.getClass().isArray()){
@@ -109,16 +135,72 @@ public abstract class AbstractSemanticRepositoryQuery implements RepositoryQuery
         return parameters;
     }
     
+    /**
+     * @param accessor
+     * @return the values of the bindable parameters in their order, with entities resolved to their ids
+     */
+    protected List<Object> getBindableValues(ParameterAccessor accessor) {
+    	List<Object> values = new ArrayList<Object>();
+    	for (Object value : accessor) {
+    		values.add(resolveValue(value));
+    	}
+    	return values;
+    }
+    
+    /**
+     * Select the entities matching the query, compiling the method name to SPARQL filters when simple property values do
+     * not suffice.
+     * @param params
+     * @param accessor
+     * @param sort - may be null
+     * @param offset - may be null
+     * @param limit - may be null
+     * @return
+     */
+    protected List<Object> selectEntities(Map<String, Object> params, ParameterAccessor accessor, Sort sort, Integer offset, Integer limit) {
+    	if (queryMethod.requiresFilters()) {
+    		ParameterizedQuery query = getQueryConverter().getQueryForIds(getPersistentEntity(), queryMethod.getTree(), getBindableValues(accessor), sort, offset, limit);
+    		return operations.findByQuery(domainClass, query.getQuery(), query.getBindings());
+    	}
+    	return operations.findByProperty(domainClass, params, sort, offset, limit);
+    }
+    
+    /**
+     * Count the entities matching the query, compiling the method name to SPARQL filters when simple property values do
+     * not suffice.
+     * @param params
+     * @param accessor
+     * @return
+     */
+    protected Long countEntities(Map<String, Object> params, ParameterAccessor accessor) {
+    	if (queryMethod.requiresFilters()) {
+    		ParameterizedQuery query = getQueryConverter().getQueryForCount(getPersistentEntity(), queryMethod.getTree(), getBindableValues(accessor));
+    		return operations.countByQuery(query.getQuery(), query.getBindings());
+    	}
+    	return operations.countByProperty(domainClass, params);
+    }
+    
+    private PartTreeToQueryConverter getQueryConverter() {
+    	if (queryConverter == null) {
+    		queryConverter = new PartTreeToQueryConverter(operations.getSemanticMappingContext());
+    	}
+    	return queryConverter;
+    }
+    
+    private SemanticPersistentEntity<?> getPersistentEntity() {
+    	return operations.getSemanticMappingContext().getPersistentEntity(domainClass);
+    }
+    
     @Override
 	public Object execute(Object[] parameters) {
 		final ParameterAccessor accessor = new ParametersParameterAccessor(this.parameters, parameters);
 		Map<String, Object> params = resolveParameters(getParameterValues(accessor));
-		return doExecute(params);
+		return doExecute(params, accessor);
 	}
 
 	@Override
 	public QueryMethod getQueryMethod() {
-		return null;
+		return queryMethod;
 	}
 
 }
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.repository.query;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.openrdf.model.Value;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.impl.MapBindingSet;
+import org.openrdf.query.parser.ParsedBooleanQuery;
+import org.openrdf.query.parser.ParsedGraphQuery;
+import org.openrdf.query.parser.ParsedQuery;
+import org.openrdf.query.parser.QueryParserUtil;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.ParameterAccessor;
+import org.springframework.data.repository.query.ParametersParameterAccessor;
+import org.springframework.data.repository.query.QueryCreationException;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.semantic.annotation.SemanticEntity;
+import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
+import org.springframework.data.semantic.core.SemanticOperationsCRUD;
+import org.springframework.data.semantic.repository.Query;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Executes the SPARQL query of a {@link Query} annotated repository method. The query is parsed once, when the repository 
+ * is created, to validate it and to determine the shape of its results. On execution the method arguments are bound to the 
+ * query as variables, so its text does not change and the connections reuse the prepared query.
+ * 
+ * @author konstantin.pentchev
+ *
+ */
+public class AnnotatedSemanticRepositoryQuery implements RepositoryQuery {
+	
+	private enum ResultKind {
+		ENTITIES, IDS, PROJECTIONS, BOOLEAN
+	}
+	
+	private final SemanticOperationsCRUD operations;
+	
+	private final SemanticQueryMethod queryMethod;
+	
+	private final String query;
+	
+	private final String[] bindingNames;
+	
+	private final Class<?> resultType;
+	
+	private final ResultKind resultKind;
+	
+	public AnnotatedSemanticRepositoryQuery(SemanticOperationsCRUD operations, SemanticQueryMethod queryMethod) {
+		this.operations = operations;
+		this.queryMethod = queryMethod;
+		this.query = queryMethod.getAnnotatedQuery();
+		if(queryMethod.isPageQuery() || queryMethod.isSliceQuery() || queryMethod.getParameters().hasSpecialParameter()){
+			throw QueryCreationException.create(queryMethod, "Paging and sorting are not supported by annotated queries, use ORDER BY, OFFSET and LIMIT instead.");
+		}
+		ParsedQuery parsedQuery;
+		try {
+			parsedQuery = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, query, null);
+		} catch (MalformedQueryException e) {
+			throw QueryCreationException.create(queryMethod, e);
+		}
+		this.resultType = ClassUtils.resolvePrimitiveIfNecessary(queryMethod.getReturnedObjectType());
+		boolean entityResult = resultType.isAnnotationPresent(SemanticEntity.class);
+		if(parsedQuery instanceof ParsedBooleanQuery){
+			if(!Boolean.class.equals(resultType)){
+				throw QueryCreationException.create(queryMethod, "An ask query must return a boolean.");
+			}
+			this.resultKind = ResultKind.BOOLEAN;
+		}
+		else if(parsedQuery instanceof ParsedGraphQuery){
+			if(!entityResult){
+				throw QueryCreationException.create(queryMethod, "A construct query must return entities.");
+			}
+			this.resultKind = ResultKind.ENTITIES;
+		}
+		else if(entityResult){
+			if(!parsedQuery.getTupleExpr().getBindingNames().contains("id")){
+				throw QueryCreationException.create(queryMethod, "A select query returning entities must bind their ids as ?id.");
+			}
+			this.resultKind = ResultKind.IDS;
+		}
+		else{
+			this.resultKind = ResultKind.PROJECTIONS;
+		}
+		this.bindingNames = new String[queryMethod.getParameters().getBindableParameters().getNumberOfParameters()];
+		int position = 0;
+		for(Parameter parameter : queryMethod.getParameters().getBindableParameters()){
+			bindingNames[position] = parameter.getName() != null ? parameter.getName() : String.valueOf(position + 1);
+			position++;
+		}
+	}
+
+	@Override
+	public Object execute(Object[] parameters) {
+		ParameterAccessor accessor = new ParametersParameterAccessor(queryMethod.getParameters(), parameters);
+		MapBindingSet bindings = new MapBindingSet();
+		int position = 0;
+		for(Object value : accessor){
+			//an unbound variable would match any value
+			if(value == null){
+				throw new IllegalArgumentException("Cannot bind null to variable ?"+bindingNames[position]+" of query "+query+".");
+			}
+			bindings.addBinding(bindingNames[position], toValue(value));
+			position++;
+		}
+		List<?> results;
+		switch (resultKind) {
+		case BOOLEAN:
+			return operations.askByQuery(query, bindings);
+		case ENTITIES:
+			results = operations.findByGraphQuery(resultType, query, bindings);
+			break;
+		case IDS:
+			results = operations.findByQuery(resultType, query, bindings);
+			break;
+		default:
+			results = operations.selectByQuery(resultType, query, bindings);
+			break;
+		}
+		if(queryMethod.isCollectionQuery()){
+			return results;
+		}
+		return results.isEmpty() ? null : results.get(0);
+	}
+	
+	private Value toValue(Object value){
+		if(value instanceof Collection<?> || value.getClass().isArray()){
+			throw new IllegalArgumentException("Cannot bind the collection "+value+" to a single variable of query "+query+".");
+		}
+		if(operations.getSemanticMappingContext().isSemanticPersistentEntity(value.getClass())){
+			return operations.getSemanticMappingContext().getPersistentEntity(value.getClass()).getResourceId(value);
+		}
+		return ObjectToLiteralConverter.getInstance().convert(value);
+	}
+
+	@Override
+	public QueryMethod getQueryMethod() {
+		return queryMethod;
+	}
+
+}
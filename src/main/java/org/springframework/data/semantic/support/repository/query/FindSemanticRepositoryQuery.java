@@ -15,25 +15,88 @@
  */
 package org.springframework.data.semantic.support.repository.query;
 
+import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 
 public class FindSemanticRepositoryQuery extends AbstractSemanticRepositoryQuery{
 	
 	private static final String PREFIX = "By";
 
-	public FindSemanticRepositoryQuery(SemanticOperationsCRUD operations,
-			String queryMethodName, Class<?> domainClass,
-			Parameters<?, ?> parameters) {
-		super(operations, queryMethodName, domainClass, parameters);
+	public FindSemanticRepositoryQuery(SemanticOperationsCRUD operations, SemanticQueryMethod queryMethod) {
+		super(operations, queryMethod);
 	}
 
 	@Override
 	public Object doExecute(Map<String, Object> params) {
 		return operations.findByProperty(this.domainClass, params);
 	}
+	
+	/**
+	 * Push the sort, the page and the limit of the method (e.g. findFirst10By...) into the query and shape the results according
+	 * to the return type of the method.
+	 */
+	@Override
+	protected Object doExecute(Map<String, Object> params, ParameterAccessor accessor) {
+		Pageable pageable = accessor.getPageable();
+		Sort sort = queryMethod.getSort() != null ? queryMethod.getSort().and(accessor.getSort()) : accessor.getSort();
+		Integer maxResults = queryMethod.getMaxResults();
+		boolean single = !queryMethod.isCollectionQuery() && !queryMethod.isPageQuery() && !queryMethod.isSliceQuery();
+		if(pageable == null && sort == null && maxResults == null && !single && !queryMethod.isSliceQuery()){
+			return queryMethod.requiresFilters() ? selectEntities(params, accessor, null, null, null) : doExecute(params);
+		}
+		Integer offset = null;
+		Integer limit = maxResults;
+		if(pageable != null){
+			offset = pageable.getOffset();
+			limit = pageable.getPageSize();
+			if(maxResults != null){
+				limit = Math.max(0, Math.min(limit, maxResults - offset));
+			}
+		}
+		if(single){
+			limit = 1;
+		}
+		if(queryMethod.isPageQuery()){
+			List<Object> content = selectEntities(params, accessor, sort, offset, limit);
+			if(pageable == null){
+				return new PageImpl<Object>(content);
+			}
+			long total;
+			//the total is known without counting if the page is not full
+			if(content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())){
+				total = pageable.getOffset() + content.size();
+			}
+			else{
+				total = countEntities(params, accessor);
+				if(maxResults != null){
+					total = Math.min(total, maxResults);
+				}
+			}
+			return new PageImpl<Object>(content, pageable, total);
+		}
+		if(queryMethod.isSliceQuery()){
+			//one more entity tells whether there is a next slice, unless the limit of the method has been reached
+			boolean lookAhead = limit != null && (maxResults == null || (offset != null ? offset : 0) + limit < maxResults);
+			List<Object> content = selectEntities(params, accessor, sort, offset, lookAhead ? limit + 1 : limit);
+			boolean hasNext = lookAhead && content.size() > limit;
+			if(hasNext){
+				content = content.subList(0, limit);
+			}
+			return new SliceImpl<Object>(content, pageable, hasNext);
+		}
+		List<Object> content = selectEntities(params, accessor, sort, offset, limit);
+		if(single){
+			return content.isEmpty() ? null : content.get(0);
+		}
+		return content;
+	}
 
 	@Override
 	public String getPrefix() {
@@ -16,36 +16,157 @@
 package org.springframework.data.semantic.support.repository.query;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryCreationException;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.Part.IgnoreCaseType;
+import org.springframework.data.repository.query.parser.Part.Type;
 import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.query.parser.PartTree.OrPart;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
+import org.springframework.data.semantic.repository.Query;
 
 public class SemanticQueryMethod extends QueryMethod {
 	
+	private static final Pattern LIMITING_SUBJECT = Pattern.compile("^(?:find|read|get|query)(\\p{Lu}.*?)??By");
+	
+	private static final Pattern LIMITING_KEYWORD = Pattern.compile("^(?:Distinct)?(?:First|Top)(\\d*)(?:\\p{Lu}.*)?$");
+	
+	private final String annotatedQuery;
+	
 	private PartTree tree;
 	
+	private final Integer maxResults;
+	
+	private final List<String> propertyNames;
+	
+	private final boolean requiresFilters;
+	
 	public SemanticQueryMethod(Method method, RepositoryMetadata metadata) {
 		super(method, metadata);
+		Query query = AnnotationUtils.findAnnotation(method, Query.class);
+		this.annotatedQuery = query != null ? query.value() : null;
+		List<String> names = new ArrayList<String>();
+		boolean filters = false;
+		if(annotatedQuery != null){
+			//the method name of an annotated query is not parsed
+			this.maxResults = null;
+			this.propertyNames = Collections.unmodifiableList(names);
+			this.requiresFilters = filters;
+			return;
+		}
 		this.tree = new PartTree(method.getName(), metadata.getDomainType());
+		this.maxResults = parseMaxResults(method.getName());
+		for(Part part : tree.getParts()){
+			if(Type.NEAR.equals(part.getType()) || Type.WITHIN.equals(part.getType())){
+				throw QueryCreationException.create(this, "Unsupported keyword "+part.getType()+".");
+			}
+			filters |= !Type.SIMPLE_PROPERTY.equals(part.getType()) || !IgnoreCaseType.NEVER.equals(part.shouldIgnoreCase()) 
+					|| part.getProperty().hasNext();
+			for(int i = 0; i < part.getNumberOfArguments(); i++){
+				names.add(part.getProperty().getSegment());
+			}
+		}
+		Iterator<OrPart> orParts = tree.iterator();
+		if(orParts.hasNext()){
+			orParts.next();
+			filters |= orParts.hasNext();
+		}
+		this.propertyNames = Collections.unmodifiableList(names);
+		this.requiresFilters = filters;
+	}
+	
+	/**
+	 * Parse the limit of a find method like findFirstByName or findTop10ByName; First and Top without a number limit to one result.
+	 * The keyword has to start the subject and be followed by an upper case letter or By, so that e.g. findTopicsByName is not limited.
+	 * @param methodName
+	 * @return the limit or null if the method name does not contain one
+	 */
+	static Integer parseMaxResults(String methodName){
+		Matcher subject = LIMITING_SUBJECT.matcher(methodName);
+		if(!subject.find() || subject.group(1) == null){
+			return null;
+		}
+		Matcher keyword = LIMITING_KEYWORD.matcher(subject.group(1));
+		if(!keyword.matches()){
+			return null;
+		}
+		return keyword.group(1).isEmpty() ? 1 : Integer.valueOf(keyword.group(1));
+	}
+	
+	@Override
+	public Class<?> getDomainClass() {
+		return super.getDomainClass();
+	}
+	
+	/**
+	 * @return the query of the {@link Query} annotation of the method or null if the query is derived from the method name
+	 */
+	public String getAnnotatedQuery() {
+		return annotatedQuery;
+	}
+	
+	/**
+	 * @return the maximum number of results defined by the method name or null if not limited
+	 */
+	public Integer getMaxResults() {
+		return maxResults;
+	}
+	
+	/**
+	 * @return the static sort defined by an OrderBy clause in the method name or null
+	 */
+	public Sort getSort() {
+		return tree != null ? tree.getSort() : null;
+	}
+	
+	/**
+	 * @return the parsed method name
+	 */
+	public PartTree getTree() {
+		return tree;
+	}
+	
+	/**
+	 * @return true if the method name uses keywords other than plain equality, ignores case, navigates nested properties or 
+	 * combines its parts with Or, and therefore has to be compiled to SPARQL filters
+	 */
+	public boolean requiresFilters() {
+		return requiresFilters;
+	}
+	
+	/**
+	 * @return the names of the properties the bindable parameters of the method are matched against, in order of the parameters
+	 */
+	public List<String> getPropertyNames() {
+		return propertyNames;
 	}
 	
 	public RepositoryQuery createQuery(SemanticOperationsCRUD operations){
+		if(annotatedQuery != null){
+			return new AnnotatedSemanticRepositoryQuery(operations, this);
+		}
 		if(tree.isCountProjection()){
-			return new CountSemanticRepositoryQuery(operations, this.getName(), this.getDomainClass(), this.getParameters());
+			return new CountSemanticRepositoryQuery(operations, this);
 		}
 		else if(tree.isDelete()){
 			//TODO
 			return null;
 		}
-		else if(tree.isDistinct()){
-			//TODO
-			return null;
-		}
 		else {
-			return new FindSemanticRepositoryQuery(operations, this.getName(), this.getDomainClass(), this.getParameters());
+			//the ids of the entities are selected distinctly, so distinct queries are plain finds
+			return new FindSemanticRepositoryQuery(operations, this);
 		}
 		
 	}
@@ -0,0 +1,546 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.AbstractModel;
+import org.openrdf.model.impl.ContextStatementImpl;
+import org.openrdf.model.impl.FilteredModel;
+import org.openrdf.model.impl.NamespaceImpl;
+import org.openrdf.model.impl.StatementImpl;
+
+/**
+ * Memory efficient {@link Model} for read-mostly use. Every distinct {@link Value} is stored once in a dictionary
+ * and the statements are kept as quadruples of dictionary ids in a single int array. Lookups use a hash table
+ * of statement positions and subject/predicate indexes which are sorted lazily upon the first filter after a modification.
+ * Statements are materialized on iteration and keep their insertion order; removed statements are compacted on the next addition.
+ *
+ * @author konstantin.pentchev
+ *
+ */
+public class CompactModel extends AbstractModel {
+
+	private static final long serialVersionUID = 4216301563431458617L;
+
+	private static final int NO_CONTEXT = -1;
+
+	private static final int ANY = -1;
+
+	private static final int[] EMPTY = new int[0];
+
+	private Set<Namespace> namespaces;
+
+	private Value[] values;
+	private int valueCount;
+	private Map<Value, Integer> valueIds;
+
+	//subject, predicate, object and context id of each statement
+	private int[] quads;
+	private int statementCount;
+	private int removedCount;
+	private BitSet removed;
+
+	//statement position + 1 per slot, 0 for empty slots
+	private int[] table;
+
+	private transient volatile int[] subjectIndex;
+	private transient volatile int[] predicateIndex;
+
+	public CompactModel(){
+		this(16);
+	}
+
+	public CompactModel(int capacity){
+		capacity = Math.max(capacity, 4);
+		this.values = new Value[capacity];
+		this.valueIds = new HashMap<Value, Integer>(capacity * 2);
+		this.quads = new int[capacity * 4];
+		this.table = new int[tableSize(capacity)];
+	}
+
+	public CompactModel(Collection<? extends Statement> statements){
+		this(statements.size());
+		addAll(statements);
+		if(statements instanceof Model){
+			for(Namespace namespace : ((Model) statements).getNamespaces()){
+				setNamespace(namespace);
+			}
+		}
+	}
+
+	@Override
+	public Set<Namespace> getNamespaces() {
+		if(namespaces == null){
+			namespaces = new LinkedHashSet<Namespace>();
+		}
+		return namespaces;
+	}
+
+	@Override
+	public Namespace getNamespace(String prefix) {
+		if(namespaces != null){
+			for(Namespace namespace : namespaces){
+				if(namespace.getPrefix().equals(prefix)){
+					return namespace;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Namespace setNamespace(String prefix, String name) {
+		Namespace result = getNamespace(prefix);
+		if(result == null || !result.getName().equals(name)){
+			result = new NamespaceImpl(prefix, name);
+			setNamespace(result);
+		}
+		return result;
+	}
+
+	@Override
+	public void setNamespace(Namespace namespace) {
+		removeNamespace(namespace.getPrefix());
+		getNamespaces().add(namespace);
+	}
+
+	@Override
+	public Namespace removeNamespace(String prefix) {
+		Namespace namespace = getNamespace(prefix);
+		if(namespace != null){
+			namespaces.remove(namespace);
+		}
+		return namespace;
+	}
+
+	@Override
+	public int size() {
+		return statementCount - removedCount;
+	}
+
+	@Override
+	public boolean add(Resource subj, URI pred, Value obj, Resource... contexts) {
+		if(subj == null || pred == null || obj == null){
+			throw new UnsupportedOperationException("Incomplete statement");
+		}
+		if(removedCount > 0 && removedCount >= statementCount / 2){
+			compact();
+		}
+		int s = intern(subj);
+		int p = intern(pred);
+		int o = intern(obj);
+		if(contexts == null || contexts.length == 0){
+			return add(s, p, o, NO_CONTEXT);
+		}
+		boolean changed = false;
+		for(Resource context : contexts){
+			changed |= add(s, p, o, context == null ? NO_CONTEXT : intern(context));
+		}
+		return changed;
+	}
+
+	private boolean add(int s, int p, int o, int c){
+		if(find(s, p, o, c) >= 0){
+			return false;
+		}
+		if((statementCount + 1) * 4 > quads.length){
+			quads = Arrays.copyOf(quads, quads.length * 2);
+		}
+		int position = statementCount++;
+		quads[position * 4] = s;
+		quads[position * 4 + 1] = p;
+		quads[position * 4 + 2] = o;
+		quads[position * 4 + 3] = c;
+		if(statementCount * 2 > table.length){
+			rehash(tableSize(statementCount));
+		}
+		else{
+			insert(position);
+		}
+		subjectIndex = null;
+		predicateIndex = null;
+		return true;
+	}
+
+	@Override
+	public boolean contains(Resource subj, URI pred, Value obj, Resource... contexts) {
+		return iterate(subj, pred, obj, contexts).hasNext();
+	}
+
+	@Override
+	public boolean remove(Resource subj, URI pred, Value obj, Resource... contexts) {
+		boolean changed = false;
+		for(Iterator<Statement> it = iterate(subj, pred, obj, contexts); it.hasNext();){
+			it.next();
+			it.remove();
+			changed = true;
+		}
+		return changed;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, 0, valueCount, null);
+		valueCount = 0;
+		valueIds.clear();
+		statementCount = 0;
+		removedCount = 0;
+		removed = null;
+		Arrays.fill(table, 0);
+		subjectIndex = null;
+		predicateIndex = null;
+	}
+
+	@Override
+	public Iterator<Statement> iterator() {
+		return iterate(null, null, null);
+	}
+
+	@Override
+	public Model filter(final Resource subj, final URI pred, final Value obj, final Resource... contexts) {
+		return new FilteredModel(this, subj, pred, obj, contexts) {
+
+			private static final long serialVersionUID = -2440401069441367839L;
+
+			@Override
+			public Iterator<Statement> iterator() {
+				return CompactModel.this.iterate(subj, pred, obj, contexts);
+			}
+
+			@Override
+			protected void removeFilteredTermIteration(Iterator<Statement> iter, Resource subj, URI pred, Value obj, Resource... contexts) {
+				CompactModel.this.removeTermIteration(iter, subj, pred, obj, contexts);
+			}
+		};
+	}
+
+	@Override
+	public void removeTermIteration(Iterator<Statement> iter, Resource subj, URI pred, Value obj, Resource... contexts) {
+		remove(subj, pred, obj, contexts);
+	}
+
+	/**
+	 * Only implemented for the {@link Model} contract; use {@link #filter(Resource, URI, Value, Resource...)} instead.
+	 */
+	@Override
+	@Deprecated
+	public Iterator<Statement> match(Resource subj, URI pred, Value obj, Resource... contexts) {
+		return iterate(subj, pred, obj, contexts);
+	}
+
+	/**
+	 * Iterate over the statements matching the given pattern, using the subject or predicate index if possible.
+	 */
+	private Iterator<Statement> iterate(Resource subj, URI pred, Value obj, Resource... contexts) {
+		int s = subj == null ? ANY : id(subj);
+		int p = pred == null ? ANY : id(pred);
+		int o = obj == null ? ANY : id(obj);
+		if((subj != null && s < 0) || (pred != null && p < 0) || (obj != null && o < 0)){
+			return new StatementIterator(EMPTY, 0, 0, ANY, ANY, ANY, null);
+		}
+		int[] c = null;
+		if(contexts != null && contexts.length > 0){
+			c = new int[contexts.length];
+			int count = 0;
+			for(Resource context : contexts){
+				int id = context == null ? NO_CONTEXT : id(context);
+				if(context == null || id >= 0){
+					c[count++] = id;
+				}
+			}
+			if(count == 0){
+				return new StatementIterator(EMPTY, 0, 0, ANY, ANY, ANY, null);
+			}
+			c = Arrays.copyOf(c, count);
+		}
+		if(subj != null){
+			int[] index = getSubjectIndex();
+			int from = lowerBound(index, 0, s);
+			return new StatementIterator(index, from, upperBound(index, from, 0, s), ANY, p, o, c);
+		}
+		if(pred != null){
+			int[] index = getPredicateIndex();
+			int from = lowerBound(index, 1, p);
+			return new StatementIterator(index, from, upperBound(index, from, 1, p), ANY, ANY, o, c);
+		}
+		return new StatementIterator(null, 0, statementCount, ANY, ANY, o, c);
+	}
+
+	private int intern(Value value){
+		Integer id = valueIds.get(value);
+		if(id != null){
+			return id;
+		}
+		if(valueCount == values.length){
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		values[valueCount] = value;
+		valueIds.put(value, valueCount);
+		return valueCount++;
+	}
+
+	private int id(Value value){
+		Integer id = valueIds.get(value);
+		return id == null ? -1 : id;
+	}
+
+	private boolean isRemoved(int position){
+		return removed != null && removed.get(position);
+	}
+
+	private void markRemoved(int position){
+		if(removed == null){
+			removed = new BitSet(statementCount);
+		}
+		if(!removed.get(position)){
+			removed.set(position);
+			removedCount++;
+		}
+	}
+
+	private int find(int s, int p, int o, int c){
+		int mask = table.length - 1;
+		for(int slot = hash(s, p, o, c) & mask; table[slot] != 0; slot = (slot + 1) & mask){
+			int position = table[slot] - 1;
+			int offset = position * 4;
+			if(quads[offset] == s && quads[offset + 1] == p && quads[offset + 2] == o && quads[offset + 3] == c && !isRemoved(position)){
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	private void insert(int position){
+		int offset = position * 4;
+		int mask = table.length - 1;
+		int slot = hash(quads[offset], quads[offset + 1], quads[offset + 2], quads[offset + 3]) & mask;
+		while(table[slot] != 0){
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = position + 1;
+	}
+
+	private void rehash(int size){
+		table = new int[size];
+		for(int position = 0; position < statementCount; position++){
+			if(!isRemoved(position)){
+				insert(position);
+			}
+		}
+	}
+
+	/**
+	 * Drop removed statements and the values which are no longer used.
+	 */
+	private void compact(){
+		Value[] oldValues = values;
+		int[] oldQuads = quads;
+		int oldCount = statementCount;
+		BitSet oldRemoved = removed;
+		values = new Value[Math.max(valueCount, 4)];
+		valueCount = 0;
+		valueIds.clear();
+		quads = new int[Math.max(size(), 4) * 4];
+		statementCount = 0;
+		removedCount = 0;
+		removed = null;
+		for(int position = 0; position < oldCount; position++){
+			if(oldRemoved == null || !oldRemoved.get(position)){
+				int offset = position * 4;
+				int target = statementCount++ * 4;
+				quads[target] = intern(oldValues[oldQuads[offset]]);
+				quads[target + 1] = intern(oldValues[oldQuads[offset + 1]]);
+				quads[target + 2] = intern(oldValues[oldQuads[offset + 2]]);
+				quads[target + 3] = oldQuads[offset + 3] == NO_CONTEXT ? NO_CONTEXT : intern(oldValues[oldQuads[offset + 3]]);
+			}
+		}
+		rehash(tableSize(Math.max(statementCount, 4)));
+		subjectIndex = null;
+		predicateIndex = null;
+	}
+
+	private int[] getSubjectIndex(){
+		int[] index = subjectIndex;
+		if(index == null){
+			index = createIndex(0);
+			subjectIndex = index;
+		}
+		return index;
+	}
+
+	private int[] getPredicateIndex(){
+		int[] index = predicateIndex;
+		if(index == null){
+			index = createIndex(1);
+			predicateIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Sort the statement positions by the value id at the given position of the quadruple, keeping insertion order for equal ids.
+	 */
+	private int[] createIndex(int component){
+		long[] keys = new long[statementCount];
+		for(int position = 0; position < statementCount; position++){
+			keys[position] = ((long) quads[position * 4 + component] << 32) | position;
+		}
+		Arrays.sort(keys);
+		int[] index = new int[statementCount];
+		for(int i = 0; i < statementCount; i++){
+			index[i] = (int) keys[i];
+		}
+		return index;
+	}
+
+	private int lowerBound(int[] index, int component, int id){
+		int low = 0;
+		int high = index.length;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(quads[index[middle] * 4 + component] < id){
+				low = middle + 1;
+			}
+			else{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int upperBound(int[] index, int from, int component, int id){
+		int to = from;
+		while(to < index.length && quads[index[to] * 4 + component] == id){
+			to++;
+		}
+		return to;
+	}
+
+	private static int hash(int s, int p, int o, int c){
+		int hash = s;
+		hash = hash * 31 + p;
+		hash = hash * 31 + o;
+		hash = hash * 31 + c;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int tableSize(int statements){
+		int size = 8;
+		while(size < statements * 2){
+			size <<= 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Iterates over a range of statement positions, either directly or through an index, and materializes the matching statements.
+	 */
+	private class StatementIterator implements Iterator<Statement> {
+
+		private final int[] index;
+		private final int end;
+		private final int s;
+		private final int p;
+		private final int o;
+		private final int[] c;
+		private int cursor;
+		private int next = -1;
+		private int last = -1;
+
+		private StatementIterator(int[] index, int from, int to, int s, int p, int o, int[] c){
+			this.index = index;
+			this.cursor = from;
+			this.end = to;
+			this.s = s;
+			this.p = p;
+			this.o = o;
+			this.c = c;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(next < 0 && cursor < end){
+				int position = index == null ? cursor : index[cursor];
+				cursor++;
+				if(matches(position)){
+					next = position;
+				}
+			}
+			return next >= 0;
+		}
+
+		private boolean matches(int position){
+			if(position >= statementCount || isRemoved(position)){
+				return false;
+			}
+			int offset = position * 4;
+			if((s != ANY && quads[offset] != s) || (p != ANY && quads[offset + 1] != p) || (o != ANY && quads[offset + 2] != o)){
+				return false;
+			}
+			if(c == null){
+				return true;
+			}
+			for(int context : c){
+				if(quads[offset + 3] == context){
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Statement next() {
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = -1;
+			int offset = last * 4;
+			Resource subject = (Resource) values[quads[offset]];
+			URI predicate = (URI) values[quads[offset + 1]];
+			Value object = values[quads[offset + 2]];
+			if(quads[offset + 3] == NO_CONTEXT){
+				return new StatementImpl(subject, predicate, object);
+			}
+			return new ContextStatementImpl(subject, predicate, object, (Resource) values[quads[offset + 3]]);
+		}
+
+		@Override
+		public void remove() {
+			if(last < 0){
+				throw new IllegalStateException();
+			}
+			markRemoved(last);
+			last = -1;
+		}
+	}
+
+}
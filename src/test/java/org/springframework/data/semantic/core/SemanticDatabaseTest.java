@@ -28,12 +28,18 @@ import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.query.BindingSet;
+import org.openrdf.query.impl.MapBindingSet;
 import org.openrdf.repository.RepositoryException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.support.database.ExtendedRepositoryConnection;
 import org.springframework.data.semantic.support.util.ValueUtils;
 import org.springframework.data.semantic.testutils.Utils;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -104,4 +110,33 @@ public class SemanticDatabaseTest {
 		sdb.removeStatements(uri, null, null);
 		assertTrue(sdb.getStatementsForSubject(uri).isEmpty());
 	}
+	
+	@Test
+	public void testPreparedQueryReuse() throws Exception {
+		final String source = "ASK { ?s a <unr:type:test-statement> }";
+		URI uri = new URIImpl("urn:test:prepared");
+		sdb.addStatement(uri, new URIImpl(ValueUtils.RDF_TYPE_PREDICATE), new URIImpl("unr:type:test-statement"));
+		final MapBindingSet bindings = new MapBindingSet();
+		bindings.addBinding("s", uri);
+		final MapBindingSet otherBindings = new MapBindingSet();
+		otherBindings.addBinding("s", new URIImpl("urn:test:not-prepared"));
+		final PooledSemanticDatabase pooledSdb = (PooledSemanticDatabase) sdb;
+		//the transaction keeps all queries on the same connection
+		new TransactionTemplate(new SemanticTransactionManager(pooledSdb)).execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				ExtendedRepositoryConnection connection = ((SemanticConnectionHolder) TransactionSynchronizationManager.getResource(pooledSdb.getConnectionPool())).getConnection();
+				try {
+					assertTrue(sdb.getBooleanQueryResult(source, bindings));
+					long hits = connection.getPreparedQueryHitCount();
+					assertTrue(connection.getPreparedQueryCount() > 0);
+					assertFalse(sdb.getBooleanQueryResult(source, otherBindings));
+					assertTrue(sdb.getBooleanQueryResult(source, bindings));
+					assertEquals(hits + 2, connection.getPreparedQueryHitCount());
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+	}
 }
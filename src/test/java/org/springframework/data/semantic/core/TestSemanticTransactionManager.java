@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class TestSemanticTransactionManager {
+	
+	private SailRepository repository;
+	
+	private PooledSemanticDatabase sdb;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	private URI type = new URIImpl("urn:type:test-statement");
+	
+	@Before
+	public void setup() throws Exception {
+		repository = new SailRepository(new MemoryStore());
+		repository.initialize();
+		sdb = new PooledSemanticDatabase(repository, 2);
+		transactionTemplate = new TransactionTemplate(new SemanticTransactionManager(sdb));
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		sdb.shutdown();
+		repository.shutDown();
+	}
+	
+	@Test
+	public void testCommit(){
+		transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				sdb.addStatement(new URIImpl("urn:test:statement1"), new URIImpl(ValueUtils.RDF_TYPE_PREDICATE), type);
+				sdb.addStatement(new URIImpl("urn:test:statement2"), new URIImpl(ValueUtils.RDF_TYPE_PREDICATE), type);
+				sdb.removeStatements(new URIImpl("urn:test:statement2"), null, null);
+				assertEquals(1, sdb.count());
+				assertEquals(1, sdb.getConnectionPool().getActiveConnections());
+			}
+		});
+		assertEquals(1, sdb.count());
+		assertEquals(0, sdb.getConnectionPool().getActiveConnections());
+	}
+	
+	@Test
+	public void testRollback(){
+		try {
+			transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+				@Override
+				protected void doInTransactionWithoutResult(TransactionStatus status) {
+					sdb.addStatement(new URIImpl("urn:test:statement1"), new URIImpl(ValueUtils.RDF_TYPE_PREDICATE), type);
+					throw new IllegalStateException("rollback");
+				}
+			});
+		} catch (IllegalStateException e) {
+			assertEquals("rollback", e.getMessage());
+		}
+		assertTrue(sdb.getStatementsForSubject(new URIImpl("urn:test:statement1")).isEmpty());
+		assertEquals(0, sdb.getConnectionPool().getActiveConnections());
+	}
+
+}
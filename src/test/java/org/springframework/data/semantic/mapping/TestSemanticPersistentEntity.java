@@ -17,6 +17,7 @@ package org.springframework.data.semantic.mapping;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -54,6 +55,8 @@ public class TestSemanticPersistentEntity {
 		assertNotNull(nameProperty);
 		assertTrue(nameProperty.hasPredicate());
 		assertEquals(new URIImpl("http://www.w3.org/2004/02/skos/core#prefLabel"), nameProperty.getPredicate());
+		assertSame(nameProperty.getPredicate(), nameProperty.getPredicate());
+		assertEquals(new URIImpl("urn:modelentity:field:name"), nameProperty.getAliasPredicateURI());
 	}
 	
 	@Test
@@ -77,5 +80,18 @@ public class TestSemanticPersistentEntity {
 		URI rdfType = testEntityType.getRDFType();
 		assertEquals(new URIImpl("urn:default:ModelEntity"), rdfType);
 	}
+	
+	@Test
+	public void TestPropertyAccess(){
+		ModelEntity entity = new ModelEntity();
+		URI uri = new URIImpl("urn:default:entity");
+		testEntityType.setResourceId(entity, uri);
+		assertEquals(uri, entity.getUri());
+		assertEquals(uri, testEntityType.getResourceId(entity));
+		final SemanticPersistentProperty nameProperty = testEntityType.getPersistentProperty("name");
+		nameProperty.setValue(entity, "name");
+		assertEquals("name", entity.getName());
+		assertEquals("name", nameProperty.getValue(entity, null));
+	}
 
 }
@@ -15,8 +15,15 @@
  */
 package org.springframework.data.semantic.model;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.data.semantic.repository.SemanticRepository;
 
 public interface DateEntityRepository extends SemanticRepository<DateEntity> {
+	
+	List<DateEntity> findByDateAfter(Date date);
+	
+	List<DateEntity> findByDateBetween(Date from, Date to);
 
 }
@@ -16,8 +16,14 @@
 package org.springframework.data.semantic.model;
 
 import org.openrdf.model.URI;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.semantic.repository.Query;
 import org.springframework.data.semantic.repository.SemanticRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.semantic.model.ModelEntity;
@@ -32,8 +38,34 @@ public interface ModelEntityRepository extends SemanticRepository<ModelEntity> {
 	
 	List<ModelEntity> findByRelated(URI related);
 	
+	List<ModelEntity> findByRelated(URI related, Pageable pageable);
+	
+	Page<ModelEntity> readByRelated(URI related, Pageable pageable);
+	
+	Slice<ModelEntity> findSliceByRelated(URI related, Pageable pageable);
+	
+	ModelEntity findFirstByRelatedOrderByNameDesc(URI related);
+	
+	List<ModelEntity> findTop1ByRelatedOrderByNameAsc(URI related);
+	
+	List<ModelEntity> findTopicsByRelated(URI related);
+	
+	List<ModelEntity> findAllTopRatedByRelated(URI related);
+	
+	List<ModelEntity> findByNameStartingWith(String prefix);
+	
+	List<ModelEntity> findByNameLike(String pattern);
+	
+	List<ModelEntity> findByNameIn(Collection<String> names);
+	
+	List<ModelEntity> findByNameIsNull();
+	
+	List<ModelEntity> findByNameOrName(String name, String otherName);
+	
 	Long countByName(String name);
 	
+	Long countByNameContainingIgnoreCase(String part);
+	
 	Long countBySynonyms(List<String> synonyms);
 	
 	Long countByRelated(List<ModelEntity> related);
@@ -41,5 +73,21 @@ public interface ModelEntityRepository extends SemanticRepository<ModelEntity> {
 	Long countByRelated(URI related);
 	
 	ModelEntity findOneByRelated(URI related);
+	
+	@Query("SELECT ?id WHERE { ?id a <urn:spring-data-semantic:ModelEntity> ; <http://www.w3.org/2004/02/skos/core#prefLabel> ?name }")
+	List<ModelEntity> selectByLabel(@Param("name") String name);
+	
+	@Query("CONSTRUCT { ?id a <urn:spring-data-semantic:ModelEntity> ; <http://www.w3.org/2004/02/skos/core#prefLabel> ?label ; <http://www.w3.org/2004/02/skos/core#altLabel> ?synonym } "
+			+ "WHERE { ?id a <urn:spring-data-semantic:ModelEntity> ; <http://www.w3.org/2004/02/skos/core#prefLabel> ?label . OPTIONAL { ?id <http://www.w3.org/2004/02/skos/core#altLabel> ?synonym } }")
+	ModelEntity constructWithLabels(@Param("id") URI id);
+	
+	@Query("SELECT ?label WHERE { ?id a <urn:spring-data-semantic:ModelEntity> ; <http://www.w3.org/2004/02/skos/core#prefLabel> ?label } ORDER BY ?label")
+	List<String> selectLabels();
+	
+	@Query("SELECT ?id ?label WHERE { ?id a <urn:spring-data-semantic:ModelEntity> ; <http://www.w3.org/2004/02/skos/core#prefLabel> ?label } ORDER BY ?label")
+	List<ModelEntityLabel> selectLabelProjections();
+	
+	@Query("ASK { ?1 <http://www.w3.org/2004/02/skos/core#prefLabel> ?2 }")
+	boolean hasLabel(URI id, String label);
 
 }
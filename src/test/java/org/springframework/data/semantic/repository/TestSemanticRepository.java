@@ -23,8 +23,11 @@ import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.TreeSet;
 
 import org.junit.After;
 import org.junit.Before;
@@ -34,15 +37,25 @@ import org.junit.runner.RunWith;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.datatypes.XMLDatatypeUtil;
+import org.openrdf.model.impl.URIImpl;
 import org.openrdf.repository.RepositoryException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.semantic.core.ClosableIterable;
+import org.springframework.data.semantic.core.KeysetSlice;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.model.*;
 import org.springframework.data.semantic.model.vocabulary.DATE_ENTITY;
 import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
 import org.springframework.data.semantic.model.vocabulary.WINE;
 import org.springframework.data.semantic.model.vocabulary.XMLCALENDAR_ENTITY;
+import org.springframework.data.semantic.support.BatchEntityLoader;
+import org.springframework.data.semantic.support.SemanticTemplateCRUD;
 import org.springframework.data.semantic.testutils.Utils;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -81,6 +94,9 @@ public class TestSemanticRepository {
 	@Autowired
 	private TransientEntityRepository transientEntityRepository;
 	
+	@Autowired
+	private SemanticTemplateCRUD semanticTemplateCRUD;
+	
 	@Before
 	public void initRepo() throws RepositoryException {
 		// upload test data
@@ -199,6 +215,39 @@ public class TestSemanticRepository {
 		assertEquals(count -2, sdb.count());
 	}
 	
+	@Test
+	public void testModificationWithUpdateSave(){
+		semanticTemplateCRUD.setSaveWithUpdate(true);
+		try{
+			long count = sdb.count();
+			ModelEntity modelEntity = modelEntityRepository.findOne(MODEL_ENTITY.ENTITY_TWO);
+			modelEntity.getRelated().remove(1);
+			modelEntity.setName("renamed entity");
+			modelEntityRepository.save(modelEntity);
+			assertEquals(count -2, sdb.count());
+			
+			ModelEntity newEntity = new ModelEntity();
+			newEntity.setUri(MODEL_ENTITY.ENTITY_FIVE);
+			newEntity.setName("new entity");
+			newEntity.setSynonyms(Arrays.asList("syn"));
+			modelEntityRepository.save(Arrays.asList(modelEntity, newEntity));
+			
+			List<Statement> statements = sdb.getStatementsForSubject(MODEL_ENTITY.ENTITY_TWO);
+			int names = 0;
+			for(Statement statement : statements){
+				if("renamed entity".equals(statement.getObject().stringValue())){
+					names++;
+				}
+			}
+			assertEquals(1, names);
+			assertFalse(sdb.getStatementsForSubject(MODEL_ENTITY.ENTITY_FIVE).isEmpty());
+			assertEquals("new entity", modelEntityRepository.findOne(MODEL_ENTITY.ENTITY_FIVE).getName());
+		}
+		finally{
+			semanticTemplateCRUD.setSaveWithUpdate(false);
+		}
+	}
+	
 	@Test
 	public void testCount(){
 		assertEquals(4, modelEntityRepository.count());
@@ -216,6 +265,21 @@ public class TestSemanticRepository {
 		assertEquals(uris.size(), count);
 	}
 	
+	@Test
+	public void testFindListProperties(){
+		List<URI> uris = Arrays.asList(MODEL_ENTITY.ENTITY_TWO, MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_NOT_EXISTS);
+		List<ModelEntity> entities = modelEntityRepository.findAll(uris);
+		assertEquals(2, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, entities.get(0).getUri());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(1).getUri());
+		for(ModelEntity entity : entities){
+			ModelEntity loaded = modelEntityRepository.findOne(entity.getUri());
+			assertEquals(loaded.getName(), entity.getName());
+			assertEquals(loaded.getSynonyms().size(), entity.getSynonyms().size());
+			assertEquals(loaded.getRelated().size(), entity.getRelated().size());
+		}
+	}
+	
 	@Test
 	public void testExists(){
 		assertTrue(modelEntityRepository.exists(MODEL_ENTITY.ENTITY_ONE));
@@ -233,6 +297,61 @@ public class TestSemanticRepository {
 		assertEquals(modelEntityRepository.count(), count);
 	}
 	
+	@Test
+	public void testStreamAll(){
+		ClosableIterable<ModelEntity> modelEntities = modelEntityRepository.streamAll();
+		int count = 0;
+		try {
+			for(ModelEntity entity : modelEntities){
+				assertNotNull(entity.getUri());
+				ModelEntity loaded = modelEntityRepository.findOne(entity.getUri());
+				assertEquals(loaded.getName(), entity.getName());
+				assertEquals(loaded.getRelated().size(), entity.getRelated().size());
+				count++;
+			}
+		} finally {
+			modelEntities.close();
+		}
+		assertEquals(modelEntityRepository.count(), count);
+	}
+	
+	@Test
+	public void testFindByIds(){
+		//entity one is cached, entity two and three are loaded and the missing id is skipped
+		assertNotNull(semanticTemplateCRUD.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		URI missing = new URIImpl(MODEL_ENTITY.NAMESPACE+"MissingEntity");
+		List<URI> ids = Arrays.asList(MODEL_ENTITY.ENTITY_THREE, missing, MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_TWO);
+		for(int i = 0; i < 2; i++){
+			List<ModelEntity> entities = semanticTemplateCRUD.find(ids, ModelEntity.class);
+			assertEquals(3, entities.size());
+			assertEquals(MODEL_ENTITY.ENTITY_THREE, entities.get(0).getUri());
+			assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(1).getUri());
+			assertEquals(MODEL_ENTITY.ENTITY_TWO, entities.get(2).getUri());
+		}
+		assertNull(semanticTemplateCRUD.find(missing, ModelEntity.class));
+	}
+	
+	@Test
+	public void testStreamAllInPages(){
+		List<URI> expected = new LinkedList<URI>();
+		for(ModelEntity entity : modelEntityRepository.findAll()){
+			expected.add(entity.getUri());
+		}
+		semanticTemplateCRUD.setBatchSize(1);
+		ClosableIterable<ModelEntity> modelEntities = modelEntityRepository.streamAll();
+		List<URI> streamed = new LinkedList<URI>();
+		try {
+			for(ModelEntity entity : modelEntities){
+				streamed.add(entity.getUri());
+			}
+		} finally {
+			modelEntities.close();
+			semanticTemplateCRUD.setBatchSize(BatchEntityLoader.DEFAULT_BATCH_SIZE);
+		}
+		assertEquals(expected.size(), streamed.size());
+		assertTrue(streamed.containsAll(expected));
+	}
+	
 	@Test
 	public void testFindPage(){
 		int pageSize = 2;
@@ -245,6 +364,139 @@ public class TestSemanticRepository {
 		assertEquals(pageSize, count);
 	}
 	
+	@Test
+	public void testFindSlices(){
+		int sliceSize = 2;
+		List<String> ids = new LinkedList<String>();
+		KeysetSlice<ModelEntity> slice = modelEntityRepository.findAllAfter(null, sliceSize);
+		while(true){
+			assertTrue(slice.getNumberOfElements() <= sliceSize);
+			for(ModelEntity entity : slice){
+				ids.add(entity.getUri().stringValue());
+			}
+			if(!slice.hasNext()){
+				break;
+			}
+			slice = modelEntityRepository.findAllAfter(slice.getContinuation(), sliceSize);
+		}
+		assertEquals(modelEntityRepository.count(), ids.size());
+		List<String> sorted = new LinkedList<String>(new TreeSet<String>(ids));
+		assertEquals(sorted, ids);
+	}
+	
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testFindEmptySlice(){
+		modelEntityRepository.findAllAfter(null, 0);
+	}
+	
+	@Test
+	public void testFindAllSorted(){
+		List<ModelEntity> entities = modelEntityRepository.findAll(new Sort(Direction.DESC, "name"));
+		assertEquals(modelEntityRepository.count(), entities.size());
+		List<URI> ids = new LinkedList<URI>();
+		for(ModelEntity entity : entities){
+			ids.add(entity.getUri());
+		}
+		assertTrue(ids.indexOf(MODEL_ENTITY.ENTITY_TWO) < ids.indexOf(MODEL_ENTITY.ENTITY_ONE));
+		Page<ModelEntity> page = modelEntityRepository.findAll(new PageRequest(0, 1, Direction.DESC, "name"));
+		assertEquals(1, page.getNumberOfElements());
+		assertEquals(ids.get(0), page.getContent().get(0).getUri());
+		List<ModelEntity> related = modelEntityRepository.findByRelated(MODEL_ENTITY.ENTITY_THREE, new PageRequest(0, 1, Direction.ASC, "name"));
+		assertEquals(1, related.size());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, related.get(0).getUri());
+	}
+	
+	@Test
+	public void testFindLimited(){
+		ModelEntity first = modelEntityRepository.findFirstByRelatedOrderByNameDesc(MODEL_ENTITY.ENTITY_THREE);
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, first.getUri());
+		List<ModelEntity> top = modelEntityRepository.findTop1ByRelatedOrderByNameAsc(MODEL_ENTITY.ENTITY_THREE);
+		assertEquals(1, top.size());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, top.get(0).getUri());
+		//First and Top inside a word of the subject do not limit the results
+		assertEquals(2, modelEntityRepository.findTopicsByRelated(MODEL_ENTITY.ENTITY_THREE).size());
+		assertEquals(2, modelEntityRepository.findAllTopRatedByRelated(MODEL_ENTITY.ENTITY_THREE).size());
+		Page<ModelEntity> page = modelEntityRepository.readByRelated(MODEL_ENTITY.ENTITY_THREE, new PageRequest(0, 1, Direction.ASC, "name"));
+		assertEquals(2, page.getTotalElements());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, page.getContent().get(0).getUri());
+		Slice<ModelEntity> slice = modelEntityRepository.findSliceByRelated(MODEL_ENTITY.ENTITY_THREE, new PageRequest(0, 1, Direction.ASC, "name"));
+		assertEquals(1, slice.getNumberOfElements());
+		assertTrue(slice.hasNext());
+		slice = modelEntityRepository.findSliceByRelated(MODEL_ENTITY.ENTITY_THREE, slice.nextPageable());
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, slice.getContent().get(0).getUri());
+		assertFalse(slice.hasNext());
+	}
+	
+	@Test
+	public void testFindByOperators(){
+		List<ModelEntity> entities = modelEntityRepository.findByNameStartingWith("Model Entity T");
+		assertEquals(1, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, entities.get(0).getUri());
+		entities = modelEntityRepository.findByNameLike("%Entity O_e");
+		assertEquals(1, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(0).getUri());
+		assertEquals(2, modelEntityRepository.findByNameIn(Arrays.asList("Model Entity One", "Model Entity Two", "Model Entity Three")).size());
+		assertEquals(2, modelEntityRepository.findByNameOrName("Model Entity One", "Model Entity Two").size());
+		assertEquals(Long.valueOf(1), modelEntityRepository.countByNameContainingIgnoreCase("entity t"));
+		List<URI> ids = new LinkedList<URI>();
+		for(ModelEntity entity : modelEntityRepository.findByNameIsNull()){
+			assertNull(entity.getName());
+			ids.add(entity.getUri());
+		}
+		assertTrue(ids.contains(MODEL_ENTITY.ENTITY_THREE));
+	}
+	
+	@Test
+	public void testFindByInWithQuotes(){
+		assertTrue(modelEntityRepository.findByNameIn(Arrays.asList("a\" } ?id ?p ?o {\"")).isEmpty());
+		List<ModelEntity> entities = modelEntityRepository.findByNameIn(Arrays.asList("Model Entity One", "\"Model Entity Two\""));
+		assertEquals(1, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(0).getUri());
+		assertTrue(modelEntityRepository.findByNameIn(Collections.<String>emptyList()).isEmpty());
+	}
+	
+	@Test
+	public void testFindByRange() throws Exception{
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+		List<URI> ids = new LinkedList<URI>();
+		for(DateEntity entity : dateEntityRepository.findByDateAfter(format.parse("2014-08-21T09:00:00+0000"))){
+			ids.add(entity.getId());
+		}
+		assertTrue(ids.contains(DATE_ENTITY.DATE_ONE));
+		ids.clear();
+		for(DateEntity entity : dateEntityRepository.findByDateBetween(format.parse("2014-08-21T11:00:00+0000"), format.parse("2014-08-22T00:00:00+0000"))){
+			ids.add(entity.getId());
+		}
+		assertFalse(ids.contains(DATE_ENTITY.DATE_ONE));
+	}
+	
+	@Test
+	public void testAnnotatedQueries(){
+		List<ModelEntity> entities = modelEntityRepository.selectByLabel("Model Entity One");
+		assertEquals(1, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(0).getUri());
+		ModelEntity entity = modelEntityRepository.constructWithLabels(MODEL_ENTITY.ENTITY_TWO);
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, entity.getUri());
+		assertEquals("Model Entity Two", entity.getName());
+		assertEquals(2, entity.getSynonyms().size());
+		List<String> labels = modelEntityRepository.selectLabels();
+		assertTrue(labels.containsAll(Arrays.asList("Model Entity One", "Model Entity Two")));
+		assertEquals(new LinkedList<String>(new TreeSet<String>(labels)), labels);
+		List<ModelEntityLabel> projections = modelEntityRepository.selectLabelProjections();
+		assertEquals(labels.size(), projections.size());
+		for(ModelEntityLabel projection : projections){
+			assertNotNull(projection.getId());
+			assertNotNull(projection.getLabel());
+		}
+		assertTrue(modelEntityRepository.hasLabel(MODEL_ENTITY.ENTITY_ONE, "Model Entity One"));
+		assertFalse(modelEntityRepository.hasLabel(MODEL_ENTITY.ENTITY_ONE, "Model Entity Two"));
+	}
+	
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testAnnotatedQueryNullArgument(){
+		modelEntityRepository.selectByLabel(null);
+	}
+	
 	@Test
 	public void testEagerLoad(){
 		ModelEntityCollector collector = modelEntityCollectorRepository.findOne(MODEL_ENTITY.COLLECTOR_ONE);
@@ -256,6 +508,25 @@ public class TestSemanticRepository {
 		}
 	}
 	
+	@Test
+	public void testStreamAllEagerLoad(){
+		ClosableIterable<ModelEntityCollector> collectors = modelEntityCollectorRepository.streamAll();
+		int count = 0;
+		try {
+			for(ModelEntityCollector collector : collectors){
+				assertEquals(2, collector.getEntities().size());
+				for(ModelEntity modelEntity : collector.getEntities()){
+					assertNotNull(modelEntity.getName());
+					assertFalse(modelEntity.getRelated().isEmpty());
+				}
+				count++;
+			}
+		} finally {
+			collectors.close();
+		}
+		assertEquals(modelEntityCollectorRepository.count(), count);
+	}
+	
 	@Test
 	public void testEagerSaveFail(){
 		ModelEntityCollector collector = new ModelEntityCollector();
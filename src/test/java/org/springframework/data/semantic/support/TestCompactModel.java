@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.ContextStatementImpl;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.springframework.data.semantic.support.util.CompactModel;
+
+public class TestCompactModel {
+
+	private URI a = new URIImpl("urn:test:a");
+	private URI b = new URIImpl("urn:test:b");
+	private URI has = new URIImpl("urn:test:has");
+	private URI type = new URIImpl("urn:test:type");
+	private URI graph = new URIImpl("urn:test:graph");
+
+	@Test
+	public void testAddAndFilter(){
+		Model model = new CompactModel();
+		assertTrue(model.add(new StatementImpl(a, RDF.TYPE, type)));
+		assertTrue(model.add(new StatementImpl(a, has, b)));
+		assertTrue(model.add(new StatementImpl(a, has, new LiteralImpl("label", "en"))));
+		assertTrue(model.add(new StatementImpl(b, RDF.TYPE, type)));
+		assertFalse(model.add(new StatementImpl(a, has, b)));
+		assertEquals(4, model.size());
+
+		assertEquals(3, model.filter(a, null, null).size());
+		assertEquals(2, model.filter(null, RDF.TYPE, type).size());
+		assertEquals(2, model.filter(a, has, null).size());
+		assertEquals(0, model.filter(new URIImpl("urn:test:unknown"), null, null).size());
+		assertEquals(2, model.filter(null, RDF.TYPE, null).subjects().size());
+		assertTrue(model.contains(new StatementImpl(a, has, new LiteralImpl("label", "en"))));
+		assertFalse(model.contains(new StatementImpl(a, has, new LiteralImpl("label", "de"))));
+	}
+
+	@Test
+	public void testContexts(){
+		Model model = new CompactModel();
+		model.add(new StatementImpl(a, has, b));
+		model.add(new ContextStatementImpl(a, has, b, graph));
+		assertEquals(2, model.size());
+		assertEquals(1, model.filter(null, null, null, graph).size());
+		assertEquals(1, model.filter(null, null, null, (URI) null).size());
+		assertEquals(graph, model.filter(null, null, null, graph).iterator().next().getContext());
+	}
+
+	@Test
+	public void testRemoveAndCompact(){
+		Model model = new CompactModel();
+		for(int i = 0; i < 100; i++){
+			model.add(new StatementImpl(a, has, new LiteralImpl(Integer.toString(i))));
+		}
+		for(Iterator<Statement> it = model.filter(a, has, null).iterator(); it.hasNext();){
+			if(Integer.parseInt(it.next().getObject().stringValue()) % 4 != 0){
+				it.remove();
+			}
+		}
+		assertEquals(25, model.size());
+		assertTrue(model.remove(new StatementImpl(a, has, new LiteralImpl("0"))));
+		assertEquals(24, model.size());
+		model.add(new StatementImpl(b, has, a));
+		assertEquals(25, model.size());
+		assertTrue(model.contains(new StatementImpl(a, has, new LiteralImpl("96"))));
+		assertFalse(model.contains(new StatementImpl(a, has, new LiteralImpl("97"))));
+		assertEquals(1, model.filter(b, null, null).size());
+	}
+
+	@Test
+	public void testEqualsLinkedHashModel(){
+		Model expected = new LinkedHashModel();
+		expected.add(new StatementImpl(a, RDF.TYPE, type));
+		expected.add(new StatementImpl(a, has, b));
+		Model model = new CompactModel(expected);
+		assertEquals(expected, model);
+		assertEquals(model, expected);
+		assertEquals(expected.hashCode(), model.hashCode());
+		model.removeAll(expected);
+		assertTrue(model.isEmpty());
+	}
+
+}
@@ -63,6 +63,23 @@ public class TestSemanticTemplateStatementsCollector {
 		
 	}
 	
+	@Test
+	public void testAssembleStatementsWithCycle() throws RepositoryException{
+		collector = new SemanticTemplateStatementsCollector(null, mappingContext, null);
+		Model statements = new TreeModel();
+		statements.add(new StatementImpl(new URIImpl("urn:test:a"), RDF.TYPE, new URIImpl("urn:test:type")));
+		statements.add(new StatementImpl(new URIImpl("urn:test:a"), new URIImpl("urn:test:has"), new URIImpl("urn:test:b")));
+		statements.add(new StatementImpl(new URIImpl("urn:test:b"), RDF.TYPE, new URIImpl("urn:test:type")));
+		statements.add(new StatementImpl(new URIImpl("urn:test:b"), new URIImpl("urn:test:has"), new URIImpl("urn:test:a")));
+		statements.add(new StatementImpl(new URIImpl("urn:test:c"), new URIImpl("urn:test:has"), new URIImpl("urn:test:a")));
+		
+		Collection<Model> assembled = collector.assembleModels(new URIImpl("urn:test:type"), statements);
+		assertEquals(2, assembled.size());
+		for(Model model : assembled){
+			assertEquals(4, model.size());
+		}
+	}
+	
 	
 
 }
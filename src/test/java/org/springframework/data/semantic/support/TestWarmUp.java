@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openrdf.repository.RepositoryException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.DateEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.WineBody;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/warm-up-context.xml" })
+public class TestWarmUp {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD semanticTemplateCRUD;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testWarmUp(){
+		//the entities of the test model are mapped on startup without being accessed
+		assertTrue(semanticTemplateCRUD.getSemanticMappingContext().hasPersistentEntityFor(WineBody.class));
+		assertTrue(semanticTemplateCRUD.getSemanticMappingContext().hasPersistentEntityFor(DateEntity.class));
+	}
+	
+	@Test
+	public void testMoleculeCache(){
+		MoleculeCache moleculeCache = semanticTemplateCRUD.getMoleculeCache();
+		assertNotNull(moleculeCache);
+		ModelEntity entity = semanticTemplateCRUD.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		long hits = moleculeCache.getHitCount();
+		assertEquals(entity.getName(), semanticTemplateCRUD.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+		assertTrue(moleculeCache.getHitCount() > hits);
+		entity.setName("changed");
+		semanticTemplateCRUD.save(entity);
+		assertEquals("changed", semanticTemplateCRUD.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+	}
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.semantic.core.PooledSemanticDatabase;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollectorCascadeAll;
+import org.springframework.data.semantic.support.SemanticTemplateCRUD;
+import org.springframework.data.semantic.support.SemanticTemplateStatementsCollector;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.convert.EntityToStatementsConverter;
+import org.springframework.data.semantic.support.convert.SemanticEntityConverterImpl;
+import org.springframework.data.semantic.support.convert.SemanticEntityInstantiatorImpl;
+import org.springframework.data.semantic.support.convert.SemanticEntityPersisterImpl;
+import org.springframework.data.semantic.support.convert.SemanticSourceStateTransmitter;
+import org.springframework.data.semantic.support.convert.access.DelegatingFieldAccessorFactory;
+import org.springframework.data.semantic.support.convert.access.listener.DelegatingFieldAccessListenerFactory;
+import org.springframework.data.semantic.support.convert.state.SemanticEntityStateFactory;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestLocalEntityCache {
+
+	@Autowired
+	private SemanticDatabase sdb;
+
+	@Autowired
+	private SemanticTemplateCRUD template;
+
+	@Autowired
+	private ConversionService conversionService;
+
+	private LocalEntityCache cache;
+
+	@Before
+	public void setup() throws RepositoryException{
+		SemanticMappingContext mappingContext = new SemanticMappingContext(sdb.getNamespaces(), sdb.getDefaultNamespace(), true);
+		EntityToStatementsConverter entityToStatementsConverter = new EntityToStatementsConverter(mappingContext);
+		SemanticTemplateStatementsCollector statementsCollector = new SemanticTemplateStatementsCollector(sdb, mappingContext, new EntityToQueryConverter(mappingContext));
+		SemanticEntityStateFactory sesFactory = new SemanticEntityStateFactory(mappingContext, new DelegatingFieldAccessorFactory(statementsCollector, template), 
+				new DelegatingFieldAccessListenerFactory(statementsCollector, template), sdb, conversionService);
+		SemanticEntityConverterImpl entityConverter = new SemanticEntityConverterImpl(mappingContext, conversionService, new SemanticEntityInstantiatorImpl(), 
+				new SemanticSourceStateTransmitter(sesFactory, conversionService), entityToStatementsConverter, sdb);
+		cache = new LocalEntityCache(mappingContext, new SemanticEntityPersisterImpl(entityConverter, mappingContext, null));
+	}
+
+	@Test
+	public void testPutAndGet(){
+		ModelEntity entity = createEntity("urn:test:cached");
+		cache.put(entity);
+		ModelEntity cached = cache.get(entity.getUri(), ModelEntity.class);
+		assertNotNull(cached);
+		assertNotSame(entity, cached);
+		assertEquals(entity.getUri(), cached.getUri());
+		assertEquals(entity.getName(), cached.getName());
+		assertEquals(entity.getGraph(), cached.getGraph());
+		assertEquals(2, cached.getSynonyms().size());
+		assertTrue(cached.getSynonyms().containsAll(entity.getSynonyms()));
+		//changes to a served entity must not leak into the cache
+		cached.setName("changed");
+		assertEquals(entity.getName(), cache.get(entity.getUri(), ModelEntity.class).getName());
+		assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void testRemove(){
+		ModelEntity entity = createEntity("urn:test:removed");
+		cache.put(entity);
+		cache.remove(entity);
+		assertNull(cache.get(entity.getUri(), ModelEntity.class));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0, cache.getWeight(ModelEntity.class));
+	}
+
+	@Test
+	public void testEvictionOnWrite(){
+		ModelEntity entity = createEntity("urn:test:written");
+		cache.put(entity);
+		EntityCacheInvalidator invalidator = new EntityCacheInvalidator(cache);
+		((PooledSemanticDatabase) sdb).addWriteListener(invalidator);
+		Statement statement = new StatementImpl(entity.getUri(), new URIImpl("urn:test:has"), new LiteralImpl("value"));
+		try{
+			sdb.addStatement(statement);
+			assertNull(cache.get(entity.getUri(), ModelEntity.class));
+		} finally {
+			((PooledSemanticDatabase) sdb).removeWriteListener(invalidator);
+			sdb.removeStatement(statement);
+		}
+	}
+
+	@Test
+	public void testEvictionOfEmbeddingEntries(){
+		ModelEntityCollectorCascadeAll collector = new ModelEntityCollectorCascadeAll();
+		collector.setUri(new URIImpl("urn:test:collector"));
+		ModelEntity entity = createEntity("urn:test:embedded");
+		collector.setEntities(Arrays.asList(entity));
+		cache.put(collector);
+		cache.evict(Collections.singleton(new URIImpl("urn:test:unrelated")));
+		assertNotNull(cache.get(collector.getUri(), ModelEntityCollectorCascadeAll.class));
+		cache.evict(Collections.singleton(entity.getUri()));
+		assertNull(cache.get(collector.getUri(), ModelEntityCollectorCascadeAll.class));
+		assertEquals(0, cache.getWeight(ModelEntityCollectorCascadeAll.class));
+	}
+
+	@Test
+	public void testWeightEviction(){
+		cache.setMaximumWeight(ModelEntity.class, 64);
+		for(int i = 0; i < 200; i++){
+			cache.put(createEntity("urn:test:evicted:" + i));
+		}
+		long weight = cache.getWeight(ModelEntity.class);
+		assertTrue(weight > 0 && weight <= 64);
+	}
+
+	private ModelEntity createEntity(String uri){
+		ModelEntity entity = new ModelEntity();
+		URI id = new URIImpl(uri);
+		entity.setUri(id);
+		entity.setName("name of " + uri);
+		entity.setSynonyms(Arrays.asList("first", "second"));
+		entity.setGraph("urn:test:graph");
+		return entity;
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+
+public class TestLoopbackInvalidationChannel {
+	
+	private URI a = new URIImpl("urn:test:a");
+	private String query = "CONSTRUCT { ?a <urn:test:has> ?b } WHERE { ?a <urn:test:has> ?b }";
+	
+	@Test
+	public void testPublishToPeers(){
+		LoopbackInvalidationChannel.Hub hub = new LoopbackInvalidationChannel.Hub();
+		LoopbackInvalidationChannel first = new LoopbackInvalidationChannel(hub);
+		LoopbackInvalidationChannel second = new LoopbackInvalidationChannel(hub);
+		MoleculeCache firstCache = createCache();
+		MoleculeCache secondCache = createCache();
+		first.subscribe(firstCache);
+		second.subscribe(secondCache);
+		
+		new InvalidationChannelPublisher(first).resourcesChanged(Collections.<Resource>singleton(a));
+		//the publishing node is not notified about its own writes
+		assertNotNull(firstCache.get(a, query));
+		assertNull(secondCache.get(a, query));
+	}
+	
+	@Test
+	public void testPublishAll(){
+		LoopbackInvalidationChannel.Hub hub = new LoopbackInvalidationChannel.Hub();
+		LoopbackInvalidationChannel first = new LoopbackInvalidationChannel(hub);
+		LoopbackInvalidationChannel second = new LoopbackInvalidationChannel(hub);
+		MoleculeCache secondCache = createCache();
+		second.subscribe(secondCache);
+		second.close();
+		first.publishAll();
+		assertNotNull(secondCache.get(a, query));
+		
+		LoopbackInvalidationChannel third = new LoopbackInvalidationChannel(hub);
+		third.subscribe(secondCache);
+		first.publishAll();
+		assertNull(secondCache.get(a, query));
+	}
+	
+	private MoleculeCache createCache(){
+		MoleculeCache cache = new MoleculeCache();
+		Model molecule = new LinkedHashModel();
+		molecule.add(new StatementImpl(a, new URIImpl("urn:test:has"), new LiteralImpl("value")));
+		cache.put(a, query, molecule, cache.getGeneration());
+		return cache;
+	}
+
+}
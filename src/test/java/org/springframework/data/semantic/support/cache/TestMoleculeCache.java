@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+
+public class TestMoleculeCache {
+	
+	private URI a = new URIImpl("urn:test:a");
+	private URI b = new URIImpl("urn:test:b");
+	private URI has = new URIImpl("urn:test:has");
+	private String query = "CONSTRUCT { ?a <urn:test:has> ?b } WHERE { ?a <urn:test:has> ?b }";
+	
+	@Test
+	public void testGetReturnsCopy(){
+		MoleculeCache cache = new MoleculeCache();
+		cache.put(a, query, molecule(), cache.getGeneration());
+		Model cached = cache.get(a, query);
+		assertNotNull(cached);
+		assertEquals(molecule(), cached);
+		cached.clear();
+		assertEquals(2, cache.get(a, query).size());
+		assertNull(cache.get(a, "ASK {}"));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+	
+	@Test
+	public void testInvalidateByResource(){
+		MoleculeCache cache = new MoleculeCache();
+		cache.put(a, query, molecule(), cache.getGeneration());
+		cache.resourcesChanged(Collections.<Resource>singleton(new URIImpl("urn:test:unrelated")));
+		assertNotNull(cache.get(a, query));
+		//b is referenced by the molecule of a
+		cache.resourcesChanged(Collections.<Resource>singleton(b));
+		assertNull(cache.get(a, query));
+		assertEquals(0, cache.getWeight());
+	}
+	
+	@Test
+	public void testConcurrentWriteIsNotCached(){
+		MoleculeCache cache = new MoleculeCache();
+		long generation = cache.getGeneration();
+		cache.resourcesChanged(Collections.<Resource>singleton(a));
+		cache.put(a, query, molecule(), generation);
+		assertNull(cache.get(a, query));
+	}
+	
+	@Test
+	public void testWeightEviction(){
+		MoleculeCache cache = new MoleculeCache(5);
+		for(int i = 0; i < 10; i++){
+			URI resource = new URIImpl("urn:test:" + i);
+			Model molecule = new LinkedHashModel();
+			molecule.add(new StatementImpl(resource, has, new LiteralImpl("first")));
+			molecule.add(new StatementImpl(resource, has, new LiteralImpl("second")));
+			cache.put(resource, query, molecule, cache.getGeneration());
+		}
+		assertTrue(cache.getWeight() <= 5);
+		assertNotNull(cache.get(new URIImpl("urn:test:9"), query));
+		assertNull(cache.get(new URIImpl("urn:test:0"), query));
+	}
+	
+	private Model molecule(){
+		Model molecule = new LinkedHashModel();
+		molecule.add(new StatementImpl(a, has, b));
+		molecule.add(new StatementImpl(a, has, new LiteralImpl("label")));
+		return molecule;
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.NamespaceImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.XMLSchema;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.model.DateEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.util.ClassTypeInformation;
+
+public class TestEntityMaterializer {
+
+	private SemanticMappingContext mappingContext;
+	private ConversionService conversionService;
+	private URI resource = new URIImpl("http://ontotext.com/resource/test");
+
+	@Before
+	public void setup(){
+		this.mappingContext = new SemanticMappingContext(Arrays.asList(new NamespaceImpl("skos", "http://www.w3.org/2004/02/skos/core#")), new NamespaceImpl("", "urn:spring-data-semantic:"), true);
+		this.conversionService = new DefaultConversionService();
+	}
+
+	@Test
+	public void testPopulateProperties(){
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<ModelEntity> persistentEntity = (SemanticPersistentEntity<ModelEntity>) mappingContext.getPersistentEntity(ClassTypeInformation.from(ModelEntity.class));
+		RDFState state = new RDFState();
+		state.getCurrentStatements().add(new StatementImpl(resource, new URIImpl("urn:modelentity:field:name"), new LiteralImpl("name")));
+		state.getCurrentStatements().add(new StatementImpl(resource, new URIImpl("urn:modelentity:field:synonyms"), new LiteralImpl("first")));
+		state.getCurrentStatements().add(new StatementImpl(resource, new URIImpl("urn:modelentity:field:synonyms"), new LiteralImpl("second")));
+		//statements of other subjects must not leak into the entity
+		state.getCurrentStatements().add(new StatementImpl(new URIImpl("http://ontotext.com/resource/other"), new URIImpl("urn:modelentity:field:synonyms"), new LiteralImpl("third")));
+
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(resource);
+		new EntityMaterializer<ModelEntity>(persistentEntity, conversionService).populate(entity, state);
+		assertEquals("name", entity.getName());
+		assertEquals(2, entity.getSynonyms().size());
+		assertTrue(entity.getSynonyms().containsAll(Arrays.asList("first", "second")));
+	}
+
+	@Test
+	public void testPopulateTypedLiteral(){
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<DateEntity> persistentEntity = (SemanticPersistentEntity<DateEntity>) mappingContext.getPersistentEntity(ClassTypeInformation.from(DateEntity.class));
+		RDFState state = new RDFState();
+		state.getCurrentStatements().add(new StatementImpl(resource, new URIImpl("urn:dateentity:field:date"), new LiteralImpl("2014-05-06T10:20:30Z", XMLSchema.DATETIME)));
+
+		DateEntity entity = new DateEntity();
+		entity.setId(resource);
+		new EntityMaterializer<DateEntity>(persistentEntity, conversionService).populate(entity, state);
+		assertNotNull(entity.getDate());
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.setTime(entity.getDate());
+		assertEquals(2014, calendar.get(Calendar.YEAR));
+		assertEquals(10, calendar.get(Calendar.HOUR_OF_DAY));
+	}
+
+}
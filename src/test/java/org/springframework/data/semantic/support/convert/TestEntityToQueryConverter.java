@@ -17,12 +17,16 @@ package org.springframework.data.semantic.support.convert;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -136,6 +140,44 @@ public class TestEntityToQueryConverter {
 		assertArrayEquals(expected, resultBindings);
 	}
 	
+	@Test
+	public void TestGraphQueryCreationForResources(){
+		URI otherResource = new URIImpl("http://ontotext.com/resource/test-other");
+		String query = entityToQueryConverter.getGraphQueryForResources(Arrays.asList(resource, otherResource), testEntityType, MappingPolicyImpl.ALL_POLICY);
+		String expectedValues = "VALUES ?ModelEntity { <"+resource+"> <"+otherResource+"> } ";
+		assertTrue(query.contains(expectedValues));
+		String expectedPatterns = expectedPatternUnion.replace("<"+resource+">", "?ModelEntity").replace("?modelentity_", "?ModelEntity_modelentity_");
+		String[] expected = expectedPatterns.replaceAll("\\{|\\}", " ").replaceAll("\\s+", " ").split(" \\. ");
+		String[] resultPattern = query.substring(query.indexOf(expectedValues) + expectedValues.length()).replaceAll("\\{|\\}", " ").replaceAll("\\s+", " ").split(" \\. ");
+		Arrays.sort(expected, comparator);
+		Arrays.sort(resultPattern, comparator);
+		assertArrayEquals(expected, resultPattern);
+	}
+	
+	@Test
+	public void TestParameterizedGraphQueryCreation(){
+		URI otherResource = new URIImpl("http://ontotext.com/resource/test-other");
+		ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForResource(resource, testEntityType, MappingPolicyImpl.ALL_POLICY);
+		ParameterizedQuery otherQuery = entityToQueryConverter.getParameterizedGraphQueryForResource(otherResource, testEntityType, MappingPolicyImpl.ALL_POLICY);
+		assertSame(query.getQuery(), otherQuery.getQuery());
+		assertFalse(query.getQuery().contains(resource.stringValue()));
+		assertEquals(resource, query.getBindings().getValue("ModelEntity"));
+		assertEquals(otherResource, otherQuery.getBindings().getValue("ModelEntity"));
+	}
+	
+	@Test
+	public void TestParameterizedGraphQueryCreationForEntityClass(){
+		Map<String, Object> propertyToValue = new HashMap<String, Object>();
+		propertyToValue.put("name", "Model Entity One");
+		ParameterizedQuery query = entityToQueryConverter.getParameterizedGraphQueryForEntityClass(testEntityType, propertyToValue);
+		propertyToValue.put("name", "Model Entity Two");
+		ParameterizedQuery otherQuery = entityToQueryConverter.getParameterizedGraphQueryForEntityClass(testEntityType, propertyToValue);
+		assertSame(query.getQuery(), otherQuery.getQuery());
+		assertFalse(query.getQuery().contains("Model Entity"));
+		assertEquals("Model Entity One", query.getBindings().getValue("param_name").stringValue());
+		assertEquals("Model Entity Two", otherQuery.getBindings().getValue("param_name").stringValue());
+	}
+	
 	private class LocaleIndipendentStringComparator implements Comparator<String> {
 
 		private Collator collator = Collator.getInstance(Locale.US);
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.NamespaceImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.util.ClassTypeInformation;
+
+public class TestDirtyStateTracker {
+
+	private SemanticMappingContext mappingContext;
+	private SemanticPersistentEntity<?> persistentEntity;
+	private DirtyStateTracker tracker;
+
+	@Before
+	public void setup(){
+		this.mappingContext = new SemanticMappingContext(Arrays.asList(new NamespaceImpl("skos", "http://www.w3.org/2004/02/skos/core#")), new NamespaceImpl("", "urn:spring-data-semantic:"), true);
+		this.persistentEntity = this.mappingContext.getPersistentEntity(ClassTypeInformation.from(ModelEntity.class));
+		this.tracker = new DirtyStateTracker(mappingContext);
+	}
+
+	@Test
+	public void testUntrackedEntity(){
+		assertNull(tracker.getChanges(persistentEntity, createEntity()));
+	}
+
+	@Test
+	public void testUnchangedEntity(){
+		ModelEntity entity = createEntity();
+		tracker.snapshot(persistentEntity, entity);
+		assertEquals(1, tracker.size());
+		assertTrue(tracker.getChanges(persistentEntity, entity).isEmpty());
+	}
+
+	@Test
+	public void testChangedProperty(){
+		ModelEntity entity = createEntity();
+		tracker.snapshot(persistentEntity, entity);
+		entity.setName("changed");
+		RDFState changes = tracker.getChanges(persistentEntity, entity);
+		assertEquals(1, changes.getDeleteStatements().size());
+		assertEquals(1, changes.getCurrentStatements().size());
+		assertEquals("changed", changes.getCurrentStatements().iterator().next().getObject().stringValue());
+		//the snapshot follows the saved state
+		assertTrue(tracker.getChanges(persistentEntity, entity).isEmpty());
+	}
+
+	@Test
+	public void testChangedCollection(){
+		ModelEntity entity = createEntity();
+		tracker.snapshot(persistentEntity, entity);
+		entity.getSynonyms().add("third");
+		RDFState changes = tracker.getChanges(persistentEntity, entity);
+		assertTrue(changes.getDeleteStatements().isEmpty());
+		assertEquals(1, changes.getCurrentStatements().size());
+	}
+
+	@Test
+	public void testChangedAssociation(){
+		ModelEntity entity = createEntity();
+		ModelEntity related = new ModelEntity();
+		related.setUri(MODEL_ENTITY.ENTITY_TWO);
+		entity.getRelated().add(related);
+		tracker.snapshot(persistentEntity, entity);
+		entity.getRelated().clear();
+		RDFState changes = tracker.getChanges(persistentEntity, entity);
+		//bidirectional association
+		assertEquals(2, changes.getDeleteStatements().size());
+		for(Statement statement : changes.getDeleteStatements()){
+			assertTrue(statement.getSubject().equals(MODEL_ENTITY.ENTITY_TWO) || statement.getObject().equals(MODEL_ENTITY.ENTITY_TWO));
+		}
+		assertTrue(changes.getCurrentStatements().isEmpty());
+	}
+
+	@Test
+	public void testForget(){
+		ModelEntity entity = createEntity();
+		tracker.snapshot(persistentEntity, entity);
+		tracker.forget(entity.getUri());
+		assertNull(tracker.getChanges(persistentEntity, entity));
+	}
+
+	@Test
+	public void testWriteNotifications(){
+		ModelEntity entity = createEntity();
+		tracker.snapshot(persistentEntity, entity);
+		tracker.resourcesChanged(Collections.<Resource>singleton(MODEL_ENTITY.ENTITY_TWO));
+		assertEquals(1, tracker.size());
+		tracker.resourcesChanged(Collections.<Resource>singleton(entity.getUri()));
+		assertNull(tracker.getChanges(persistentEntity, entity));
+		tracker.snapshot(persistentEntity, entity);
+		tracker.databaseChanged();
+		assertEquals(0, tracker.size());
+	}
+
+	private ModelEntity createEntity(){
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(new URIImpl("http://ontotext.com/resource/test"));
+		entity.setName("name");
+		entity.setSynonyms(new ArrayList<String>(Arrays.asList("first", "second")));
+		entity.setRelated(new ArrayList<ModelEntity>());
+		return entity;
+	}
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Namespace;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.openrdf.repository.base.RepositoryWrapper;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.springframework.data.semantic.support.exceptions.ConnectionPoolTimeoutException;
+import org.springframework.data.semantic.support.exceptions.SemanticDatabaseAccessException;
+
+public class TestSesameConnectionPool {
+	
+	private SailRepository repository;
+	
+	private SesameConnectionPool pool;
+	
+	@Before
+	public void setup() throws Exception {
+		repository = new SailRepository(new MemoryStore());
+		repository.initialize();
+		pool = new SesameConnectionPool(repository, 2, 60000);
+		pool.setConnectionTimeout(100);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		pool.shutDown();
+		pool.shutdownThread();
+		repository.shutDown();
+	}
+	
+	@Test
+	public void testConnectionReuse() throws Exception {
+		RepositoryConnection connection = pool.getConnection();
+		assertTrue(connection.isOpen());
+		connection.close();
+		assertEquals(0, pool.getActiveConnections());
+		assertEquals(1, pool.getIdleConnections());
+		RepositoryConnection reused = pool.getConnection();
+		assertTrue(connection == reused);
+		reused.close();
+		assertEquals(1, pool.getOpenConnections().get());
+		assertEquals(2, pool.getBorrowCount());
+	}
+	
+	@Test(expected = ConnectionPoolTimeoutException.class)
+	public void testAcquisitionTimeout() throws Exception {
+		assertNotNull(pool.getConnection());
+		assertNotNull(pool.getConnection());
+		try {
+			pool.getConnection();
+		} finally {
+			assertEquals(1, pool.getTimeoutCount());
+			assertEquals(2, pool.getActiveConnections());
+		}
+	}
+	
+	@Test
+	public void testInvalidIdleConnectionIsDiscarded() throws Exception {
+		pool.setValidationInterval(0);
+		ExtendedRepositoryConnection connection = pool.getConnection();
+		connection.close();
+		connection.getDelegate().close();
+		RepositoryConnection other = pool.getConnection();
+		assertTrue(connection != other);
+		assertTrue(other.isOpen());
+		other.close();
+		assertEquals(1, pool.getOpenConnections().get());
+	}
+
+	@Test
+	public void testFailingCloseReleasesSlot() throws Exception {
+		final boolean[] broken = {false};
+		Repository brokenRepository = new RepositoryWrapper(repository){
+			@Override
+			public RepositoryConnection getConnection() throws RepositoryException {
+				return new RepositoryConnectionWrapper(this, super.getConnection()){
+					@Override
+					public RepositoryResult<Namespace> getNamespaces() throws RepositoryException {
+						if(broken[0]){
+							throw new RepositoryException("broken connection");
+						}
+						return super.getNamespaces();
+					}
+					
+					@Override
+					public void close() throws RepositoryException {
+						super.close();
+						if(broken[0]){
+							throw new RepositoryException("broken connection");
+						}
+					}
+				};
+			}
+		};
+		SesameConnectionPool brokenPool = new SesameConnectionPool(brokenRepository, 1);
+		try {
+			brokenPool.setValidationInterval(0);
+			brokenPool.getConnection().close();
+			broken[0] = true;
+			RepositoryConnection connection = brokenPool.getConnection();
+			assertEquals(1, brokenPool.getOpenConnections().get());
+			connection.close();
+		} finally {
+			brokenPool.shutDown();
+		}
+		assertEquals(0, brokenPool.getOpenConnections().get());
+	}
+
+	@Test
+	public void testReclaimOptOut() throws Exception {
+		pool.setReclaimTimeout(10);
+		ExtendedRepositoryConnection reclaimable = pool.getConnection();
+		ExtendedRepositoryConnection streaming = pool.getConnection();
+		streaming.setReclaimable(false);
+		pool.setHousekeepingInterval(10);
+		Thread.sleep(200);
+		assertFalse(reclaimable.isOpen());
+		assertTrue(streaming.isOpen());
+		streaming.close();
+	}
+	
+	@Test
+	public void testMinIdleAndIdleEviction() throws Exception {
+		pool.setMinIdle(1);
+		pool.setIdleTimeout(10);
+		pool.setHousekeepingInterval(10);
+		Thread.sleep(200);
+		assertEquals(1, pool.getIdleConnections());
+		RepositoryConnection first = pool.getConnection();
+		RepositoryConnection second = pool.getConnection();
+		first.close();
+		second.close();
+		Thread.sleep(200);
+		assertEquals(1, pool.getIdleConnections());
+		assertEquals(1, pool.getOpenConnections().get());
+	}
+	
+	@Test
+	public void testFillIdleConnectionsRespectsLimit() throws Exception {
+		pool.setMinIdle(5);
+		Thread[] fillers = new Thread[4];
+		for(int i = 0; i < fillers.length; i++){
+			fillers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					pool.fillIdleConnections();
+				}
+			});
+			fillers[i].start();
+		}
+		for(Thread filler : fillers){
+			filler.join();
+		}
+		assertEquals(2, pool.getOpenConnections().get());
+		assertEquals(2, pool.getIdleConnections());
+		RepositoryConnection first = pool.getConnection();
+		RepositoryConnection second = pool.getConnection();
+		pool.fillIdleConnections();
+		assertEquals(2, pool.getOpenConnections().get());
+		first.close();
+		second.close();
+	}
+	
+	@Test
+	public void testShutDown() throws Exception {
+		pool.setMinIdle(1);
+		RepositoryConnection leased = pool.getConnection();
+		pool.fillIdleConnections();
+		assertEquals(1, pool.getIdleConnections());
+		pool.shutDown();
+		assertEquals(0, pool.getIdleConnections());
+		pool.fillIdleConnections();
+		assertEquals(0, pool.getIdleConnections());
+		try {
+			pool.getConnection();
+			fail("The pool must not hand out connections after shut down.");
+		} catch (SemanticDatabaseAccessException e) {
+			//expected
+		}
+		leased.close();
+		assertFalse(leased.isOpen());
+		assertEquals(0, pool.getIdleConnections());
+		assertEquals(0, pool.getOpenConnections().get());
+	}
+
+}